@@ -0,0 +1,92 @@
+package sample.taqueriadb.benchmark;
+
+import sample.taqueriadb.dao.ClientDAO;
+import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.model.Client;
+import sample.taqueriadb.model.Employee;
+import sample.taqueriadb.utils.SQLCommandExecutor;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Prepara una base de datos H2 en memoria (modo MySQL) con las tablas client y employee para los benchmarks, o la
+ * base de datos indicada en JDBC_URL (la prueba de carga puede usar MySQL).
+ * JMH ejecuta cada benchmark en una JVM separada, por lo que cada uno obtiene su propia base de datos y su propio pool.
+ */
+final class BenchmarkDatabase {
+    // Filas por lote al poblar las tablas, para no construir listas enormes en memoria.
+    private static final int populate_chunk = 10_000;
+
+    private BenchmarkDatabase() {}
+
+    static void start() throws SQLException {
+        start(new Properties());
+    }
+
+    /**
+     * @param overrides Propiedades que reemplazan a las predeterminadas, por ejemplo JDBC_URL para usar MySQL.
+     */
+    static void start(Properties overrides) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("JDBC_URL", "jdbc:h2:mem:taqueria;DB_CLOSE_DELAY=-1;MODE=MySQL");
+        properties.setProperty("USER", "sa");
+        properties.setProperty("PASSWORD", "");
+        properties.setProperty("POOL_MIN_SIZE", "1");
+        properties.setProperty("POOL_MAX_SIZE", "4");
+        properties.setProperty("POOL_LEAK_THRESHOLD_MS", "0");
+        properties.setProperty("FETCH_SIZE", "1000");
+        properties.setProperty("BATCH_SIZE", "1000");
+        properties.putAll(overrides);
+
+        // Las tablas se crean con las migraciones del esquema al crear el pool.
+        DatabaseConnector.createConnection(properties);
+    }
+
+    static void stop() {
+        DatabaseConnector.closeConnection();
+    }
+
+    static void truncate(String table) throws SQLException {
+        SQLCommandExecutor.executeUpdate(
+            "BenchmarkDatabase.truncate", "TRUNCATE TABLE " + table + " RESTART IDENTITY"
+        );
+    }
+
+    static List<Client> clients(int count) {
+        List<Client> clients = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            clients.add(new Client("Cliente " + i));
+        }
+
+        return clients;
+    }
+
+    static void populateClients(int count) throws SQLException {
+        for (int start = 0; start < count; start += populate_chunk) {
+            ClientDAO.addAll(clients(Math.min(populate_chunk, count - start)));
+        }
+    }
+
+    static void populateEmployees(int count) throws SQLException {
+        for (int start = 0; start < count; start += populate_chunk) {
+            int size = Math.min(populate_chunk, count - start);
+            List<Employee> employees = new ArrayList<>(size);
+
+            for (int i = start; i < start + size; i++) {
+                employees.add(new Employee(
+                    "Nombre " + (i % 500),
+                    "Apellido " + (i % 2000),
+                    "55" + (10_000_000 + i),
+                    "empleado" + i + "@taqueria.mx"
+                ));
+            }
+
+            EmployeeDAO.addAll(employees);
+        }
+    }
+}
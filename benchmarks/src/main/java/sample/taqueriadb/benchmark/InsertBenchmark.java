@@ -0,0 +1,70 @@
+package sample.taqueriadb.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sample.taqueriadb.dao.ClientDAO;
+import sample.taqueriadb.model.Client;
+import sample.taqueriadb.utils.BatchResult;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara insertar N clientes uno por uno (ClientDAO.add) contra insertarlos en lotes (ClientDAO.addAll).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+    @Param({"100", "1000"})
+    public int rows;
+
+    private List<Client> clients;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.start();
+        clients = BenchmarkDatabase.clients(rows);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTable() throws SQLException {
+        BenchmarkDatabase.truncate("client");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public int singleInserts() throws SQLException {
+        int last_id = 0;
+
+        for (Client client : clients) {
+            last_id = ClientDAO.add(client).getId();
+        }
+
+        return last_id;
+    }
+
+    @Benchmark
+    public BatchResult batchedInsert() throws SQLException {
+        return ClientDAO.addAll(clients);
+    }
+}
@@ -0,0 +1,609 @@
+package sample.taqueriadb.benchmark;
+
+import sample.taqueriadb.dao.ClientDAO;
+import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.metrics.LatencyHistogram;
+import sample.taqueriadb.model.Client;
+import sample.taqueriadb.model.Employee;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToIntFunction;
+
+/**
+ * Prueba de carga de la capa de datos: N cajeros simulados llaman a ClientDAO y EmployeeDAO con una mezcla
+ * configurable de operaciones, y al final se reportan el rendimiento, los percentiles de latencia (p50, p99, p99.9) y
+ * la tasa de errores de cada operación.
+ *
+ * Hay dos modelos de llegada:
+ * - closed: cada cajero hace una operación, espera un tiempo de reflexión (--think-ms, distribución exponencial) y
+ *   repite. El rendimiento se ajusta a la velocidad de la base de datos.
+ * - open: las operaciones llegan a una tasa fija (--rate por segundo, llegadas de Poisson) sin importar si la base de
+ *   datos alcanza a atenderlas, y los cajeros las toman de una cola. La latencia se mide desde la llegada programada,
+ *   así que incluye la espera en la cola: si la base de datos se satura, los percentiles lo muestran en lugar de
+ *   ocultarlo (omisión coordinada).
+ *
+ * Por omisión usa una base de datos H2 en memoria; con --jdbc-url se prueba contra MySQL. Las filas que se modifican
+ * y eliminan son solo las que la prueba insertó (--rows al inicio, más las de la operación add), y al terminar se
+ * eliminan las que queden. Aun así, conviene usar una base de datos de prueba.
+ *
+ * Uso:
+ *     java -cp benchmarks/target/benchmarks.jar sample.taqueriadb.benchmark.LoadGenerator
+ *         [--cashiers=16] [--mode=closed|open] [--rate=500] [--think-ms=0]
+ *         [--mix=add=20,update=20,delete=10,list=40,get=10] [--tables=clients,employees]
+ *         [--duration=30] [--warmup=5] [--rows=10000] [--pool-size=cajeros]
+ *         [--jdbc-url=jdbc:mysql://... --user=... --password=...]
+ */
+public class LoadGenerator {
+    // Operaciones de la mezcla, en el orden de sus pesos.
+    private static final String[] operation_names = { "add", "update", "delete", "list", "get" };
+    private static final int add_operation = 0;
+    private static final int update_operation = 1;
+    private static final int delete_operation = 2;
+    private static final int list_operation = 3;
+    private static final int get_operation = 4;
+
+    // Filas por página en la operación list.
+    private static final int list_page_size = 50;
+    // Cada cuántos segundos se imprime el avance.
+    private static final int report_interval_seconds = 5;
+
+    private final int cashiers;
+    private final boolean open_loop;
+    private final double rate;
+    private final double think_millis;
+    private final int[] weights;
+    private final int total_weight;
+    private final boolean use_clients;
+    private final boolean use_employees;
+    private final int duration_seconds;
+    private final int warmup_seconds;
+    private final int seed_rows;
+    // Prefijo de los nombres de las filas que crea la prueba. Incluye un identificador de la ejecución para que dos
+    // generadores contra la misma base de datos no tomen como propias las filas del otro.
+    private final String name_prefix = "Carga " + UUID.randomUUID().toString().substring(0, 8) + " ";
+
+    // IDs de las filas que creó la prueba y que aún existen, por tabla.
+    private final IdPool client_ids = new IdPool();
+    private final IdPool employee_ids = new IdPool();
+
+    // Métricas por operación. Se reinician al terminar el calentamiento.
+    private final LatencyHistogram[] latencies = new LatencyHistogram[operation_names.length];
+    private final LongAdder[] errors = new LongAdder[operation_names.length];
+    private final LatencyHistogram total_latency = new LatencyHistogram();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    // Primer error de cada operación, para mostrarlo en el reporte.
+    private final String[] first_errors = new String[operation_names.length];
+
+    private LoadGenerator(Options options) {
+        this.cashiers = options.getInt("cashiers", 16);
+        this.open_loop = options.get("mode", "closed").equals("open");
+        this.rate = options.getDouble("rate", 500);
+        this.think_millis = options.getDouble("think-ms", 0);
+        this.weights = parseMix(options.get("mix", "add=20,update=20,delete=10,list=40,get=10"));
+        this.total_weight = Arrays.stream(weights).sum();
+        this.duration_seconds = options.getInt("duration", 30);
+        this.warmup_seconds = options.getInt("warmup", 5);
+        this.seed_rows = options.getInt("rows", 10_000);
+
+        List<String> tables = Arrays.asList(options.get("tables", "clients,employees").split(","));
+        this.use_clients = tables.contains("clients");
+        this.use_employees = tables.contains("employees");
+
+        if (!use_clients && !use_employees) {
+            throw new IllegalArgumentException("--tables debe incluir clients o employees.");
+        }
+        if (cashiers < 1) throw new IllegalArgumentException("--cashiers debe ser mayor a 0.");
+        if (open_loop && rate <= 0) throw new IllegalArgumentException("--rate debe ser mayor a 0.");
+        if (!options.get("mode", "closed").matches("open|closed")) {
+            throw new IllegalArgumentException("--mode debe ser open o closed.");
+        }
+
+        for (int i = 0; i < operation_names.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            errors[i] = new LongAdder();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        LoadGenerator generator;
+
+        try {
+            generator = new LoadGenerator(options);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("POOL_MAX_SIZE", options.get("pool-size", String.valueOf(generator.cashiers)));
+
+        String jdbc_url = options.get("jdbc-url", null);
+
+        if (jdbc_url != null) {
+            properties.setProperty("JDBC_URL", jdbc_url);
+            properties.setProperty("USER", options.get("user", ""));
+            properties.setProperty("PASSWORD", options.get("password", ""));
+        }
+
+        BenchmarkDatabase.start(properties);
+
+        try {
+            generator.run();
+        } finally {
+            BenchmarkDatabase.stop();
+        }
+    }
+
+    private void run() throws Exception {
+        System.out.println(String.format(
+            Locale.ROOT,
+            "Cajeros: %d, modelo: %s, mezcla: %s, duración: %d s (+%d s de calentamiento)",
+            cashiers,
+            open_loop ? String.format(Locale.ROOT, "abierto a %.0f ops/s", rate)
+                : String.format(Locale.ROOT, "cerrado, reflexión %.0f ms", think_millis),
+            describeMix(),
+            duration_seconds,
+            warmup_seconds
+        ));
+
+        seed();
+
+        long start = System.nanoTime();
+        long measure_start = start + TimeUnit.SECONDS.toNanos(warmup_seconds);
+        long end = measure_start + TimeUnit.SECONDS.toNanos(duration_seconds);
+
+        Thread reporter = startReporter(start, measure_start, end);
+
+        if (open_loop) {
+            runOpenLoop(end);
+        } else {
+            runClosedLoop(end);
+        }
+
+        reporter.interrupt();
+        reporter.join();
+
+        printReport((System.nanoTime() - Math.max(measure_start, start)) / 1e9);
+        System.out.println(DatabaseConnector.getPoolStats());
+
+        cleanUp();
+    }
+
+    private void runClosedLoop(long end) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < cashiers; i++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                while (System.nanoTime() < end) {
+                    execute(System.nanoTime());
+
+                    if (think_millis > 0) {
+                        LockSupport.parkNanos((long) (-Math.log(1 - random.nextDouble()) * think_millis * 1e6));
+                    }
+                }
+            }, "cajero-" + (i + 1));
+
+            thread.start();
+            threads.add(thread);
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private void runOpenLoop(long end) throws InterruptedException {
+        AtomicInteger thread_number = new AtomicInteger();
+        ExecutorService cashier_pool = Executors.newFixedThreadPool(
+            cashiers, runnable -> new Thread(runnable, "cajero-" + thread_number.incrementAndGet())
+        );
+
+        Random random = new Random();
+        double mean_interval_nanos = 1e9 / rate;
+        long arrival = System.nanoTime();
+
+        // Las llegadas se programan de antemano; si el hilo se retrasa, se envían de inmediato las pendientes.
+        while (arrival < end) {
+            long wait = arrival - System.nanoTime();
+
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            long scheduled_at = arrival;
+            cashier_pool.execute(() -> execute(scheduled_at));
+
+            arrival += (long) (-Math.log(1 - random.nextDouble()) * mean_interval_nanos);
+        }
+
+        // Las operaciones que quedaron en la cola también cuentan: muestran cuánto se atrasó la base de datos.
+        cashier_pool.shutdown();
+        cashier_pool.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Ejecuta una operación al azar según la mezcla y registra su latencia.
+     *
+     * @param scheduled_at Momento en que la operación debía empezar (System.nanoTime()).
+     */
+    private void execute(long scheduled_at) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int operation = pickOperation(random);
+        boolean clients = use_clients && (!use_employees || random.nextBoolean());
+
+        try {
+            if (clients) {
+                executeClient(operation, random);
+            } else {
+                executeEmployee(operation, random);
+            }
+        } catch (SQLException | RuntimeException e) {
+            errors[operation].increment();
+
+            synchronized (first_errors) {
+                if (first_errors[operation] == null) first_errors[operation] = e.toString();
+            }
+        }
+
+        long latency = System.nanoTime() - scheduled_at;
+        latencies[operation].record(latency);
+        total_latency.record(latency);
+        completed.incrementAndGet();
+    }
+
+    private void executeClient(int operation, ThreadLocalRandom random) throws SQLException {
+        switch (operation) {
+            case add_operation:
+                client_ids.add(ClientDAO.add(new Client(name_prefix + sequence.incrementAndGet())).getId());
+                break;
+            case update_operation: {
+                int id = client_ids.pick(random);
+
+                if (id > 0) ClientDAO.update(new Client(id, name_prefix + sequence.incrementAndGet()));
+                break;
+            }
+            case delete_operation: {
+                int id = client_ids.take(random);
+
+                if (id > 0) ClientDAO.delete(id);
+                break;
+            }
+            case list_operation:
+                ClientDAO.getClientsAfter(client_ids.pick(random) - 1, list_page_size);
+                break;
+            default:
+                ClientDAO.getClientById(client_ids.pick(random));
+                break;
+        }
+    }
+
+    private void executeEmployee(int operation, ThreadLocalRandom random) throws SQLException {
+        switch (operation) {
+            case add_operation:
+                employee_ids.add(EmployeeDAO.add(newEmployee(sequence.incrementAndGet())).getId());
+                break;
+            case update_operation: {
+                int id = employee_ids.pick(random);
+
+                if (id > 0) {
+                    Employee employee = newEmployee(sequence.incrementAndGet());
+                    employee.setId(id);
+                    EmployeeDAO.update(employee);
+                }
+                break;
+            }
+            case delete_operation: {
+                int id = employee_ids.take(random);
+
+                if (id > 0) EmployeeDAO.delete(id);
+                break;
+            }
+            case list_operation:
+                EmployeeDAO.getEmployeesAfter(employee_ids.pick(random) - 1, list_page_size);
+                break;
+            default:
+                EmployeeDAO.getEmployeeById(employee_ids.pick(random));
+                break;
+        }
+    }
+
+    private Employee newEmployee(long number) {
+        return new Employee(
+            name_prefix + number, "Apellido " + (number % 2000), "55" + (10_000_000 + number % 90_000_000),
+            "carga" + number + "@taqueria.mx"
+        );
+    }
+
+    private int pickOperation(ThreadLocalRandom random) {
+        int value = random.nextInt(total_weight);
+
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+
+            if (value < 0) return i;
+        }
+
+        return weights.length - 1;
+    }
+
+    /**
+     * Inserta las filas iniciales en lotes y obtiene sus IDs, para que update, delete, list y get tengan sobre qué
+     * trabajar desde el inicio.
+     */
+    private void seed() throws SQLException {
+        long start = System.nanoTime();
+
+        if (use_clients) {
+            int last_id = lastId(ClientDAO.getClientsBefore(Integer.MAX_VALUE, 1), Client::getId);
+            List<Client> clients = new ArrayList<>();
+
+            for (int i = 0; i < seed_rows; i++) {
+                clients.add(new Client(name_prefix + sequence.incrementAndGet()));
+            }
+
+            ClientDAO.addAll(clients);
+
+            // IDs de las filas insertadas: las posteriores al último ID previo con el prefijo de esta ejecución.
+            for (List<Client> page = ClientDAO.getClientsAfter(last_id, 1000); !page.isEmpty();
+                 page = ClientDAO.getClientsAfter(page.get(page.size() - 1).getId(), 1000)) {
+                for (Client client : page) {
+                    if (client.getName().startsWith(name_prefix)) client_ids.add(client.getId());
+                }
+            }
+        }
+
+        if (use_employees) {
+            int last_id = lastId(EmployeeDAO.getEmployeesBefore(Integer.MAX_VALUE, 1), Employee::getId);
+            List<Employee> employees = new ArrayList<>();
+
+            for (int i = 0; i < seed_rows; i++) {
+                employees.add(newEmployee(sequence.incrementAndGet()));
+            }
+
+            EmployeeDAO.addAll(employees);
+
+            for (List<Employee> page = EmployeeDAO.getEmployeesAfter(last_id, 1000); !page.isEmpty();
+                 page = EmployeeDAO.getEmployeesAfter(page.get(page.size() - 1).getId(), 1000)) {
+                for (Employee employee : page) {
+                    if (employee.getName().startsWith(name_prefix)) employee_ids.add(employee.getId());
+                }
+            }
+        }
+
+        System.out.println(String.format(
+            Locale.ROOT, "Filas iniciales: %,d clientes y %,d empleados en %.1f s",
+            client_ids.size(), employee_ids.size(), (System.nanoTime() - start) / 1e9
+        ));
+    }
+
+    private static <T> int lastId(List<T> page, ToIntFunction<T> id_accessor) {
+        return page.isEmpty() ? 0 : id_accessor.applyAsInt(page.get(page.size() - 1));
+    }
+
+    // Elimina las filas que creó la prueba y que aún existen.
+    private void cleanUp() throws SQLException {
+        if (use_clients) ClientDAO.deleteAll(client_ids.toArray());
+        if (use_employees) EmployeeDAO.deleteAll(employee_ids.toArray());
+    }
+
+    /**
+     * Imprime el avance cada pocos segundos y reinicia las métricas al terminar el calentamiento.
+     */
+    private Thread startReporter(long start, long measure_start, long end) {
+        Thread reporter = new Thread(() -> {
+            boolean warming_up = warmup_seconds > 0;
+            long last_completed = 0;
+
+            try {
+                while (System.nanoTime() < end) {
+                    long next = Math.min(
+                        warming_up ? measure_start : end,
+                        System.nanoTime() + TimeUnit.SECONDS.toNanos(report_interval_seconds)
+                    );
+                    TimeUnit.NANOSECONDS.sleep(Math.max(0, next - System.nanoTime()));
+
+                    long now = System.nanoTime();
+                    long total = completed.get();
+
+                    System.out.println(String.format(
+                        Locale.ROOT, "%5.0f s  %,10d operaciones%s",
+                        (now - start) / 1e9, total - last_completed, warming_up ? "  (calentamiento)" : ""
+                    ));
+                    last_completed = total;
+
+                    if (warming_up && now >= measure_start) {
+                        warming_up = false;
+                        resetMetrics();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Terminó la prueba.
+            }
+        }, "reporte");
+
+        reporter.setDaemon(true);
+        reporter.start();
+
+        return reporter;
+    }
+
+    private void resetMetrics() {
+        for (int i = 0; i < operation_names.length; i++) {
+            latencies[i].reset();
+            errors[i].reset();
+        }
+
+        total_latency.reset();
+    }
+
+    private void printReport(double seconds) {
+        System.out.println();
+        System.out.println(String.format(
+            Locale.ROOT, "%-8s %12s %10s %9s %9s %9s %9s %9s",
+            "Op.", "Total", "ops/s", "Errores", "p50 ms", "p99 ms", "p99.9 ms", "máx ms"
+        ));
+
+        long total_errors = 0;
+
+        for (int i = 0; i < operation_names.length; i++) {
+            if (weights[i] == 0) continue;
+
+            printLine(operation_names[i], latencies[i], errors[i].sum(), seconds);
+            total_errors += errors[i].sum();
+        }
+
+        printLine("total", total_latency, total_errors, seconds);
+
+        for (int i = 0; i < operation_names.length; i++) {
+            if (first_errors[i] != null) {
+                System.out.println("Primer error en " + operation_names[i] + ": " + first_errors[i]);
+            }
+        }
+    }
+
+    private static void printLine(String name, LatencyHistogram latency, long error_count, double seconds) {
+        long count = latency.getCount();
+
+        System.out.println(String.format(
+            Locale.ROOT, "%-8s %,12d %,10.0f %8.2f%% %9.2f %9.2f %9.2f %9.2f",
+            name,
+            count,
+            count / seconds,
+            count == 0 ? 0 : 100.0 * error_count / count,
+            latency.getValueAtPercentile(50) / 1e6,
+            latency.getValueAtPercentile(99) / 1e6,
+            latency.getValueAtPercentile(99.9) / 1e6,
+            latency.getMax() / 1e6
+        ));
+    }
+
+    // "add=20,update=20,..." -> pesos en el orden de operation_names.
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[operation_names.length];
+
+        for (String part : mix.split(",")) {
+            String[] pair = part.split("=");
+            int index = Arrays.asList(operation_names).indexOf(pair[0].trim());
+
+            if (pair.length != 2 || index < 0) {
+                throw new IllegalArgumentException(
+                    "--mix no válido: " + part + " (operaciones: " + String.join(", ", operation_names) + ")."
+                );
+            }
+
+            weights[index] = Integer.parseInt(pair[1].trim());
+
+            if (weights[index] < 0) throw new IllegalArgumentException("--mix no admite pesos negativos.");
+        }
+
+        if (Arrays.stream(weights).sum() == 0) throw new IllegalArgumentException("--mix no tiene operaciones.");
+
+        return weights;
+    }
+
+    private String describeMix() {
+        StringBuilder mix = new StringBuilder();
+
+        for (int i = 0; i < operation_names.length; i++) {
+            if (weights[i] == 0) continue;
+
+            if (mix.length() > 0) mix.append(", ");
+
+            mix.append(operation_names[i]).append(' ').append(weights[i] * 100 / total_weight).append('%');
+        }
+
+        return mix.toString();
+    }
+
+    /**
+     * IDs de las filas creadas por la prueba. Permite elegir uno al azar y quitarlo en tiempo constante.
+     */
+    private static final class IdPool {
+        private int[] ids = new int[1024];
+        private int size;
+
+        synchronized void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+
+            ids[size++] = id;
+        }
+
+        // Un ID al azar, o 0 si no hay ninguno.
+        synchronized int pick(ThreadLocalRandom random) {
+            return size == 0 ? 0 : ids[random.nextInt(size)];
+        }
+
+        // Quita y devuelve un ID al azar, o 0 si no hay ninguno. Así dos cajeros no eliminan la misma fila.
+        synchronized int take(ThreadLocalRandom random) {
+            if (size == 0) return 0;
+
+            int index = random.nextInt(size);
+            int id = ids[index];
+            ids[index] = ids[--size];
+
+            return id;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    /**
+     * Opciones de la línea de comandos con la forma --nombre=valor.
+     */
+    private static final class Options {
+        private final String[] args;
+
+        Options(String[] args) {
+            this.args = args;
+        }
+
+        String get(String name, String default_value) {
+            for (String arg : args) {
+                if (arg.startsWith("--" + name + "=")) return arg.substring(name.length() + 3);
+            }
+
+            return default_value;
+        }
+
+        int getInt(String name, int default_value) {
+            try {
+                return Integer.parseInt(get(name, String.valueOf(default_value)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--" + name + " debe ser un número entero.");
+            }
+        }
+
+        double getDouble(String name, double default_value) {
+            try {
+                return Double.parseDouble(get(name, String.valueOf(default_value)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--" + name + " debe ser un número.");
+            }
+        }
+    }
+}
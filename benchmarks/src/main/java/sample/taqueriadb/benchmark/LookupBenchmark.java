@@ -0,0 +1,78 @@
+package sample.taqueriadb.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.model.Employee;
+import sample.taqueriadb.utils.RowMapper;
+import sample.taqueriadb.utils.SQLCommandExecutor;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la búsqueda de un empleado por ID con la caché de EmployeeDAO contra la consulta directa a la base de datos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+    private static final int rows = 10_000;
+
+    private static final RowMapper<Employee> mapper = result_set -> {
+        int id = result_set.findColumn("id_employee");
+        int name = result_set.findColumn("name");
+        int last_name = result_set.findColumn("last_name");
+        int phone_number = result_set.findColumn("phone_number");
+        int email = result_set.findColumn("email");
+
+        return row -> new Employee(
+            row.getInt(id),
+            row.getString(name),
+            row.getString(last_name),
+            row.getString(phone_number),
+            row.getString(email)
+        );
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.start();
+        BenchmarkDatabase.populateEmployees(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    private static int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, rows + 1);
+    }
+
+    @Benchmark
+    public Employee cachedLookup() throws SQLException {
+        return EmployeeDAO.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    public Employee databaseLookup() throws SQLException {
+        return SQLCommandExecutor.queryOne(
+            "LookupBenchmark.databaseLookup", "SELECT * FROM employee WHERE id_employee = ?", mapper, randomId()
+        );
+    }
+}
@@ -0,0 +1,97 @@
+package sample.taqueriadb.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.model.Client;
+import sample.taqueriadb.utils.RowMapper;
+import sample.taqueriadb.utils.SQLCommandExecutor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara tres formas de ejecutar la misma consulta por ID: construir el SQL con String.format y un Statement nuevo
+ * (el enfoque original de los DAO), preparar la sentencia en cada llamada, y reutilizarla desde la caché de
+ * sentencias de SQLCommandExecutor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementReuseBenchmark {
+    private static final int rows = 10_000;
+
+    private static final RowMapper<Client> mapper = result_set -> {
+        int id = result_set.findColumn("id_client");
+        int name = result_set.findColumn("name");
+
+        return row -> new Client(row.getInt(id), row.getString(name));
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.start();
+        BenchmarkDatabase.populateClients(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    private static int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, rows + 1);
+    }
+
+    @Benchmark
+    public Client stringFormat() throws SQLException {
+        String query = String.format("SELECT * FROM client WHERE id_client = %d", randomId());
+
+        try (
+            Connection connection = DatabaseConnector.getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet result_set = statement.executeQuery(query)
+        ) {
+            return result_set.next() ? mapper.bind(result_set).read(result_set) : null;
+        }
+    }
+
+    @Benchmark
+    public Client prepareEachCall() throws SQLException {
+        try (
+            Connection connection = DatabaseConnector.getConnection();
+            PreparedStatement statement = connection.prepareStatement("SELECT * FROM client WHERE id_client = ?")
+        ) {
+            statement.setInt(1, randomId());
+
+            try (ResultSet result_set = statement.executeQuery()) {
+                return result_set.next() ? mapper.bind(result_set).read(result_set) : null;
+            }
+        }
+    }
+
+    @Benchmark
+    public Client cachedStatement() throws SQLException {
+        return SQLCommandExecutor.queryOne(
+            "StatementReuseBenchmark.cachedStatement", "SELECT * FROM client WHERE id_client = ?", mapper, randomId()
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package sample.taqueriadb.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.model.Employee;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Mide la carga completa de la tabla employee y su conversión a objetos Employee, para 1k, 100k y 1M filas.
+ * mapByColumnLabel reproduce el mapeo anterior (getString por nombre de columna en cada celda) como referencia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TableLoadBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.start();
+        BenchmarkDatabase.populateEmployees(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public List<Employee> loadList() throws SQLException {
+        return EmployeeDAO.getEmployees();
+    }
+
+    @Benchmark
+    public void streamRows(Blackhole blackhole) throws SQLException {
+        try (Stream<Employee> employees = EmployeeDAO.streamEmployees()) {
+            employees.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public List<Employee> mapByColumnLabel() throws SQLException {
+        List<Employee> employees = new ArrayList<>();
+
+        try (
+            Connection connection = DatabaseConnector.getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet result_set = statement.executeQuery("SELECT * FROM employee")
+        ) {
+            while (result_set.next()) {
+                employees.add(new Employee(
+                    result_set.getInt("id_employee"),
+                    result_set.getString("name"),
+                    result_set.getString("last_name"),
+                    result_set.getString("phone_number"),
+                    result_set.getString("email")
+                ));
+            }
+        }
+
+        return employees;
+    }
+}
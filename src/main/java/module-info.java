@@ -2,10 +2,10 @@ module sample.taqueriadb {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires jdk.httpserver;
     requires mysql.connector.j;
 
 
     opens sample.taqueriadb to javafx.fxml;
-    opens sample.taqueriadb.model;
     exports sample.taqueriadb;
 }
\ No newline at end of file
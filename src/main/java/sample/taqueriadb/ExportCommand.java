@@ -0,0 +1,112 @@
+package sample.taqueriadb;
+
+import sample.taqueriadb.dao.ClientDAO;
+import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.db.SQLSupplier;
+import sample.taqueriadb.utils.TableExporter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Exportación sin interfaz gráfica, para usarse desde scripts:
+ *
+ * --export=clients|employees --output=archivo.csv|archivo.jsonl
+ *
+ * El progreso se imprime en la salida estándar. Ctrl+C cancela la exportación sin dejar un archivo a medias.
+ */
+class ExportCommand {
+    // Cada cuántas filas se imprime el progreso.
+    private static final long progress_interval = 100_000;
+
+    private ExportCommand() {}
+
+    /**
+     * @param table Tabla a exportar: clients o employees.
+     * @param output Archivo de destino; el formato se elige por la extensión.
+     * @return el código de salida del proceso: 0 si terminó, 1 si falló, 2 si los argumentos no son válidos y 130
+     * si se canceló.
+     */
+    static int run(String table, String output) {
+        if (output == null) {
+            System.out.println("Falta --output=archivo.csv|archivo.jsonl");
+            return 2;
+        }
+
+        switch (table) {
+            case "clients":
+                return export(ClientDAO.getExporter(), ClientDAO::streamClients, Paths.get(output));
+            case "employees":
+                return export(EmployeeDAO.getExporter(), EmployeeDAO::streamEmployees, Paths.get(output));
+            default:
+                System.out.println("Tabla desconocida: " + table + " (se esperaba clients o employees).");
+                return 2;
+        }
+    }
+
+    private static <T> int export(TableExporter<T> exporter, SQLSupplier<Stream<T>> rows, Path file) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        // Ctrl+C: detiene la exportación y espera a que se borre el archivo temporal.
+        Thread shutdown_hook = new Thread(() -> {
+            cancelled.set(true);
+
+            try {
+                finished.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdown_hook);
+
+        long start = System.nanoTime();
+
+        try {
+            DatabaseConnector.createConnection();
+
+            long row_count;
+
+            try (Stream<T> stream = rows.get()) {
+                row_count = exporter.export(stream, file, count -> {
+                    if (count % progress_interval == 0) {
+                        System.out.println(String.format(Locale.ROOT, "%,d filas...", count));
+                    }
+                }, cancelled::get);
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println(String.format(
+                Locale.ROOT, "Se exportaron %,d filas en %.1f s (%,.0f filas/s) a %s.",
+                row_count, seconds, row_count / Math.max(seconds, 1e-9), file
+            ));
+
+            return 0;
+        } catch (CancellationException e) {
+            System.out.println("Exportación cancelada.");
+
+            return 130;
+        } catch (Exception e) {
+            e.printStackTrace();
+
+            return 1;
+        } finally {
+            DatabaseConnector.closeConnection();
+            finished.countDown();
+
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdown_hook);
+            } catch (IllegalStateException e) {
+                // El proceso ya se está cerrando (Ctrl+C).
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package sample.taqueriadb;
+
+import sample.taqueriadb.dao.ClientDAO;
+import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.utils.ImportResult;
+import sample.taqueriadb.utils.TableImporter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Importación sin interfaz gráfica, para usarse desde scripts:
+ *
+ * --import=clients|employees --input=archivo.csv [--errors=archivo.csv]
+ *
+ * El progreso y la velocidad se imprimen en la salida estándar. Las filas rechazadas se escriben en el archivo de
+ * errores (por omisión, junto al archivo importado). Ctrl+C detiene la importación; las filas ya guardadas se
+ * conservan.
+ */
+class ImportCommand {
+    // Cada cuántas filas se imprime el progreso, aproximadamente: se reporta al terminar cada bloque del archivo.
+    private static final long progress_interval = 100_000;
+
+    private ImportCommand() {}
+
+    /**
+     * @param table Tabla a la que se importa: clients o employees.
+     * @param input Archivo CSV con encabezado.
+     * @param errors Archivo de filas rechazadas, o null para usar el predeterminado.
+     * @return el código de salida del proceso: 0 si se importaron todas las filas, 3 si se rechazó alguna, 1 si
+     * falló, 2 si los argumentos no son válidos y 130 si se canceló.
+     */
+    static int run(String table, String input, String errors) {
+        if (input == null) {
+            System.out.println("Falta --input=archivo.csv");
+            return 2;
+        }
+
+        Path file = Paths.get(input);
+        Path error_file = errors == null ? TableImporter.getErrorFile(file) : Paths.get(errors);
+
+        switch (table) {
+            case "clients":
+                return importFile(ClientDAO.getImporter(), ClientDAO::addAll, file, error_file);
+            case "employees":
+                return importFile(EmployeeDAO.getImporter(), EmployeeDAO::addAll, file, error_file);
+            default:
+                System.out.println("Tabla desconocida: " + table + " (se esperaba clients o employees).");
+                return 2;
+        }
+    }
+
+    private static <T> int importFile(
+        TableImporter<T> importer, TableImporter.Inserter<T> inserter, Path file, Path error_file
+    ) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        // Ctrl+C: detiene la importación y espera a que termine el bloque en curso.
+        Thread shutdown_hook = new Thread(() -> {
+            cancelled.set(true);
+
+            try {
+                finished.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdown_hook);
+
+        long start = System.nanoTime();
+        long[] next_report = { progress_interval };
+
+        try {
+            DatabaseConnector.createConnection();
+
+            ImportResult result = importer.importFile(file, error_file, inserter, count -> {
+                if (count < next_report[0]) return;
+
+                next_report[0] = (count / progress_interval + 1) * progress_interval;
+
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                System.out.println(String.format(
+                    Locale.ROOT, "%,d filas (%,.0f filas/s)...", count, count / Math.max(seconds, 1e-9)
+                ));
+            }, cancelled::get);
+
+            System.out.println(result.getSummary());
+
+            return result.getRejectedCount() > 0 ? 3 : 0;
+        } catch (CancellationException e) {
+            System.out.println(e.getMessage());
+
+            return 130;
+        } catch (Exception e) {
+            e.printStackTrace();
+
+            return 1;
+        } finally {
+            DatabaseConnector.closeConnection();
+            finished.countDown();
+
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdown_hook);
+            } catch (IllegalStateException e) {
+                // El proceso ya se está cerrando (Ctrl+C).
+            }
+        }
+    }
+}
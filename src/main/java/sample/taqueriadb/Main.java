@@ -1,31 +1,135 @@
 package sample.taqueriadb;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
+import sample.taqueriadb.dao.DeletedRowPruner;
+import sample.taqueriadb.dao.WriteBehind;
+import sample.taqueriadb.metrics.QueryMetrics;
+import sample.taqueriadb.metrics.StartupMetrics;
 import sample.taqueriadb.ui.client.ClientsList;
+import sample.taqueriadb.ui.diagnostics.DiagnosticsWindow;
 import sample.taqueriadb.ui.employee.EmployeesList;
 import sample.taqueriadb.db.DatabaseConnector;
 
 public class Main extends Application {
     @Override
     public void start(Stage stage) throws IOException {
-        DatabaseConnector.createConnection();
+        StartupMetrics.end("JVM y JavaFX");
 
-        new EmployeesList();
+        StartupMetrics.begin("Configuración");
+        DatabaseConnector.loadProperties();
+        StartupMetrics.end("Configuración");
 
-        new ClientsList();
+        // Crea el pool y aplica las migraciones en segundo plano mientras se construyen las ventanas. Las consultas
+        // de las listas esperan a que el pool esté listo.
+        StartupMetrics.begin("Conexión y migraciones");
+        CompletableFuture<Void> connected = DatabaseConnector.createConnectionAsync()
+            .whenComplete((ignored, error) -> {
+                StartupMetrics.end("Conexión y migraciones");
 
-        Scene scene = new Scene(new VBox(), 320, 240);
+                if (error != null) error.printStackTrace();
+            });
+
+        // Avisa al usuario de las escrituras diferidas que la base de datos rechaza, incluidas las de la sesión
+        // anterior.
+        WriteBehind.addRejectionListener(message -> Platform.runLater(() -> {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setHeaderText(null);
+            alert.setTitle("Escritura rechazada");
+            alert.setContentText(message);
+            alert.show();
+        }));
+
+        // Aplica las escrituras diferidas pendientes de la sesión anterior, si WRITE_BEHIND está activado.
+        WriteBehind.start();
+
+        // Borra periódicamente las marcas de eliminación viejas que ya no necesita ninguna terminal.
+        DeletedRowPruner.start();
+
+        // Cada lista se muestra de inmediato (vacía o con su copia local) y carga sus datos en el ejecutor de base de
+        // datos, por lo que ambas cargas se realizan a la vez.
+        StartupMetrics.begin("Ventanas");
+        StartupMetrics.begin("Datos de empleados");
+        StartupMetrics.begin("Datos de clientes");
+
+        CompletableFuture<Void> employees_loaded = new EmployeesList().getInitialLoad()
+            .whenComplete((ignored, error) -> StartupMetrics.end("Datos de empleados"));
+
+        CompletableFuture<Void> clients_loaded = new ClientsList().getInitialLoad()
+            .whenComplete((ignored, error) -> StartupMetrics.end("Datos de clientes"));
+
+        Button btn_diagnostics = new Button("Diagnóstico");
+        btn_diagnostics.setOnAction(actionEvent -> new DiagnosticsWindow());
+
+        Scene scene = new Scene(new VBox(btn_diagnostics), 320, 240);
         stage.setTitle("Hello!");
         stage.setScene(scene);
         stage.show();
+
+        StartupMetrics.end("Ventanas");
+
+        CompletableFuture.allOf(connected, employees_loaded, clients_loaded).whenComplete((ignored, error) -> {
+            StartupMetrics.end("Arranque");
+            System.out.println("Tiempos de arranque:\n" + StartupMetrics.getSummary());
+
+            // Ejecución de entrenamiento del perfil appcds (pom.xml): termina en cuanto arranca, para que el archivo
+            // de clases compartidas incluya las clases que se cargan al iniciar.
+            if (Boolean.getBoolean("appcds.training")) Platform.exit();
+        });
+    }
+
+    @Override
+    public void stop() throws IOException {
+        WriteBehind.stop();
+        DeletedRowPruner.stop();
+
+        // Conserva las métricas de la sesión si se configuró METRICS_DUMP_FILE.
+        String metrics_file = DatabaseConnector.getMetricsDumpFile();
+
+        if (metrics_file != null) QueryMetrics.dump(Paths.get(metrics_file));
     }
 
     public static void main(String[] args) {
+        // Exportación sin interfaz gráfica: --export=clients|employees --output=archivo.csv|archivo.jsonl
+        String export_table = getOption(args, "--export");
+
+        if (export_table != null) {
+            System.exit(ExportCommand.run(export_table, getOption(args, "--output")));
+        }
+
+        // Importación sin interfaz gráfica: --import=clients|employees --input=archivo.csv [--errors=archivo.csv]
+        String import_table = getOption(args, "--import");
+
+        if (import_table != null) {
+            System.exit(ImportCommand.run(import_table, getOption(args, "--input"), getOption(args, "--errors")));
+        }
+
+        // API HTTP sin interfaz gráfica: --server o --server=puerto
+        if (Arrays.asList(args).contains("--server") || getOption(args, "--server") != null) {
+            System.exit(ServerCommand.run(getOption(args, "--server")));
+        }
+
         launch();
     }
-}
\ No newline at end of file
+
+    /**
+     * @return el valor de una opción de la línea de comandos con la forma nombre=valor, o null si no se indicó.
+     */
+    private static String getOption(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) return arg.substring(name.length() + 1);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package sample.taqueriadb;
+
+import sample.taqueriadb.api.ApiServer;
+import sample.taqueriadb.dao.DeletedRowPruner;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.metrics.QueryMetrics;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Modo servidor sin interfaz gráfica: expone la API HTTP de clientes y empleados (ApiServer) hasta que se detiene el
+ * proceso con Ctrl+C.
+ *
+ * --server o --server=puerto
+ *
+ * La dirección, el puerto predeterminado, el límite de peticiones y el token de acceso se leen de db.properties
+ * (API_HOST, API_PORT, API_MAX_IN_FLIGHT y API_TOKEN). Sin API_TOKEN, el servidor solo escucha en una dirección
+ * local y se niega a iniciar con cualquier otra.
+ */
+class ServerCommand {
+    private ServerCommand() {}
+
+    /**
+     * @param port Puerto en el que escucha, o null para usar API_PORT.
+     * @return el código de salida del proceso: 0 si se detuvo normalmente, 1 si no pudo iniciar y 2 si el puerto no
+     * es válido.
+     */
+    static int run(String port) {
+        ApiServer server;
+
+        try {
+            DatabaseConnector.createConnection();
+
+            int listen_port = port == null ? DatabaseConnector.getApiPort() : Integer.parseInt(port);
+
+            server = new ApiServer(
+                DatabaseConnector.getApiHost(), listen_port, DatabaseConnector.getApiMaxInFlight()
+            );
+        } catch (NumberFormatException e) {
+            System.out.println("Puerto no válido: " + port);
+            DatabaseConnector.closeConnection();
+
+            return 2;
+        } catch (Exception e) {
+            e.printStackTrace();
+            DatabaseConnector.closeConnection();
+
+            return 1;
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        // Ctrl+C: termina las peticiones en curso, guarda las métricas y cierra las conexiones.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            DeletedRowPruner.stop();
+
+            String metrics_file = DatabaseConnector.getMetricsDumpFile();
+
+            if (metrics_file != null) {
+                try {
+                    QueryMetrics.dump(Paths.get(metrics_file));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            DatabaseConnector.closeConnection();
+            stopped.countDown();
+        }));
+
+        server.start();
+        DeletedRowPruner.start();
+        System.out.println("API HTTP escuchando en " + DatabaseConnector.getApiHost() + ":" + server.getPort() + ".");
+
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return 0;
+    }
+}
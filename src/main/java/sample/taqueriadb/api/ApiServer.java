@@ -0,0 +1,506 @@
+package sample.taqueriadb.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import sample.taqueriadb.dao.ClientDAO;
+import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.db.DatabaseExecutor;
+import sample.taqueriadb.metrics.QueryMetrics;
+import sample.taqueriadb.model.Client;
+import sample.taqueriadb.model.Employee;
+import sample.taqueriadb.utils.Json;
+import sample.taqueriadb.utils.TableExporter;
+import sample.taqueriadb.utils.TableImporter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API HTTP con JSON para los clientes y empleados, sobre el HttpServer del JDK. Se usa desde las tabletas y los
+ * kioscos, sin interfaz gráfica:
+ *
+ * GET    /clients?after=ID&limit=N   Página de clientes en orden de ID: {"items": [...], "next_after": ID o null}
+ * GET    /clients/ID                 Un cliente
+ * POST   /clients                    Agrega un cliente: {"name": "..."}
+ * PUT    /clients/ID                 Actualiza un cliente
+ * DELETE /clients/ID                 Elimina un cliente
+ *
+ * y lo mismo en /employees. GET /health responde si el servidor está activo.
+ *
+ * Cada petición se atiende en su propio hilo virtual (JDK 21+; en versiones anteriores, en un pool de hilos) y llama
+ * directamente a los DAO, por lo que comparte el pool de conexiones con el resto de la aplicación. Un semáforo
+ * limita las peticiones en curso: las que exceden API_MAX_IN_FLIGHT se responden de inmediato con 503 en lugar de
+ * esperar una conexión. La latencia de cada ruta se registra en QueryMetrics como "API GET /clients", etc.
+ *
+ * Sin API_TOKEN, el servidor solo puede escuchar en una dirección local (127.0.0.1 o ::1): la API permite modificar
+ * y eliminar registros, por lo que no se expone a la red sin autenticación.
+ */
+public class ApiServer {
+    // Tamaño máximo del cuerpo de una petición.
+    private static final int max_body_bytes = 64 * 1024;
+    // Tamaño máximo de una página de las listas.
+    private static final int max_page_size = 500;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore in_flight;
+    // Valor esperado del encabezado Authorization, o null si no se requiere token.
+    private final byte[] authorization = expectedAuthorization(DatabaseConnector.getApiToken());
+    private final int default_page_size = DatabaseConnector.getPageSize();
+
+    private final Map<String, Resource<?>> resources = new HashMap<>();
+
+    /**
+     * Crea el servidor sin iniciarlo. La conexión a la base de datos debe crearse antes de start().
+     *
+     * @param host Dirección en la que escucha, por ejemplo 0.0.0.0 para todas las interfaces.
+     * @param port Puerto en el que escucha.
+     * @param max_in_flight Número máximo de peticiones atendidas a la vez.
+     * @throws IllegalStateException si la dirección no es local y no se configuró API_TOKEN.
+     */
+    public ApiServer(String host, int port, int max_in_flight) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(host, port);
+
+        if (authorization == null && (address.isUnresolved() || !address.getAddress().isLoopbackAddress())) {
+            throw new IllegalStateException(
+                "La API HTTP no puede escuchar en " + host + " sin API_TOKEN. Configure API_TOKEN en db.properties " +
+                    "o use API_HOST=127.0.0.1 para aceptar solo conexiones de este equipo."
+            );
+        }
+
+        this.in_flight = new Semaphore(max_in_flight);
+
+        ExecutorService virtual_executor = DatabaseExecutor.createVirtualThreadExecutor();
+        this.executor = virtual_executor != null ? virtual_executor : createPlatformThreadExecutor();
+
+        resources.put("clients", new Resource<Client>(ClientDAO.getExporter(), ClientDAO.getImporter()) {
+            @Override
+            Client get(int id) throws SQLException {
+                return ClientDAO.getClientById(id);
+            }
+
+            @Override
+            List<Client> getAfter(int last_id, int limit) throws SQLException {
+                return ClientDAO.getClientsAfter(last_id, limit);
+            }
+
+            @Override
+            int getId(Client client) {
+                return client.getId();
+            }
+
+            @Override
+            Client add(Client client) throws SQLException {
+                return ClientDAO.add(client);
+            }
+
+            @Override
+            Client update(int id, Client client) throws SQLException {
+                client.setId(id);
+
+                return ClientDAO.update(client);
+            }
+
+            @Override
+            int delete(int id) throws SQLException {
+                return ClientDAO.delete(id);
+            }
+        });
+
+        resources.put("employees", new Resource<Employee>(EmployeeDAO.getExporter(), EmployeeDAO.getImporter()) {
+            @Override
+            Employee get(int id) throws SQLException {
+                return EmployeeDAO.getEmployeeById(id);
+            }
+
+            @Override
+            List<Employee> getAfter(int last_id, int limit) throws SQLException {
+                return EmployeeDAO.getEmployeesAfter(last_id, limit);
+            }
+
+            @Override
+            int getId(Employee employee) {
+                return employee.getId();
+            }
+
+            @Override
+            Employee add(Employee employee) throws SQLException {
+                return EmployeeDAO.add(employee);
+            }
+
+            @Override
+            Employee update(int id, Employee employee) throws SQLException {
+                employee.setId(id);
+
+                return EmployeeDAO.update(employee);
+            }
+
+            @Override
+            int delete(int id) throws SQLException {
+                return EmployeeDAO.delete(id);
+            }
+        });
+
+        this.server = HttpServer.create(address, max_in_flight);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    private static byte[] expectedAuthorization(String token) {
+        return token == null ? null : ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Compara el encabezado con el token en tiempo constante, para no revelar cuántos caracteres coinciden.
+    private boolean isAuthorized(HttpExchange exchange) {
+        if (authorization == null) return true;
+
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+
+        return header != null && MessageDigest.isEqual(authorization, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ExecutorService createPlatformThreadExecutor() {
+        AtomicInteger thread_number = new AtomicInteger();
+
+        // Sin hilos virtuales; el semáforo de peticiones en curso limita cuántos hilos llegan a crearse.
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "api-worker-" + thread_number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Deja de aceptar peticiones y espera hasta 2 segundos a que terminen las que están en curso.
+     */
+    public void stop() {
+        server.stop(2);
+        executor.shutdown();
+    }
+
+    /**
+     * @return el puerto en el que escucha el servidor (útil si se creó con el puerto 0).
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) {
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        String operation = getOperationName(method, exchange.getRequestURI().getPath());
+        int status = 500;
+
+        try {
+            if (!in_flight.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                status = send(exchange, 503, error("El servidor está ocupado; intente de nuevo."));
+                return;
+            }
+
+            try {
+                status = route(exchange, method);
+            } finally {
+                in_flight.release();
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión antes de recibir la respuesta.
+            status = 500;
+        } finally {
+            exchange.close();
+
+            long nanos = System.nanoTime() - start;
+
+            if (status >= 500) {
+                QueryMetrics.recordError(operation, nanos);
+            } else {
+                QueryMetrics.recordSuccess(operation, nanos, 1);
+            }
+        }
+    }
+
+    /**
+     * Nombre con el que se registran las métricas de una petición, sin IDs: "API GET /clients/{id}". Las rutas y los
+     * métodos desconocidos se agrupan para que un cliente no pueda crear métricas sin límite.
+     */
+    private static String getOperationName(String method, String path) {
+        String route = path.matches("/(clients|employees|health)(/\\d+)?") ? path.replaceAll("/\\d+", "/{id}") : "/*";
+        boolean known_method = Arrays.asList("GET", "POST", "PUT", "DELETE").contains(method);
+
+        return "API " + (known_method ? method : "*") + " " + route;
+    }
+
+    private int route(HttpExchange exchange, String method) throws IOException {
+        try {
+            // "/clients/15" -> ["", "clients", "15"]
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+
+            // No requiere token, para que los balanceadores y monitores puedan consultarlo.
+            if (parts.length == 2 && parts[1].equals("health")) {
+                requireMethod(method, "GET");
+                return send(exchange, 200, "{\"status\":\"ok\"}");
+            }
+
+            if (!isAuthorized(exchange)) {
+                throw new ApiException(401, "Falta el token de acceso o no es válido.");
+            }
+
+            Resource<?> resource = parts.length >= 2 ? resources.get(parts[1]) : null;
+
+            if (resource == null || parts.length > 3) throw new ApiException(404, "Ruta desconocida.");
+
+            if (parts.length == 2) return handleCollection(exchange, method, resource);
+
+            int id;
+
+            try {
+                id = Integer.parseInt(parts[2]);
+            } catch (NumberFormatException e) {
+                throw new ApiException(404, "Ruta desconocida.");
+            }
+
+            return handleItem(exchange, method, resource, id);
+        } catch (ApiException e) {
+            if (e.allowed_methods != null) exchange.getResponseHeaders().set("Allow", e.allowed_methods);
+
+            return send(exchange, e.status, error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return send(exchange, 400, error(e.getMessage()));
+        } catch (SQLTimeoutException e) {
+            // No hubo una conexión libre a tiempo: la base de datos está saturada.
+            exchange.getResponseHeaders().set("Retry-After", "1");
+
+            return send(exchange, 503, error("La base de datos está ocupada; intente de nuevo."));
+        } catch (SQLException | RuntimeException e) {
+            e.printStackTrace();
+
+            return send(exchange, 500, error("Error interno del servidor."));
+        }
+    }
+
+    // GET /clients (lista paginada) y POST /clients.
+    private <T> int handleCollection(HttpExchange exchange, String method, Resource<T> resource)
+            throws ApiException, SQLException, IOException {
+        if (method.equals("POST")) {
+            T saved = resource.add(readItem(exchange, resource));
+
+            exchange.getResponseHeaders().set(
+                "Location", exchange.getRequestURI().getPath() + "/" + resource.getId(saved)
+            );
+
+            return send(exchange, 201, resource.toJson(saved));
+        }
+
+        requireMethod(method, "GET, POST");
+
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int after = parseInt(query, "after", Integer.MIN_VALUE);
+        int limit = parseInt(query, "limit", default_page_size);
+
+        if (limit < 1 || limit > max_page_size) {
+            throw new IllegalArgumentException("limit debe estar entre 1 y " + max_page_size + ".");
+        }
+
+        // Se pide un elemento más para saber si hay otra página.
+        List<T> page = resource.getAfter(after, limit + 1);
+        boolean has_more = page.size() > limit;
+
+        if (has_more) page = page.subList(0, limit);
+
+        StringBuilder json = new StringBuilder("{\"items\":[");
+
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) json.append(',');
+
+            resource.exporter.appendJson(json, page.get(i));
+        }
+
+        json.append("],\"next_after\":");
+        json.append(has_more ? String.valueOf(resource.getId(page.get(page.size() - 1))) : "null");
+        json.append('}');
+
+        return send(exchange, 200, json.toString());
+    }
+
+    // GET, PUT y DELETE /clients/ID.
+    private <T> int handleItem(HttpExchange exchange, String method, Resource<T> resource, int id)
+            throws ApiException, SQLException, IOException {
+        switch (method) {
+            case "GET": {
+                T item = resource.get(id);
+
+                if (item == null) throw new ApiException(404, "No existe el elemento " + id + ".");
+
+                return send(exchange, 200, resource.toJson(item));
+            }
+            case "PUT": {
+                T saved = resource.update(id, readItem(exchange, resource));
+
+                if (saved == null) throw new ApiException(404, "No existe el elemento " + id + ".");
+
+                return send(exchange, 200, resource.toJson(saved));
+            }
+            case "DELETE": {
+                if (resource.delete(id) == 0) throw new ApiException(404, "No existe el elemento " + id + ".");
+
+                exchange.sendResponseHeaders(204, -1);
+                return 204;
+            }
+            default:
+                throw ApiException.methodNotAllowed("GET, PUT, DELETE");
+        }
+    }
+
+    // Lee el cuerpo de la petición y lo valida con las reglas de la importación.
+    private static <T> T readItem(HttpExchange exchange, Resource<T> resource) throws ApiException, IOException {
+        byte[] body;
+
+        try (InputStream input = exchange.getRequestBody()) {
+            body = input.readNBytes(max_body_bytes + 1);
+        }
+
+        if (body.length > max_body_bytes) throw new ApiException(413, "El cuerpo de la petición es demasiado grande.");
+
+        Map<String, String> fields = Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        String[] columns = resource.importer.getColumns();
+        String[] values = new String[columns.length];
+
+        for (int i = 0; i < columns.length; i++) {
+            String value = fields.get(columns[i]);
+            values[i] = value == null ? "" : value;
+        }
+
+        return resource.importer.parse(values);
+    }
+
+    private static void requireMethod(String method, String allowed) throws ApiException {
+        if (!Arrays.asList(allowed.split(", ")).contains(method)) throw ApiException.methodNotAllowed(allowed);
+    }
+
+    private static Map<String, String> parseQuery(String raw_query) {
+        Map<String, String> query = new HashMap<>();
+
+        if (raw_query == null) return query;
+
+        for (String pair : raw_query.split("&")) {
+            int equals = pair.indexOf('=');
+
+            if (equals < 0) continue;
+
+            query.put(
+                URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8)
+            );
+        }
+
+        return query;
+    }
+
+    private static int parseInt(Map<String, String> query, String name, int default_value) {
+        String value = query.get(name);
+
+        if (value == null) return default_value;
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " debe ser un número entero.");
+        }
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.appendString(json, message);
+
+        return json.append('}').toString();
+    }
+
+    private static int send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+
+        return status;
+    }
+
+    /**
+     * Operaciones de una tabla expuestas en la API. El formato JSON es el mismo de la exportación y la validación la
+     * misma de la importación.
+     */
+    private abstract static class Resource<T> {
+        private final TableExporter<T> exporter;
+        private final TableImporter<T> importer;
+
+        Resource(TableExporter<T> exporter, TableImporter<T> importer) {
+            this.exporter = exporter;
+            this.importer = importer;
+        }
+
+        abstract T get(int id) throws SQLException;
+
+        abstract List<T> getAfter(int last_id, int limit) throws SQLException;
+
+        abstract int getId(T item);
+
+        abstract T add(T item) throws SQLException;
+
+        // Devuelve null si el elemento ya no existe.
+        abstract T update(int id, T item) throws SQLException;
+
+        // Devuelve el número de filas eliminadas.
+        abstract int delete(int id) throws SQLException;
+
+        String toJson(T item) {
+            StringBuilder json = new StringBuilder();
+            exporter.appendJson(json, item);
+
+            return json.toString();
+        }
+    }
+
+    // Error que se responde al cliente con un código HTTP.
+    private static final class ApiException extends Exception {
+        private final int status;
+        // Métodos permitidos, para el encabezado Allow de una respuesta 405.
+        private final String allowed_methods;
+
+        ApiException(int status, String message) {
+            this(status, message, null);
+        }
+
+        private ApiException(int status, String message, String allowed_methods) {
+            super(message);
+            this.status = status;
+            this.allowed_methods = allowed_methods;
+        }
+
+        static ApiException methodNotAllowed(String allowed_methods) {
+            return new ApiException(405, "Método no permitido.", allowed_methods);
+        }
+    }
+}
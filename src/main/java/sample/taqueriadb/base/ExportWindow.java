@@ -0,0 +1,104 @@
+package sample.taqueriadb.base;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import sample.taqueriadb.db.DatabaseExecutor;
+import sample.taqueriadb.db.SQLSupplier;
+import sample.taqueriadb.utils.TableExporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Ventana que exporta una tabla completa a un archivo en segundo plano. Muestra el número de filas escritas y
+ * permite cancelar; cerrar la ventana también cancela la exportación.
+ *
+ * @param <T> Tipo de elemento exportado.
+ */
+public class ExportWindow<T> extends Stage {
+    private final Label status_label = new Label("Exportando...");
+    private final Button btn_cancel = new Button("Cancelar");
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    // Filas escritas hasta ahora. La etiqueta se actualiza con la cuenta más reciente, sin acumular tareas en el hilo
+    // de JavaFX.
+    private final AtomicLong exported_rows = new AtomicLong();
+    private final AtomicBoolean update_scheduled = new AtomicBoolean();
+
+    /**
+     * @param exporter Columnas y formato de la exportación.
+     * @param rows Consulta que recorre la tabla, por ejemplo ClientDAO::streamClients.
+     * @param file Archivo de destino.
+     */
+    public ExportWindow(TableExporter<T> exporter, SQLSupplier<Stream<T>> rows, Path file) {
+        createUI();
+        this.setTitle("Exportar a " + file.getFileName());
+        this.setOnHidden(event -> cancelled.set(true));
+        this.show();
+
+        long start = System.nanoTime();
+
+        DatabaseExecutor.supplyAsync(() -> {
+            try (Stream<T> stream = rows.get()) {
+                return exporter.export(stream, file, this::showProgress, cancelled::get);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((row_count, error) -> Platform.runLater(() -> {
+            btn_cancel.setText("Cerrar");
+            btn_cancel.setOnAction(event -> this.close());
+
+            if (error == null) {
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                status_label.setText(String.format(
+                    Locale.ROOT, "Se exportaron %,d filas en %.1f s a %s.", row_count, seconds, file
+                ));
+            } else if (error instanceof CancellationException) {
+                status_label.setText("Exportación cancelada.");
+            } else {
+                error.printStackTrace();
+                status_label.setText("No se pudo exportar: " + error.getMessage());
+            }
+        }));
+    }
+
+    private void createUI() {
+        btn_cancel.setOnAction(event -> {
+            cancelled.set(true);
+            btn_cancel.setDisable(true);
+            status_label.setText("Cancelando...");
+        });
+
+        VBox container = new VBox(8, status_label, btn_cancel);
+        container.setPadding(new Insets(12));
+
+        this.setScene(new Scene(container, 420, 90));
+    }
+
+    // Se llama en el hilo que exporta.
+    private void showProgress(long row_count) {
+        exported_rows.set(row_count);
+
+        if (!update_scheduled.compareAndSet(false, true)) return;
+
+        Platform.runLater(() -> {
+            update_scheduled.set(false);
+
+            if (!cancelled.get()) {
+                status_label.setText(String.format(Locale.ROOT, "Exportando... %,d filas", exported_rows.get()));
+            }
+        });
+    }
+}
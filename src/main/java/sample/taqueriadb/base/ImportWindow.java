@@ -0,0 +1,112 @@
+package sample.taqueriadb.base;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import sample.taqueriadb.db.DatabaseExecutor;
+import sample.taqueriadb.utils.TableImporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ventana que importa un archivo CSV a una tabla en segundo plano. Muestra las filas leídas y la velocidad, y permite
+ * cancelar; cerrar la ventana también cancela la importación. Las filas guardadas antes de cancelar se conservan.
+ *
+ * @param <T> Tipo de elemento importado.
+ */
+public class ImportWindow<T> extends Stage {
+    private final Label status_label = new Label("Importando...");
+    private final Button btn_cancel = new Button("Cancelar");
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    // Filas leídas hasta ahora. La etiqueta se actualiza con la cuenta más reciente, sin acumular tareas en el hilo de
+    // JavaFX.
+    private final AtomicLong read_rows = new AtomicLong();
+    private final AtomicBoolean update_scheduled = new AtomicBoolean();
+    private final long start = System.nanoTime();
+
+    /**
+     * @param importer Columnas y validación de la importación.
+     * @param inserter Guarda las filas válidas, por ejemplo ClientDAO::addAll.
+     * @param file Archivo CSV a importar. Las filas rechazadas se escriben junto a él (TableImporter.getErrorFile).
+     * @param on_finished Se ejecuta en el hilo de JavaFX al terminar, aunque haya fallado o se haya cancelado.
+     */
+    public ImportWindow(
+        TableImporter<T> importer, TableImporter.Inserter<T> inserter, Path file, Runnable on_finished
+    ) {
+        createUI();
+        this.setTitle("Importar " + file.getFileName());
+        this.setOnHidden(event -> cancelled.set(true));
+        this.show();
+
+        Path error_file = TableImporter.getErrorFile(file);
+
+        DatabaseExecutor.supplyAsync(() -> {
+            try {
+                return importer.importFile(file, error_file, inserter, this::showProgress, cancelled::get);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((result, error) -> Platform.runLater(() -> {
+            btn_cancel.setText("Cerrar");
+            btn_cancel.setDisable(false);
+            btn_cancel.setOnAction(event -> this.close());
+
+            if (error == null) {
+                status_label.setText(result.getSummary());
+            } else if (error instanceof CancellationException) {
+                status_label.setText(error.getMessage());
+            } else {
+                error.printStackTrace();
+                status_label.setText("No se pudo importar: " + error.getMessage());
+            }
+
+            on_finished.run();
+        }));
+    }
+
+    private void createUI() {
+        btn_cancel.setOnAction(event -> {
+            cancelled.set(true);
+            btn_cancel.setDisable(true);
+            status_label.setText("Cancelando...");
+        });
+
+        status_label.setWrapText(true);
+
+        VBox container = new VBox(8, status_label, btn_cancel);
+        container.setPadding(new Insets(12));
+
+        this.setScene(new Scene(container, 460, 110));
+    }
+
+    // Se llama en el hilo que importa.
+    private void showProgress(long row_count) {
+        read_rows.set(row_count);
+
+        if (!update_scheduled.compareAndSet(false, true)) return;
+
+        Platform.runLater(() -> {
+            update_scheduled.set(false);
+
+            if (!cancelled.get()) {
+                long rows = read_rows.get();
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                status_label.setText(String.format(
+                    Locale.ROOT, "Importando... %,d filas (%,.0f filas/s)", rows, rows / Math.max(seconds, 1e-9)
+                ));
+            }
+        });
+    }
+}
@@ -1,66 +1,275 @@
 package sample.taqueriadb.base;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
+import javafx.util.Duration;
+import sample.taqueriadb.dao.ChangeSet;
+import sample.taqueriadb.dao.ListQuery;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.db.DatabaseExecutor;
+import sample.taqueriadb.db.ListSnapshot;
+import sample.taqueriadb.db.SQLSupplier;
+import sample.taqueriadb.utils.AccessorTableCell;
 import sample.taqueriadb.utils.ActionButtonTableCell;
+import sample.taqueriadb.utils.BatchResult;
+import sample.taqueriadb.utils.SearchIndex;
+import sample.taqueriadb.utils.TableExporter;
+import sample.taqueriadb.utils.TableImporter;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Clase abstracta que sirve como plantilla para crear una lista de elementos.
  * La clase utiliza genéricos (T), que representa el tipo de elemento que se está manejando.
  *
+ * Los elementos se cargan por páginas (paginación por llave): la primera página se muestra de inmediato y las
+ * siguientes se cargan en segundo plano conforme el usuario se desplaza. Solo se mantienen en memoria
+ * MAX_LOADED_PAGES páginas alrededor de la posición visible, sin importar el tamaño de la tabla.
+ *
+ * Al ordenar por una columna o filtrarla (menú contextual de la columna), la tabla se vuelve a cargar desde la
+ * primera página con el orden y los filtros resueltos por la base de datos.
+ *
+ * El cuadro de búsqueda filtra con un índice en memoria (SearchIndex) que se construye en segundo plano al abrir la
+ * ventana y se mantiene al día con insertItem, replaceItem y removeItem. Mientras hay una búsqueda, la tabla muestra
+ * solo los resultados y no se cargan más páginas.
+ *
+ * Cada SYNC_INTERVAL_MS se consultan en segundo plano los cambios hechos desde otras terminales (version > ?) y se
+ * aplican solo a las filas afectadas, sin volver a cargar la tabla.
+ *
+ * Con la sincronización activada, las filas del inicio de la tabla se guardan en una copia local (ListSnapshot) tras
+ * cada carga de la primera página y al cerrar la ventana. Al abrirse, la lista muestra esa copia de inmediato y la
+ * sincronización la pone al día, por lo que la ventana no espera a la base de datos sin importar el tamaño de la
+ * tabla.
+ *
  * @param <T> Clase genérica para definir el tipo de dato.
  */
 public abstract class ItemsList<T> extends Stage {
     protected Scene scene;
     protected TableView<T> table_view;
     protected ObservableList<T> items;
+    protected TextField search_field;
+
+    // Número de elementos por página.
+    private final int page_size = DatabaseConnector.getPageSize();
+    // Número máximo de elementos en memoria.
+    private final int max_loaded_items = page_size * DatabaseConnector.getMaxLoadedPages();
+    // Indican si existen más elementos antes o después de los cargados.
+    private boolean has_more_before;
+    private boolean has_more_after;
+    // Evita cargar dos páginas al mismo tiempo. Solo se usa en el hilo de JavaFX.
+    private boolean loading_page;
+    // Indica si hay una recarga de la primera página en curso y si se pidió otra mientras tanto. Las recargas
+    // pedidas durante una carga se juntan en una sola al terminar. Solo se usan en el hilo de JavaFX.
+    private boolean refreshing;
+    private boolean refresh_pending;
+    // Aumenta con cada recarga o búsqueda; las páginas consultadas antes se descartan. Solo se usa en el hilo de
+    // JavaFX.
+    private int page_generation;
+    // Orden y filtros actuales de la tabla.
+    private ListQuery list_query = ListQuery.DEFAULT;
+    // Llave y valor de las columnas que se pueden ordenar y filtrar.
+    private final Map<TableColumn<T, ?>, String> column_keys = new HashMap<>();
+    private final Map<String, Function<T, ?>> column_accessors = new HashMap<>();
+
+    // Alto fijo de las filas. Evita que la tabla mida cada fila al desplazarse.
+    private static final double row_height = 30;
+    // Tiempo sin escribir antes de ejecutar la búsqueda.
+    private static final Duration search_delay = Duration.millis(150);
+
+    // Versión de cambio hasta la que la tabla está al día, o -1 si aún no se conoce. Solo se usa en el hilo de JavaFX.
+    private long sync_version = -1;
+    // Evita consultar los cambios dos veces al mismo tiempo. Solo se usa en el hilo de JavaFX.
+    private boolean syncing;
+    private final boolean sync_enabled = DatabaseConnector.getSyncIntervalMillis() > 0;
+    // Archivo de la copia local de la lista, o null si no se guarda.
+    private final Path snapshot_file = sync_enabled
+        ? DatabaseConnector.getSnapshotFile(getClass().getSimpleName())
+        : null;
+
+    private final SearchIndex<T> search_index = createSearchIndex();
+    // Se completa cuando el índice de búsqueda termina de construirse.
+    private CompletableFuture<Void> search_index_ready;
+    // Búsqueda mostrada actualmente, o null si se muestran las páginas de la tabla.
+    private String active_search;
+    // Aumenta con cada búsqueda; los resultados de búsquedas anteriores se descartan. Solo se usa en el hilo de JavaFX.
+    private int search_generation;
+
+    // Se completa cuando la tabla muestra por primera vez datos consultados a la base de datos.
+    private final CompletableFuture<Void> initial_load = new CompletableFuture<>();
 
     public ItemsList(String title) {
         createUI();
         this.setTitle(title);
         this.setScene(scene);
         this.show();
+
+        // Muestra la copia local de la sesión anterior; sin ella, carga la primera página en segundo plano.
+        if (!showSnapshot()) refreshTable();
+
+        // Guarda las filas mostradas al cerrar la ventana para la siguiente sesión.
+        this.showingProperty().addListener((observable, was_showing, is_showing) -> {
+            if (!is_showing) saveSnapshot();
+        });
+
+        buildSearchIndex();
+
+        startSync();
     }
 
     private void createUI() {
         // Tabla de elementos.
         table_view = new TableView<>();
+        table_view.setFixedCellSize(row_height);
+        // Se muestra hasta que llega la primera página.
+        table_view.setPlaceholder(new Label("Cargando..."));
+        // Al cambiar el orden, se consulta la base de datos en lugar de ordenar las filas cargadas.
+        table_view.setSortPolicy(table -> {
+            applySortOrder();
+            return true;
+        });
+
+        items = FXCollections.observableArrayList();
+        table_view.setItems(items);
+
+        // Carga más páginas al acercarse al inicio o al final de la tabla.
+        table_view.skinProperty().addListener((observable, old_skin, new_skin) -> installScrollListener());
 
         // Muestra las columnas de la tabla con la información de los elementos.
         showItemsList();
 
-        // Muestra la columna "Editar".
-        addEditButtonColumn();
-
-        // Muestra la columna "Borrar".
-        addDeleteButtonColumn();
+        // Muestra la columna con los botones "Editar" y "Borrar".
+        createActionButtonColumn();
 
         // Abre una ventana con un formulario para agregar un nuevo elemento.
         Button btn_add_item = addNewItemButton();
 
+        // Exporta la tabla completa a un archivo CSV o JSON Lines.
+        Button btn_export = new Button("Exportar...");
+        btn_export.setMaxWidth(Double.MAX_VALUE);
+        btn_export.setOnAction(event -> exportItems());
+
+        // Importa elementos nuevos desde un archivo CSV.
+        Button btn_import = new Button("Importar...");
+        btn_import.setMaxWidth(Double.MAX_VALUE);
+        btn_import.setOnAction(event -> importItems());
+
+        // Cuadro de búsqueda. La búsqueda se ejecuta cuando el usuario deja de escribir.
+        search_field = new TextField();
+        search_field.setPromptText("Buscar...");
+
+        PauseTransition search_debounce = new PauseTransition(search_delay);
+        search_debounce.setOnFinished(event -> search(search_field.getText()));
+        search_field.textProperty().addListener((observable, old_text, new_text) -> search_debounce.playFromStart());
+
         // Layout principal.
         // Contiene la tabla de elementos.
         VBox container = new VBox();
-        container.getChildren().addAll(table_view, btn_add_item);
+        container.getChildren().addAll(search_field, table_view, btn_add_item, btn_export, btn_import);
 
         // Ventana principal.
         scene = new Scene(container, 500, 500);
     }
 
-    protected abstract ObservableList<T> getItems();
+    /**
+     * Obtiene la página de elementos que sigue al elemento indicado.
+     *
+     * @param last_item Último elemento cargado, o null para obtener la primera página.
+     * @param limit Número máximo de elementos a obtener.
+     * @param list_query Orden y filtros de la tabla.
+     * @return los elementos de la página, en el orden de la tabla.
+     */
+    protected abstract List<T> getItemsAfter(T last_item, int limit, ListQuery list_query) throws SQLException;
 
-    protected abstract void showItemsList();
+    /**
+     * Obtiene la página de elementos que precede al elemento indicado.
+     *
+     * @param first_item Primer elemento cargado.
+     * @param limit Número máximo de elementos a obtener.
+     * @param list_query Orden y filtros de la tabla.
+     * @return los elementos de la página, en el orden de la tabla.
+     */
+    protected abstract List<T> getItemsBefore(T first_item, int limit, ListQuery list_query) throws SQLException;
+
+    /**
+     * Recorre todos los elementos de la tabla para construir el índice de búsqueda.
+     *
+     * @return Stream con los elementos en orden ascendente de ID. Se cierra al terminar de recorrerlo.
+     */
+    protected abstract Stream<T> streamItems() throws SQLException;
+
+    /**
+     * Obtiene los elementos encontrados por una búsqueda.
+     *
+     * @param ids de los elementos, en el orden en que deben mostrarse.
+     * @return los elementos que aún existen, en el mismo orden.
+     */
+    protected abstract List<T> getItemsByIds(int[] ids) throws SQLException;
+
+    /**
+     * Obtiene los elementos insertados, actualizados o eliminados desde una versión de cambio.
+     *
+     * @param since_version Versión devuelta por la consulta anterior, o -1 para obtener solo la versión actual.
+     * @return los cambios y la versión hasta la que se consultaron.
+     */
+    protected abstract ChangeSet<T> getChangesSince(long since_version) throws SQLException;
 
-    protected abstract void addEditButtonColumn();
+    /**
+     * Convierte un elemento en los campos que se guardan en la copia local de la lista.
+     */
+    protected abstract String[] toSnapshotFields(T item);
 
-    protected abstract void addDeleteButtonColumn();
+    /**
+     * Crea un elemento a partir de los campos guardados con toSnapshotFields.
+     */
+    protected abstract T fromSnapshotFields(String[] fields);
+
+    /**
+     * @return el exportador con las columnas de la tabla. Se usa junto con streamItems().
+     */
+    protected abstract TableExporter<T> getExporter();
+
+    /**
+     * @return el importador con las columnas y la validación de la tabla. Se usa junto con addItems().
+     */
+    protected abstract TableImporter<T> getImporter();
+
+    /**
+     * Guarda varios elementos nuevos en lotes, por ejemplo con ClientDAO::addAll.
+     *
+     * @return el resultado de cada elemento, en el orden de la lista.
+     */
+    protected abstract BatchResult addItems(List<T> items) throws SQLException;
+
+    /**
+     * @return un índice de búsqueda vacío con los campos en los que se busca.
+     */
+    protected abstract SearchIndex<T> createSearchIndex();
+
+    protected abstract void showItemsList();
 
     protected abstract Button addNewItemButton();
 
@@ -70,59 +279,782 @@ public abstract class ItemsList<T> extends Stage {
 
     /**
      * Reduce el código necesario para crear una columna (TableColumn) en la tabla (TableView).
+     * Las celdas leen el valor directamente del elemento de la fila, sin reflexión.
      *
      * @param column_name El nombre de la columna. Esta será mostrada en la cabeza de la columna.
-     * @param property_name El nombre de la propiedad que será mostrada en la celda de la columna.
+     * @param accessor Obtiene el valor que será mostrado en la celda, por ejemplo Employee::getLastName.
      * @return un objeto TableColumn con la información específicada.
      */
-    protected TableColumn<T, String> createColumn(String column_name, String property_name) {
-        TableColumn<T, String> column = new TableColumn<>(column_name);
+    protected TableColumn<T, Void> createColumn(String column_name, Function<T, ?> accessor) {
+        TableColumn<T, Void> column = new TableColumn<>(column_name);
 
-        column.setCellValueFactory(new PropertyValueFactory<>(property_name));
+        column.setCellFactory(params -> new AccessorTableCell<>(accessor));
+        // Ordenar en memoria solo ordenaría las páginas cargadas y rompería la paginación por llave.
+        column.setSortable(false);
 
         return column;
     }
 
     /**
-     * Crea una nueva columna con botones de acción y los despliega en cada celda de la tabla. La acción a realizar se
-     * define en los parámetros. Utiliza genéricos para determinar el tipo de dato que se está manejando.
+     * Crea una columna que se puede ordenar y filtrar. El orden y el filtro se resuelven en la base de datos, por lo
+     * que la llave debe ser una de las columnas permitidas por el DAO.
      *
-     * @param button_text El texto que específica la acción del botón.
-     * @param action La acción a realizar cuando se pulse el botón.
+     * @param column_name El nombre de la columna. Esta será mostrada en la cabeza de la columna.
+     * @param accessor Obtiene el valor que será mostrado en la celda, por ejemplo Employee::getLastName.
+     * @param key Llave de la columna en ListQuery, por ejemplo "last_name".
+     * @return un objeto TableColumn con la información específicada.
+     */
+    protected TableColumn<T, Void> createColumn(String column_name, Function<T, ?> accessor, String key) {
+        TableColumn<T, Void> column = createColumn(column_name, accessor);
+        column.setSortable(true);
+
+        column_keys.put(column, key);
+        column_accessors.put(key, accessor);
+
+        // Menú contextual de la cabecera para filtrar por prefijo.
+        MenuItem filter_item = new MenuItem("Filtrar...");
+        filter_item.setOnAction(event -> {
+            TextInputDialog dialog = new TextInputDialog(list_query.getFilters().getOrDefault(key, ""));
+            dialog.setTitle("Filtrar");
+            dialog.setHeaderText(null);
+            dialog.setContentText(column_name + " empieza con:");
+
+            dialog.showAndWait().ifPresent(prefix -> {
+                column.setText(prefix.isEmpty() ? column_name : column_name + " [" + prefix + "]");
+                applyListQuery(list_query.withFilter(key, prefix));
+            });
+        });
+
+        MenuItem clear_filter_item = new MenuItem("Quitar filtro");
+        clear_filter_item.setOnAction(event -> {
+            column.setText(column_name);
+            applyListQuery(list_query.withFilter(key, null));
+        });
+
+        column.setContextMenu(new ContextMenu(filter_item, clear_filter_item));
+
+        return column;
+    }
+
+    /**
+     * Pide un archivo al usuario y exporta en él todos los elementos de la tabla en orden de ID, sin importar el
+     * orden, los filtros o la búsqueda mostrados. El formato se elige por la extensión del archivo.
+     */
+    private void exportItems() {
+        FileChooser file_chooser = new FileChooser();
+        file_chooser.setTitle("Exportar");
+        file_chooser.setInitialFileName("exportacion.csv");
+
+        FileChooser.ExtensionFilter json_lines_filter = new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl");
+        file_chooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("CSV", "*.csv"), json_lines_filter);
+
+        File file = file_chooser.showSaveDialog(this);
+
+        if (file == null) return;
+
+        Path path = file.toPath();
+
+        // Se eligió JSON Lines sin cambiar la extensión del nombre sugerido.
+        if (file_chooser.getSelectedExtensionFilter() == json_lines_filter && !TableExporter.isJsonLines(path)) {
+            String name = path.getFileName().toString().replaceFirst("\\.csv$", "");
+            path = path.resolveSibling(name + ".jsonl");
+        }
+
+        new ExportWindow<>(getExporter(), this::streamItems, path);
+    }
+
+    /**
+     * Pide un archivo CSV al usuario e inserta sus filas como elementos nuevos. Al terminar se recarga la tabla.
+     */
+    private void importItems() {
+        FileChooser file_chooser = new FileChooser();
+        file_chooser.setTitle("Importar");
+        file_chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+
+        File file = file_chooser.showOpenDialog(this);
+
+        if (file == null) return;
+
+        new ImportWindow<>(getImporter(), this::addItems, file.toPath(), this::onItemsImported);
+    }
+
+    /**
+     * Muestra los elementos importados. Con la sincronización activa, el índice de búsqueda los recibe como
+     * cambios; sin ella, se reconstruye.
+     */
+    private void onItemsImported() {
+        if (!sync_enabled) buildSearchIndex();
+
+        reloadItems();
+    }
+
+    /**
+     * Vuelve a consultar lo que muestra la tabla: repite la búsqueda activa o, si no hay, recarga la primera página.
+     * A diferencia de refreshTable, no descarta la búsqueda que sigue escrita en el cuadro de búsqueda.
+     */
+    private void reloadItems() {
+        if (active_search != null) {
+            repeatSearch();
+        } else {
+            refreshTable();
+        }
+    }
+
+    // Construye el índice de búsqueda en segundo plano, recorriendo la tabla completa.
+    private void buildSearchIndex() {
+        search_index_ready = DatabaseExecutor.supplyAsync(() -> {
+            try (Stream<T> all_items = streamItems()) {
+                search_index.build(all_items);
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Traduce el orden elegido en las cabeceras de la tabla a un ListQuery. Solo se usa la primera columna del orden.
+     */
+    private void applySortOrder() {
+        List<TableColumn<T, ?>> sort_order = table_view.getSortOrder();
+        TableColumn<T, ?> sort_column = sort_order.isEmpty() ? null : sort_order.get(0);
+        String key = sort_column == null ? null : column_keys.get(sort_column);
+        boolean descending = sort_column != null && sort_column.getSortType() == TableColumn.SortType.DESCENDING;
+
+        applyListQuery(list_query.withSort(key, descending));
+    }
+
+    /**
+     * Cambia el orden o los filtros de la tabla. Si se muestran resultados de búsqueda, ya están todos en memoria y
+     * solo se ordenan; de lo contrario se vuelve a cargar la primera página.
+     */
+    private void applyListQuery(ListQuery new_query) {
+        if (new_query.equals(list_query)) return;
+
+        list_query = new_query;
+
+        if (active_search != null) {
+            Comparator<T> comparator = getComparator();
+
+            if (comparator != null) FXCollections.sort(items, comparator);
+        } else {
+            refreshTable();
+        }
+    }
+
+    /**
+     * @return el orden actual de la tabla como Comparator, con el ID como desempate igual que en la base de datos, o
+     * null si la subclase no registró la columna "id".
+     */
+    private Comparator<T> getComparator() {
+        Function<T, ?> id_accessor = column_accessors.get("id");
+        Function<T, ?> accessor = list_query.getSortKey() == null
+            ? id_accessor
+            : column_accessors.get(list_query.getSortKey());
+
+        if (accessor == null) return null;
+
+        Comparator<T> comparator = (a, b) -> compareValues(accessor.apply(a), accessor.apply(b));
+
+        if (id_accessor != null && accessor != id_accessor) {
+            comparator = comparator.thenComparing((a, b) -> compareValues(id_accessor.apply(a), id_accessor.apply(b)));
+        }
+
+        return list_query.isDescending() ? comparator.reversed() : comparator;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compareValues(Object a, Object b) {
+        if (a == null || b == null) return a == null ? (b == null ? 0 : -1) : 1;
+
+        // Igual que la intercalación de MySQL, el texto se compara sin distinguir mayúsculas.
+        if (a instanceof String && b instanceof String) return ((String) a).compareToIgnoreCase((String) b);
+
+        return ((Comparable) a).compareTo(b);
+    }
+
+    /**
+     * @return true si el elemento cumple los filtros actuales de la tabla.
      */
-    protected void createActionButtonColumn(String button_text, Consumer<T> action) {
+    private boolean matchesFilters(T item) {
+        for (Map.Entry<String, String> filter : list_query.getFilters().entrySet()) {
+            Object value = column_accessors.get(filter.getKey()).apply(item);
+
+            if (value == null || !value.toString().toLowerCase().startsWith(filter.getValue().toLowerCase())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Crea la columna con los botones "Editar" y "Borrar" de cada fila. Al pulsarlos se llama a editButtonAction o
+     * deleteButtonAction con el elemento de la fila.
+     */
+    private void createActionButtonColumn() {
         TableColumn<T, Void> action_column = new TableColumn<>();
 
         // Renderiza las celdas de la columna.
         // En este caso, cada celda será un objeto de la clase ActionButtonTableCell.
-        action_column.setCellFactory(params -> {
-            ActionButtonTableCell<T> action_button = new ActionButtonTableCell<>(button_text);
-            // Establece la acción a realizar cuando se pulse el botón.
-            // Al hacer clic, se llama al parámetro de acción con el elemento actual de la fila seleccionada.
-            action_button.setButtonAction(event -> action.accept(action_button.getCurrentItem()));
-
-            // Devuelve el botón a ser desplegado en la celda.
-            return action_button;
-        });
+        action_column.setCellFactory(params -> new ActionButtonTableCell<>(
+            this::editButtonAction,
+            this::deleteButtonAction
+        ));
+        action_column.setSortable(false);
+        action_column.setReorderable(false);
+        action_column.setPrefWidth(140);
 
         // Agrega la columna de acción a la tabla.
         table_view.getColumns().add(action_column);
     }
 
     /**
-     * Recarga la lista de elementos en el TableView.
+     * Recarga la lista de elementos en el TableView a partir de la primera página.
      * Esto es útil en casos donde la fuente de datos subyacente ha cambiado de una forma que no es observada por el
-     * propio TableView.
+     * propio TableView. La consulta se realiza en segundo plano.
+     *
+     * Solo hay una recarga en curso por lista: si se llama mientras otra se ejecuta, su resultado se descarta y se
+     * hace una sola recarga más al terminar, sin importar cuántas veces se haya llamado.
+     *
+     * Descarta la búsqueda activa; para conservarla, se usa reloadItems.
      */
     public void refreshTable() {
-        // Obtiene la lista actualizada de elementos.
-        items = getItems();
+        // Descarta los resultados de búsquedas y páginas en curso.
+        search_generation++;
+        active_search = null;
+        page_generation++;
 
-        // Establece nuevamente el contenido del TableView.
-        table_view.setItems(items);
+        if (refreshing) {
+            refresh_pending = true;
+            return;
+        }
+
+        startRefresh();
+    }
+
+    private void startRefresh() {
+        int generation = page_generation;
+        // Se lee al iniciar la consulta, por lo que la recarga pendiente usa el orden y los filtros más recientes.
+        ListQuery query = list_query;
+        // Versión de cambio leída antes de la página: los cambios posteriores llegan con la siguiente sincronización.
+        long[] page_version = { -1 };
+
+        refreshing = true;
+        loading_page = true;
+
+        DatabaseExecutor.supplyAsync(() -> {
+            if (sync_enabled) page_version[0] = getChangesSince(-1).getVersion();
+
+            return getItemsAfter(null, page_size, query);
+        }).whenComplete(
+            (page, error) -> Platform.runLater(() -> {
+                refreshing = false;
+                loading_page = false;
+
+                // Se pidió otra recarga mientras se consultaba; este resultado ya no está al día. Si mientras tanto
+                // se inició una búsqueda, la recarga ya no hace falta: reemplazaría los resultados.
+                if (refresh_pending) {
+                    refresh_pending = false;
+
+                    if (active_search == null) startRefresh();
+                    return;
+                }
+
+                // Se inició una búsqueda mientras se consultaba.
+                if (generation != page_generation) return;
+
+                if (error != null) {
+                    error.printStackTrace();
+
+                    if (items.isEmpty()) table_view.setPlaceholder(new Label("No se pudo cargar la lista."));
+
+                    initial_load.completeExceptionally(error);
+                    return;
+                }
+
+                showLoaded();
+
+                // Establece nuevamente el contenido del TableView.
+                items.setAll(page);
+
+                // La sincronización solo avanza: si ya estaba en curso, los cambios desde sync_version (incluidos
+                // los anteriores a esta página) llegan con la siguiente consulta al índice de búsqueda y a las filas.
+                if (sync_version < 0) sync_version = page_version[0];
+
+                has_more_before = false;
+                has_more_after = page.size() == page_size;
+
+                table_view.scrollTo(0);
+
+                if (page_version[0] >= 0 && query.equals(ListQuery.DEFAULT)) {
+                    writeSnapshot(page, has_more_after, page_version[0]);
+                }
+            })
+        );
+    }
+
+    /**
+     * Muestra las filas de la copia local y consulta de inmediato los cambios posteriores a ella. Si la copia no
+     * existe o no es válida, no hace nada.
+     *
+     * @return true si se mostró la copia.
+     */
+    private boolean showSnapshot() {
+        if (snapshot_file == null) return false;
+
+        ListSnapshot snapshot = ListSnapshot.read(snapshot_file, DatabaseConnector.getJdbcUrl());
+
+        if (snapshot == null) return false;
+
+        List<T> snapshot_items = new ArrayList<>(snapshot.getRows().size());
+
+        try {
+            for (String[] fields : snapshot.getRows()) {
+                snapshot_items.add(fromSnapshotFields(fields));
+            }
+        } catch (RuntimeException e) {
+            // La copia se guardó con otros campos, por ejemplo por una versión anterior de la aplicación.
+            e.printStackTrace();
+            return false;
+        }
+
+        items.setAll(snapshot_items);
+        has_more_before = false;
+        has_more_after = snapshot.hasMore();
+        sync_version = snapshot.getVersion();
+
+        syncChanges();
+
+        return true;
+    }
+
+    /**
+     * Guarda en la copia local las filas cargadas, siempre que la tabla muestre su inicio con el orden por defecto,
+     * sin filtros ni búsqueda, y esté al día.
+     */
+    private void saveSnapshot() {
+        if (snapshot_file == null || sync_version < 0 || refreshing || has_more_before || active_search != null) return;
+
+        if (!list_query.equals(ListQuery.DEFAULT)) return;
+
+        writeSnapshot(items, has_more_after, sync_version);
+    }
+
+    private void writeSnapshot(List<T> rows, boolean has_more, long version) {
+        if (snapshot_file == null) return;
+
+        Function<T, ?> id_accessor = column_accessors.get("id");
+        List<String[]> fields = new ArrayList<>(rows.size());
+
+        for (T item : rows) {
+            Object id = id_accessor == null ? null : id_accessor.apply(item);
+
+            // Los elementos con ID provisional (escritura diferida) aún no están en la base de datos.
+            if (id instanceof Integer && (Integer) id < 0) continue;
+
+            fields.add(toSnapshotFields(item));
+        }
+
+        try {
+            new ListSnapshot(version, has_more, fields).write(snapshot_file, DatabaseConnector.getJdbcUrl());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return se completa cuando la tabla muestra por primera vez datos de la base de datos: la primera página, o la
+     * copia local ya puesta al día por la sincronización.
+     */
+    public CompletableFuture<Void> getInitialLoad() {
+        return initial_load;
+    }
+
+    // Indica que la tabla ya tiene datos de la base de datos: una tabla vacía deja de mostrar "Cargando..." o el
+    // error de una carga anterior.
+    private void showLoaded() {
+        if (initial_load.isDone() && !initial_load.isCompletedExceptionally()) return;
+
+        table_view.setPlaceholder(new Label("No hay elementos."));
+        initial_load.complete(null);
+    }
+
+    /**
+     * Agrega a la tabla un elemento recién insertado en la base de datos, sin volver a consultarla.
+     * El elemento se coloca según el orden actual; si su posición cae fuera de las páginas cargadas o no cumple los
+     * filtros, no se muestra y aparecerá al desplazarse hasta él.
+     *
+     * @param item Elemento insertado, con su ID generado.
+     */
+    public void insertItem(T item) {
+        search_index.add(item);
+
+        if (active_search != null) {
+            repeatSearch();
+            return;
+        }
+
+        // La recarga en curso podría no incluirlo; la recarga pendiente sí lo hará.
+        if (refreshing) {
+            refresh_pending = true;
+            return;
+        }
+
+        // La sincronización pudo haberlo agregado antes; mergeItem no lo duplica.
+        mergeItem(item);
+
+        int index = items.indexOf(item);
+
+        if (index >= 0) table_view.scrollTo(index);
+    }
+
+    /**
+     * Consulta periódicamente los cambios de otras terminales mientras la ventana está abierta.
+     */
+    private void startSync() {
+        if (!sync_enabled) return;
+
+        Timeline sync_timeline = new Timeline(
+            new KeyFrame(Duration.millis(DatabaseConnector.getSyncIntervalMillis()), event -> syncChanges())
+        );
+        sync_timeline.setCycleCount(Animation.INDEFINITE);
+        sync_timeline.play();
+
+        this.showingProperty().addListener((observable, was_showing, is_showing) -> {
+            if (!is_showing) sync_timeline.stop();
+        });
+    }
+
+    // Consulta en segundo plano los cambios desde la última sincronización y los aplica a la tabla.
+    private void syncChanges() {
+        // La primera página aún no se carga o la consulta anterior no ha terminado.
+        if (sync_version < 0 || syncing) return;
+
+        long since_version = sync_version;
+
+        syncing = true;
+
+        DatabaseExecutor.supplyAsync(() -> getChangesSince(since_version)).whenComplete(
+            (changes, error) -> Platform.runLater(() -> {
+                syncing = false;
+
+                if (error != null) {
+                    error.printStackTrace();
+                    return;
+                }
+
+                // La versión retrocedió (la base de datos se restauró o se recreó) o ya se borraron marcas de
+                // eliminación que la lista no conoce: los cambios no son confiables y todo se vuelve a cargar.
+                if (changes.getVersion() < since_version || !changes.isComplete()) {
+                    resetSync(changes.getVersion());
+                    return;
+                }
+
+                applyChanges(changes);
+                showLoaded();
+            })
+        );
+    }
+
+    /**
+     * Vuelve a cargar la tabla y el índice de búsqueda completos, y continúa la sincronización desde la versión dada.
+     * Ambas cargas empiezan después de leer esa versión, así que no pierden cambios.
+     */
+    private void resetSync(long version) {
+        sync_version = version;
+
+        // La búsqueda repetida espera al índice nuevo.
+        buildSearchIndex();
+        reloadItems();
+    }
+
+    /**
+     * Aplica a la tabla y al índice de búsqueda los cambios hechos desde otras terminales. Los cambios propios también
+     * llegan por aquí y no modifican la tabla, ya que se aplicaron al guardarse.
+     */
+    private void applyChanges(ChangeSet<T> changes) {
+        sync_version = Math.max(sync_version, changes.getVersion());
+
+        if (changes.isEmpty()) return;
+
+        for (T item : changes.getChanged()) {
+            search_index.update(item);
+        }
+
+        for (T item : changes.getDeleted()) {
+            search_index.remove(item);
+        }
+
+        if (active_search != null) {
+            repeatSearch();
+            return;
+        }
+
+        // Más cambios de los que caben en las páginas cargadas, por ejemplo una importación desde otra terminal:
+        // recargar las páginas es más rápido que acomodarlos uno por uno. El índice de búsqueda ya los recibió.
+        if (changes.getChanged().size() > max_loaded_items) {
+            refreshTable();
+            return;
+        }
+
+        // La recarga en curso podría no incluir los cambios; la recarga pendiente sí lo hará.
+        if (refreshing) {
+            refresh_pending = true;
+            return;
+        }
+
+        for (T item : changes.getChanged()) {
+            mergeItem(item);
+        }
+
+        for (T item : changes.getDeleted()) {
+            items.remove(item);
+        }
+    }
+
+    /**
+     * Coloca un elemento modificado en su posición según el orden actual. Si dejó de cumplir los filtros o su
+     * posición cae fuera de las páginas cargadas, se quita de la tabla.
+     */
+    private void mergeItem(T item) {
+        int index = items.indexOf(item);
+
+        if (index >= 0) items.remove(index);
+
+        if (!matchesFilters(item)) return;
+
+        int position = insertionIndex(item);
+
+        if ((position == items.size() && has_more_after) || (position == 0 && has_more_before)) return;
+
+        items.add(position, item);
+    }
+
+    /**
+     * Busca la posición de un elemento según el orden actual. Sin la columna "id" no hay desempate, y se supone que
+     * el elemento es nuevo y tiene el mayor ID.
+     */
+    private int insertionIndex(T item) {
+        Comparator<T> comparator = getComparator();
+
+        if (comparator == null) return list_query.isDescending() ? 0 : items.size();
+
+        int index = 0;
+
+        while (index < items.size() && comparator.compare(items.get(index), item) < 0) {
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * Reemplaza en la tabla un elemento actualizado en la base de datos, sin volver a consultarla.
+     *
+     * @param item Elemento con sus nuevos datos. Se localiza por su ID (equals).
+     */
+    public void replaceItem(T item) {
+        search_index.update(item);
+
+        // Con los nuevos datos, el elemento podría dejar de coincidir con la búsqueda o empezar a hacerlo.
+        if (active_search != null) {
+            repeatSearch();
+            return;
+        }
+
+        if (refreshing) {
+            refresh_pending = true;
+            return;
+        }
+
+        // Se vuelve a colocar, ya que el cambio pudo afectar su posición o los filtros.
+        if (items.contains(item)) mergeItem(item);
+    }
+
+    /**
+     * Reemplaza un elemento con ID provisional (escritura diferida) por el elemento ya insertado en la base de datos.
+     *
+     * @param provisional Elemento con el ID provisional.
+     * @param saved Elemento con el ID real, o null si la base de datos rechazó el alta; entonces solo se quita el
+     * elemento provisional.
+     */
+    public void replaceProvisionalItem(T provisional, T saved) {
+        search_index.remove(provisional);
+        items.remove(provisional);
+
+        if (saved != null) insertItem(saved);
+    }
+
+    /**
+     * Quita de la tabla un elemento eliminado de la base de datos, sin volver a consultarla.
+     *
+     * @param item Elemento eliminado. Se localiza por su ID (equals).
+     */
+    public void removeItem(T item) {
+        search_index.remove(item);
+        items.remove(item);
+
+        // La recarga en curso pudo leer el elemento antes de que se eliminara; la recarga pendiente ya no lo incluirá.
+        if (refreshing) refresh_pending = true;
+    }
+
+    /**
+     * Muestra en la tabla los elementos que coinciden con el texto buscado. El filtrado y la consulta de los
+     * resultados se realizan en segundo plano; si el texto está vacío, se vuelve a mostrar la tabla completa.
+     *
+     * @param text Texto escrito en el cuadro de búsqueda.
+     */
+    private void search(String text) {
+        int generation = ++search_generation;
+
+        if (text == null || text.isBlank()) {
+            if (active_search != null) refreshTable();
+            return;
+        }
+
+        active_search = text;
+        // Las páginas en curso y las recargas pendientes no deben reemplazar los resultados de la búsqueda.
+        page_generation++;
+        refresh_pending = false;
+
+        search_index_ready
+            .thenCompose(ignored -> DatabaseExecutor.supplyAsync(
+                () -> getItemsByIds(search_index.search(text, max_loaded_items))
+            ))
+            .whenComplete((results, error) -> Platform.runLater(() -> {
+                // El usuario ya escribió otra búsqueda.
+                if (generation != search_generation) return;
+
+                if (error != null) {
+                    error.printStackTrace();
+                    return;
+                }
+
+                items.setAll(results);
+                has_more_before = false;
+                has_more_after = false;
+
+                table_view.scrollTo(0);
+            }));
+    }
+
+    // Vuelve a ejecutar la búsqueda activa, por ejemplo después de modificar un elemento.
+    private void repeatSearch() {
+        search(active_search);
+    }
+
+    /**
+     * Carga la página siguiente a los elementos en memoria y descarta las páginas del inicio si se excede el límite.
+     */
+    private void loadNextPage() {
+        T last_item = items.get(items.size() - 1);
+        ListQuery query = list_query;
+
+        loadPage(() -> getItemsAfter(last_item, page_size, query), page -> {
+            has_more_after = page.size() == page_size;
+
+            items.addAll(page);
+
+            int excess = items.size() - max_loaded_items;
+
+            if (excess > 0) {
+                int first_visible = getFirstVisibleIndex();
+
+                items.remove(0, excess);
+                has_more_before = true;
+
+                // Mantiene la posición visible tras eliminar las filas del inicio.
+                table_view.scrollTo(Math.max(0, first_visible - excess));
+            }
+        });
+    }
+
+    /**
+     * Carga la página anterior a los elementos en memoria y descarta las páginas del final si se excede el límite.
+     */
+    private void loadPreviousPage() {
+        T first_item = items.get(0);
+        ListQuery query = list_query;
+
+        loadPage(() -> getItemsBefore(first_item, page_size, query), page -> {
+            has_more_before = page.size() == page_size;
+
+            int first_visible = getFirstVisibleIndex();
+
+            items.addAll(0, page);
+
+            int excess = items.size() - max_loaded_items;
+
+            if (excess > 0) {
+                items.remove(items.size() - excess, items.size());
+                has_more_after = true;
+            }
+
+            // Mantiene la posición visible tras insertar filas al inicio.
+            table_view.scrollTo(first_visible + page.size());
+        });
+    }
+
+    /**
+     * Ejecuta la consulta de una página en el ejecutor de base de datos y aplica el resultado en el hilo de JavaFX.
+     *
+     * @param query Consulta de la página.
+     * @param on_loaded Acción que aplica la página a la tabla.
+     */
+    private void loadPage(SQLSupplier<List<T>> query, Consumer<List<T>> on_loaded) {
+        int generation = page_generation;
+
+        loading_page = true;
+
+        DatabaseExecutor.supplyAsync(query).whenComplete((page, error) -> Platform.runLater(() -> {
+            // La recarga en curso marca su propia carga; loading_page se libera cuando termina.
+            if (!refreshing) loading_page = false;
+
+            // La tabla se recargó o se hizo una búsqueda mientras se consultaba; la página ya no corresponde.
+            if (generation != page_generation) return;
+
+            if (error != null) {
+                error.printStackTrace();
+                return;
+            }
+
+            on_loaded.accept(page);
+        }));
+    }
+
+    /**
+     * Escucha el desplazamiento vertical de la tabla para cargar páginas antes de llegar a los extremos.
+     */
+    private void installScrollListener() {
+        VirtualFlow<?> flow = getVirtualFlow();
+
+        if (flow == null) {
+            // La tabla aún no tiene contenido visual; se intenta de nuevo en el siguiente pulso.
+            Platform.runLater(this::installScrollListener);
+            return;
+        }
+
+        flow.positionProperty().addListener((observable, old_position, new_position) -> {
+            if (loading_page || items.isEmpty()) return;
+
+            if (new_position.doubleValue() >= 0.9 && has_more_after) {
+                loadNextPage();
+            } else if (new_position.doubleValue() <= 0.1 && has_more_before) {
+                loadPreviousPage();
+            }
+        });
+    }
+
+    private VirtualFlow<?> getVirtualFlow() {
+        return (VirtualFlow<?>) table_view.lookup(".virtual-flow");
+    }
+
+    private int getFirstVisibleIndex() {
+        VirtualFlow<?> flow = getVirtualFlow();
+
+        if (flow == null || flow.getFirstVisibleCell() == null) return 0;
 
-        // Actualiza el TableView para reflejar los cambios.
-        table_view.refresh();
+        return flow.getFirstVisibleCell().getIndex();
     }
 
     /**
@@ -0,0 +1,76 @@
+package sample.taqueriadb.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Filas de una tabla que cambiaron desde una versión de cambio dada, hasta la versión indicada por getVersion().
+ * Lo devuelven los DAO para que las listas se actualicen con solo lo que modificaron otras terminales.
+ *
+ * Es inmutable.
+ *
+ * @param <T> Tipo de los elementos de la tabla.
+ */
+public class ChangeSet<T> {
+    private final long version;
+    private final List<T> changed;
+    private final List<T> deleted;
+    private final boolean complete;
+
+    /**
+     * @param version Versión de cambio hasta la que se consultaron los cambios.
+     * @param changed Elementos insertados o actualizados, con sus datos actuales.
+     * @param deleted Elementos eliminados. Solo contienen el ID.
+     */
+    public ChangeSet(long version, List<T> changed, List<T> deleted) {
+        this(version, changed, deleted, true);
+    }
+
+    private ChangeSet(long version, List<T> changed, List<T> deleted, boolean complete) {
+        this.version = version;
+        this.changed = Collections.unmodifiableList(changed);
+        this.deleted = Collections.unmodifiableList(deleted);
+        this.complete = complete;
+    }
+
+    /**
+     * @return un conjunto sin cambios hasta la versión indicada.
+     */
+    public static <T> ChangeSet<T> empty(long version) {
+        return new ChangeSet<>(version, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * @return un conjunto que indica que los cambios hasta la versión indicada no se pueden conocer, porque ya se
+     * borraron marcas de eliminación posteriores a la versión consultada. La lista debe volver a cargarse completa.
+     */
+    public static <T> ChangeSet<T> incomplete(long version) {
+        return new ChangeSet<>(version, Collections.emptyList(), Collections.emptyList(), false);
+    }
+
+    /**
+     * @return false si los cambios no se pueden conocer (incomplete) y la lista debe volver a cargarse completa.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return la versión de cambio que debe usarse en la siguiente consulta de cambios.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    public List<T> getDeleted() {
+        return deleted;
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deleted.isEmpty();
+    }
+}
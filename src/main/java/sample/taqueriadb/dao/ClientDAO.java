@@ -1,73 +1,425 @@
 package sample.taqueriadb.dao;
 
+import sample.taqueriadb.db.DatabaseConnector;
 import sample.taqueriadb.model.Client;
+import sample.taqueriadb.utils.BatchResult;
+import sample.taqueriadb.utils.CacheStats;
+import sample.taqueriadb.utils.EntityCache;
+import sample.taqueriadb.utils.RowMapper;
 import sample.taqueriadb.utils.SQLCommandExecutor;
+import sample.taqueriadb.utils.TableExporter;
+import sample.taqueriadb.utils.TableImporter;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Contiene los métodos para interactuar con la tabla Client de la base de datos.
  */
 public class ClientDAO extends SQLCommandExecutor {
+    // Convierte las filas de la tabla client en objetos Client. Los índices se resuelven una vez por consulta.
+    private static final RowMapper<Client> mapper = result_set -> {
+        int id = result_set.findColumn("id_client");
+        int name = result_set.findColumn("name");
+
+        return row -> new Client(row.getInt(id), row.getString(name));
+    };
+
+    // Caché de clientes por ID. Se actualiza en cada escritura realizada por este DAO.
+    private static final EntityCache<Integer, Client> cache = new EntityCache<>(
+        DatabaseConnector.getCacheMaxSize(), DatabaseConnector.getCacheTtlMillis()
+    );
+
+    // Columnas por las que se puede ordenar y filtrar la lista de clientes.
+    private static final KeysetQuery<Client> keyset_query = new KeysetQuery<>("client", "id_client", Client::getId)
+        .column("id", "id_client", Client::getId)
+        .column("name", "name", Client::getName);
+
+    // Columnas de los archivos exportados.
+    private static final TableExporter<Client> exporter = new TableExporter<>(
+        new String[] { "id", "name" }, Client::getId, Client::getName
+    );
+
+    // Columnas de los archivos importados y validación de cada fila.
+    private static final TableImporter<Client> importer = new TableImporter<>(
+        new String[] { "name" }, fields -> new Client(TableImporter.requireText(fields[0], "name", 100))
+    );
+
+    // Marca el cliente como eliminado y después lo elimina. Solo se marcan los clientes que existen.
+    private static final String[] delete_queries = {
+        "INSERT INTO deleted_row (table_name, row_id, version) " +
+            "SELECT 'client', id_client, " + change_version + " FROM client WHERE id_client = ?",
+        "DELETE FROM client WHERE id_client = ?",
+    };
+
     /**
      * Inserta un nuevo cliente a la base de datos.
      *
      * @param client objeto tipo Client con los datos del nuevo cliente.
-     * @return número de filas afectadas.
+     * @return el cliente insertado, con el ID generado por la base de datos.
+     */
+    public static Client add(Client client) throws SQLException {
+        return add(client, null);
+    }
+
+    /**
+     * Inserta un nuevo cliente junto con la llave del alta de la escritura diferida que lo registró.
+     *
+     * @param client objeto tipo Client con los datos del nuevo cliente.
+     * @param write_key Llave única del alta (WriteBehind), o null.
+     * @return el cliente insertado, con el ID generado por la base de datos.
+     */
+    public static Client add(Client client, String write_key) throws SQLException {
+        String query = "INSERT INTO client (name, write_key, version) VALUES (?, ?, " + change_version + ")";
+
+        int id = executeVersionedInsert("ClientDAO.add", query, client.getName(), write_key);
+
+        Client saved_client = new Client(id, client.getName());
+        cache.put(id, saved_client);
+
+        return saved_client;
+    }
+
+    /**
+     * Busca el cliente insertado por un alta de la escritura diferida.
+     *
+     * @param write_key Llave única del alta.
+     * @return el cliente, o null si el alta aún no se inserta.
      */
-    public static int add(Client client) throws SQLException {
-        String query = String.format("INSERT INTO client (name) VALUES ('%s')", client.getName());
+    public static Client getClientByWriteKey(String write_key) throws SQLException {
+        String query = "SELECT * FROM client WHERE write_key = ?";
 
-        return executeUpdate(query);
+        return queryOne("ClientDAO.getClientByWriteKey", query, mapper, write_key);
     }
 
     /**
      * Obtiene los datos de un cliente en específico utilizando su ID.
+     * Se consulta primero la caché; solo si el cliente no está en ella se consulta la base de datos.
      *
      * @param id del cliente a recuperar.
-     * @return objeto tipo ResultSet con los datos del cliente.
+     * @return objeto tipo Client con los datos del cliente, o null si no existe. No debe modificarse, ya que es la
+     * misma instancia guardada en la caché.
      */
-    public static ResultSet getClientById(int id) throws SQLException {
-        String query = String.format("SELECT * FROM client WHERE id_client = %d", id);
+    public static Client getClientById(int id) throws SQLException {
+        return cache.get(id, ClientDAO::loadClientById);
+    }
+
+    private static Client loadClientById(int id) throws SQLException {
+        String query = "SELECT * FROM client WHERE id_client = ?";
 
-        return executeQuery(query);
+        return queryOne("ClientDAO.getClientById", query, mapper, id);
+    }
+
+    /**
+     * Obtiene varios clientes por su ID, por ejemplo los resultados de una búsqueda. Los que están en la caché no se
+     * consultan; el resto se obtiene con una sola consulta.
+     *
+     * @param ids de los clientes a recuperar.
+     * @return los clientes encontrados, en el mismo orden que los IDs. Los que ya no existen se omiten.
+     */
+    public static List<Client> getClientsByIds(int[] ids) throws SQLException {
+        Map<Integer, Client> found = new HashMap<>();
+        int[] missing_ids = new int[ids.length];
+        int missing_count = 0;
+
+        for (int id : ids) {
+            Client cached = cache.getIfPresent(id);
+
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing_ids[missing_count++] = id;
+            }
+        }
+
+        if (missing_count > 0) {
+            missing_ids = Arrays.copyOf(missing_ids, missing_count);
+
+            String query = "SELECT * FROM client WHERE id_client IN (" + inPlaceholders(missing_count) + ")";
+
+            for (Client client : queryList("ClientDAO.getClientsByIds", query, mapper, inParams(missing_ids))) {
+                found.put(client.getId(), client);
+            }
+        }
+
+        List<Client> clients = new ArrayList<>(found.size());
+
+        for (int id : ids) {
+            Client client = found.get(id);
+
+            if (client != null) clients.add(client);
+        }
+
+        return clients;
     }
 
     /**
      * Obtiene todos los clientes registrados en la base de datos.
      *
-     * @return objeto tipo ResultSet con los datos de todos los clientes.
+     * @return lista con los datos de todos los clientes.
      */
-    public static ResultSet getClients() throws SQLException {
+    public static List<Client> getClients() throws SQLException {
         String query = "SELECT * FROM client";
 
-        return executeQuery(query);
+        return queryList("ClientDAO.getClients", query, mapper);
+    }
+
+    /**
+     * Recorre todos los clientes registrados sin cargarlos en memoria a la vez. Las filas se leen del servidor en
+     * bloques de FETCH_SIZE conforme se consume el Stream (con MySQL, mediante un cursor del servidor).
+     *
+     * @return Stream con los clientes en orden de ID. Mantiene una conexión prestada, por lo que debe cerrarse
+     * (try-with-resources).
+     */
+    public static Stream<Client> streamClients() throws SQLException {
+        String query = "SELECT * FROM client ORDER BY id_client";
+
+        return queryStream("ClientDAO.streamClients", query, mapper);
+    }
+
+    /**
+     * Obtiene una página de clientes ordenada por ID, a partir del cliente indicado (paginación por llave).
+     * A diferencia de OFFSET, el costo no crece conforme se avanza en la tabla.
+     *
+     * @param last_id ID del último cliente de la página anterior. Integer.MIN_VALUE para la primera página.
+     * @param limit número máximo de clientes a obtener.
+     * @return lista con los clientes, en orden ascendente de ID.
+     */
+    public static List<Client> getClientsAfter(int last_id, int limit) throws SQLException {
+        String query = "SELECT * FROM client WHERE id_client > ? ORDER BY id_client LIMIT ?";
+
+        return queryList("ClientDAO.getClientsAfter", query, mapper, last_id, limit);
+    }
+
+    /**
+     * Obtiene la página de clientes anterior al cliente indicado (paginación por llave).
+     *
+     * @param first_id ID del primer cliente de la página siguiente.
+     * @param limit número máximo de clientes a obtener.
+     * @return lista con los clientes, en orden ascendente de ID.
+     */
+    public static List<Client> getClientsBefore(int first_id, int limit) throws SQLException {
+        String query = "SELECT * FROM client WHERE id_client < ? ORDER BY id_client DESC LIMIT ?";
+
+        List<Client> clients = queryList("ClientDAO.getClientsBefore", query, mapper, first_id, limit);
+
+        // La consulta recorre el índice en orden descendente; se devuelve en el orden de la tabla.
+        Collections.reverse(clients);
+
+        return clients;
+    }
+
+    /**
+     * Obtiene la página de clientes que sigue al cliente indicado, con el orden y los filtros dados. El orden y los
+     * filtros se resuelven en la base de datos (ORDER BY y WHERE), con el ID como desempate.
+     *
+     * @param last_client Último cliente de la página anterior, o null para la primera página.
+     * @param limit número máximo de clientes a obtener.
+     * @param list_query Orden y filtros. Columnas permitidas: "id", "name".
+     * @return lista con los clientes, en el orden solicitado.
+     */
+    public static List<Client> getClientsAfter(Client last_client, int limit, ListQuery list_query)
+            throws SQLException {
+        String query = keyset_query.select(list_query, last_client != null, false);
+
+        return queryList(
+            "ClientDAO.getClientsAfter", query, mapper, keyset_query.params(list_query, last_client, limit)
+        );
+    }
+
+    /**
+     * Obtiene la página de clientes que precede al cliente indicado, con el orden y los filtros dados.
+     *
+     * @param first_client Primer cliente de la página siguiente.
+     * @param limit número máximo de clientes a obtener.
+     * @param list_query Orden y filtros. Columnas permitidas: "id", "name".
+     * @return lista con los clientes, en el orden solicitado.
+     */
+    public static List<Client> getClientsBefore(Client first_client, int limit, ListQuery list_query)
+            throws SQLException {
+        String query = keyset_query.select(list_query, true, true);
+
+        List<Client> clients = queryList(
+            "ClientDAO.getClientsBefore", query, mapper, keyset_query.params(list_query, first_client, limit)
+        );
+
+        // La consulta recorre el orden al revés; se devuelve en el orden solicitado.
+        Collections.reverse(clients);
+
+        return clients;
+    }
+
+    /**
+     * Obtiene los clientes insertados, actualizados o eliminados desde una versión de cambio, por ejemplo por otra
+     * terminal. El costo depende del número de cambios, no del tamaño de la tabla. Actualiza la caché con los
+     * cambios encontrados.
+     *
+     * @param since_version Versión devuelta por la consulta anterior, o -1 para obtener solo la versión actual.
+     * @return los cambios y la versión hasta la que se consultaron.
+     */
+    public static ChangeSet<Client> getClientChanges(long since_version) throws SQLException {
+        // Escrituras de la caché antes de la consulta: los cambios leídos no deben reemplazar una escritura local
+        // posterior.
+        long cache_writes = cache.getWriteCount();
+        long version = getChangeVersion();
+
+        if (since_version < 0 || since_version >= version) return ChangeSet.empty(version);
+
+        // Ya se borraron marcas de eliminación posteriores a since_version: no se sabría qué filas se eliminaron.
+        if (since_version < getPrunedVersion()) return ChangeSet.incomplete(version);
+
+        // Se limita a la versión leída para que la siguiente consulta empiece justo después.
+        String changed_query = "SELECT * FROM client WHERE version > ? AND version <= ?";
+        String deleted_query =
+            "SELECT row_id FROM deleted_row WHERE table_name = 'client' AND version > ? AND version <= ?";
+
+        List<Client> changed = queryList("ClientDAO.getClientChanges", changed_query, mapper, since_version, version);
+        List<Client> deleted = queryList(
+            "ClientDAO.getDeletedClients",
+            deleted_query,
+            result_set -> row -> new Client(row.getInt(1), null),
+            since_version,
+            version
+        );
+
+        for (Client client : changed) {
+            cache.putIfUnchanged(client.getId(), client, cache_writes);
+        }
+
+        for (Client client : deleted) {
+            cache.invalidate(client.getId());
+        }
+
+        return new ChangeSet<>(version, changed, deleted);
     }
 
     /**
      * Actualiza los datos de un cliente en específico utilizando su ID.
      *
      * @param client objeto tipo Client con los datos del cliente a actualizar.
-     * @return número de filas afectadas.
+     * @return el cliente actualizado, o null si ya no existe en la base de datos.
      */
-    public static int update(Client client) throws SQLException {
-        String query = String.format(
-            "UPDATE client SET name = '%s' WHERE id_client = %d", client.getName(), client.getId()
+    public static Client update(Client client) throws SQLException {
+        String query = "UPDATE client SET name = ?, version = " + change_version + " WHERE id_client = ?";
+
+        int rows_affected = executeVersionedUpdate(
+            "ClientDAO.update", new String[] { query }, client.getName(), client.getId()
         );
 
-        return executeUpdate(query);
+        if (rows_affected == 0) {
+            cache.invalidate(client.getId());
+            return null;
+        }
+
+        cache.put(client.getId(), client);
+
+        return client;
     }
 
     /**
-     * Elimina un cliente de la base de datos utilizando su ID.
+     * Elimina un cliente de la base de datos utilizando su ID. Deja una marca en deleted_row para que las demás
+     * terminales lo quiten de sus listas.
      *
      * @param id del cliente a ser eliminado.
      * @return número de filas afectadas.
      */
     public static int delete(int id) throws SQLException {
-        String query = String.format("DELETE FROM client WHERE id_client = %d", id);
+        int rows_affected = executeVersionedUpdate("ClientDAO.delete", delete_queries, id);
+        cache.invalidate(id);
 
-        return executeUpdate(query);
+        return rows_affected;
+    }
+
+    /**
+     * Inserta varios clientes en lotes. Cada lote se envía en una sola transacción.
+     *
+     * @param clients clientes a insertar.
+     * @return el resultado de cada cliente, en el orden de la colección.
+     */
+    public static BatchResult addAll(Collection<Client> clients) throws SQLException {
+        String query = "INSERT INTO client (name, version) VALUES (?, " + change_version + ")";
+
+        List<Object[]> rows = new ArrayList<>(clients.size());
+
+        for (Client client : clients) {
+            rows.add(new Object[] { client.getName() });
+        }
+
+        return executeVersionedBatch("ClientDAO.addAll", new String[] { query }, rows);
+    }
+
+    /**
+     * Actualiza varios clientes en lotes. Cada lote se envía en una sola transacción.
+     *
+     * @param clients clientes a actualizar, con su ID.
+     * @return el resultado de cada cliente, en el orden de la colección.
+     */
+    public static BatchResult updateAll(Collection<Client> clients) throws SQLException {
+        String query = "UPDATE client SET name = ?, version = " + change_version + " WHERE id_client = ?";
+
+        List<Object[]> rows = new ArrayList<>(clients.size());
+
+        for (Client client : clients) {
+            rows.add(new Object[] { client.getName(), client.getId() });
+        }
+
+        try {
+            return executeVersionedBatch("ClientDAO.updateAll", new String[] { query }, rows);
+        } finally {
+            // Después del commit: una lectura concurrente no puede volver a guardar la fila anterior.
+            for (Client client : clients) {
+                cache.invalidate(client.getId());
+            }
+        }
+    }
+
+    /**
+     * Elimina varios clientes en lotes. Cada lote se envía en una sola transacción.
+     *
+     * @param ids de los clientes a eliminar.
+     * @return el resultado de cada ID, en el orden del arreglo.
+     */
+    public static BatchResult deleteAll(int[] ids) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(ids.length);
+
+        for (int id : ids) {
+            rows.add(new Object[] { id });
+        }
+
+        try {
+            return executeVersionedBatch("ClientDAO.deleteAll", delete_queries, rows);
+        } finally {
+            for (int id : ids) {
+                cache.invalidate(id);
+            }
+        }
+    }
+
+    /**
+     * @return el exportador de clientes a CSV o JSON Lines. Se usa junto con streamClients().
+     */
+    public static TableExporter<Client> getExporter() {
+        return exporter;
+    }
+
+    /**
+     * @return el importador de clientes desde CSV. Las filas válidas se guardan con addAll().
+     */
+    public static TableImporter<Client> getImporter() {
+        return importer;
+    }
+
+    /**
+     * @return las métricas de la caché de clientes.
+     */
+    public static CacheStats getCacheStats() {
+        return cache.getStats();
     }
 }
@@ -0,0 +1,58 @@
+package sample.taqueriadb.dao;
+
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.utils.SQLCommandExecutor;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borra periódicamente las marcas de eliminación (deleted_row) más antiguas que DELETED_ROW_RETENTION_HOURS, para
+ * que la tabla no crezca sin límite. Las listas que no se sincronizaron desde antes de las marcas borradas vuelven a
+ * cargarse completas (ChangeSet.isComplete).
+ *
+ * Cualquier terminal o servidor puede hacerlo; si varias coinciden, la segunda no encuentra marcas que borrar.
+ */
+public class DeletedRowPruner {
+    private static final long interval_minutes = 60;
+
+    private static ScheduledExecutorService scheduler;
+
+    private DeletedRowPruner() {}
+
+    /**
+     * Inicia el borrado periódico, la primera vez de inmediato. No hace nada si DELETED_ROW_RETENTION_HOURS es 0.
+     */
+    public static synchronized void start() {
+        long retention_millis = DatabaseConnector.getDeletedRowRetentionMillis();
+
+        if (retention_millis <= 0 || scheduler != null) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deleted-row-pruner");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                int pruned = SQLCommandExecutor.pruneDeletedRows(retention_millis);
+
+                if (pruned > 0) System.out.println("Marcas de eliminación borradas: " + pruned);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, 0, interval_minutes, TimeUnit.MINUTES);
+    }
+
+    // Detiene el borrado periódico.
+    public static synchronized void stop() {
+        if (scheduler == null) return;
+
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+}
@@ -1,85 +1,496 @@
 package sample.taqueriadb.dao;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
+import sample.taqueriadb.db.DatabaseConnector;
 import sample.taqueriadb.model.Employee;
+import sample.taqueriadb.utils.BatchResult;
+import sample.taqueriadb.utils.CacheStats;
+import sample.taqueriadb.utils.EntityCache;
+import sample.taqueriadb.utils.RowMapper;
 import sample.taqueriadb.utils.SQLCommandExecutor;
+import sample.taqueriadb.utils.TableExporter;
+import sample.taqueriadb.utils.TableImporter;
 
 /**
  * Contiene los métodos para interactuar con la tabla Employee de la base de datos.
  */
 public class EmployeeDAO extends SQLCommandExecutor {
+    // Convierte las filas de la tabla employee en objetos Employee. Los índices se resuelven una vez por consulta.
+    private static final RowMapper<Employee> mapper = result_set -> {
+        int id = result_set.findColumn("id_employee");
+        int name = result_set.findColumn("name");
+        int last_name = result_set.findColumn("last_name");
+        int phone_number = result_set.findColumn("phone_number");
+        int email = result_set.findColumn("email");
+
+        return row -> new Employee(
+            row.getInt(id),
+            row.getString(name),
+            row.getString(last_name),
+            row.getString(phone_number),
+            row.getString(email)
+        );
+    };
+
+    // Caché de empleados por ID. Se actualiza en cada escritura realizada por este DAO.
+    private static final EntityCache<Integer, Employee> cache = new EntityCache<>(
+        DatabaseConnector.getCacheMaxSize(), DatabaseConnector.getCacheTtlMillis()
+    );
+
+    // Columnas por las que se puede ordenar y filtrar la lista de empleados.
+    private static final KeysetQuery<Employee> keyset_query =
+        new KeysetQuery<>("employee", "id_employee", Employee::getId)
+            .column("id", "id_employee", Employee::getId)
+            .column("name", "name", Employee::getName)
+            .column("last_name", "last_name", Employee::getLastName)
+            .column("email", "email", Employee::getEmail)
+            .column("phone_number", "phone_number", Employee::getPhoneNumber);
+
+    // Columnas de los archivos exportados.
+    private static final TableExporter<Employee> exporter = new TableExporter<>(
+        new String[] { "id", "name", "last_name", "phone_number", "email" },
+        Employee::getId,
+        Employee::getName,
+        Employee::getLastName,
+        Employee::getPhoneNumber,
+        Employee::getEmail
+    );
+
+    // Columnas de los archivos importados. Cada fila se valida con parseImportedEmployee().
+    private static final TableImporter<Employee> importer = new TableImporter<>(
+        new String[] { "name", "last_name", "phone_number", "email" }, EmployeeDAO::parseImportedEmployee
+    );
+
+    // Marca el empleado como eliminado y después lo elimina. Solo se marcan los empleados que existen.
+    private static final String[] delete_queries = {
+        "INSERT INTO deleted_row (table_name, row_id, version) " +
+            "SELECT 'employee', id_employee, " + change_version + " FROM employee WHERE id_employee = ?",
+        "DELETE FROM employee WHERE id_employee = ?",
+    };
+
     /**
      * Inserta un nuevo empleado a la base de datos.
      *
      * @param employee objeto tipo Employee con los datos del nuevo empleado.
-     * @return número de filas afectadas.
+     * @return el empleado insertado, con el ID generado por la base de datos.
      */
-    public static int add(Employee employee) throws SQLException {
-        String query = String.format(
-            "INSERT INTO employee (name, last_name, phone_number, email) VALUES ('%s', '%s', '%s', '%s')",
-                employee.getName(),
-                employee.getLastName(),
-                employee.getPhoneNumber(),
-                employee.getEmail()
+    public static Employee add(Employee employee) throws SQLException {
+        return add(employee, null);
+    }
+
+    /**
+     * Inserta un nuevo empleado junto con la llave del alta de la escritura diferida que lo registró.
+     *
+     * @param employee objeto tipo Employee con los datos del nuevo empleado.
+     * @param write_key Llave única del alta (WriteBehind), o null.
+     * @return el empleado insertado, con el ID generado por la base de datos.
+     */
+    public static Employee add(Employee employee, String write_key) throws SQLException {
+        String query = "INSERT INTO employee (name, last_name, phone_number, email, write_key, version) " +
+            "VALUES (?, ?, ?, ?, ?, " + change_version + ")";
+
+        int id = executeVersionedInsert(
+            "EmployeeDAO.add",
+            query,
+            employee.getName(),
+            employee.getLastName(),
+            employee.getPhoneNumber(),
+            employee.getEmail(),
+            write_key
+        );
+
+        Employee saved_employee = new Employee(
+            id,
+            employee.getName(),
+            employee.getLastName(),
+            employee.getPhoneNumber(),
+            employee.getEmail()
         );
+        cache.put(id, saved_employee);
 
-        return executeUpdate(query);
+        return saved_employee;
     }
 
-/**
+    /**
+     * Busca el empleado insertado por un alta de la escritura diferida.
+     *
+     * @param write_key Llave única del alta.
+     * @return el empleado, o null si el alta aún no se inserta.
+     */
+    public static Employee getEmployeeByWriteKey(String write_key) throws SQLException {
+        String query = "SELECT * FROM employee WHERE write_key = ?";
+
+        return queryOne("EmployeeDAO.getEmployeeByWriteKey", query, mapper, write_key);
+    }
+
+    /**
      * Obtiene los datos de un empleado en específico utilizando su ID.
+     * Se consulta primero la caché; solo si el empleado no está en ella se consulta la base de datos.
      *
      * @param id del empleado a recuperar.
-     * @return objeto tipo ResultSet con los datos del empleado.
+     * @return objeto tipo Employee con los datos del empleado, o null si no existe. No debe modificarse, ya que es
+     * la misma instancia guardada en la caché.
      */
-    public static ResultSet getEmployeeById(int id) throws SQLException {
-        String query = String.format(
-            "SELECT * FROM employee WHERE id_employee = %d", id);
+    public static Employee getEmployeeById(int id) throws SQLException {
+        return cache.get(id, EmployeeDAO::loadEmployeeById);
+    }
+
+    private static Employee loadEmployeeById(int id) throws SQLException {
+        String query = "SELECT * FROM employee WHERE id_employee = ?";
 
-        return executeQuery(query);
+        return queryOne("EmployeeDAO.getEmployeeById", query, mapper, id);
+    }
+
+    /**
+     * Obtiene varios empleados por su ID, por ejemplo los resultados de una búsqueda. Los que están en la caché no se
+     * consultan; el resto se obtiene con una sola consulta.
+     *
+     * @param ids de los empleados a recuperar.
+     * @return los empleados encontrados, en el mismo orden que los IDs. Los que ya no existen se omiten.
+     */
+    public static List<Employee> getEmployeesByIds(int[] ids) throws SQLException {
+        Map<Integer, Employee> found = new HashMap<>();
+        int[] missing_ids = new int[ids.length];
+        int missing_count = 0;
+
+        for (int id : ids) {
+            Employee cached = cache.getIfPresent(id);
+
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing_ids[missing_count++] = id;
+            }
+        }
+
+        if (missing_count > 0) {
+            missing_ids = Arrays.copyOf(missing_ids, missing_count);
+
+            String query = "SELECT * FROM employee WHERE id_employee IN (" + inPlaceholders(missing_count) + ")";
+
+            for (Employee employee : queryList("EmployeeDAO.getEmployeesByIds", query, mapper, inParams(missing_ids))) {
+                found.put(employee.getId(), employee);
+            }
+        }
+
+        List<Employee> employees = new ArrayList<>(found.size());
+
+        for (int id : ids) {
+            Employee employee = found.get(id);
+
+            if (employee != null) employees.add(employee);
+        }
+
+        return employees;
     }
 
     /**
      * Obtiene todos los empleados registrados en la base de datos.
      *
-     * @return objeto tipo ResultSet con los datos de todos los empleados.
+     * @return lista con los datos de todos los empleados.
      */
-    public static ResultSet getEmployees() throws SQLException {
+    public static List<Employee> getEmployees() throws SQLException {
         String query = "SELECT * FROM employee";
 
-        return executeQuery(query);
+        return queryList("EmployeeDAO.getEmployees", query, mapper);
+    }
+
+    /**
+     * Recorre todos los empleados registrados sin cargarlos en memoria a la vez. Las filas se leen del servidor en
+     * bloques de FETCH_SIZE conforme se consume el Stream (con MySQL, mediante un cursor del servidor).
+     *
+     * @return Stream con los empleados en orden de ID. Mantiene una conexión prestada, por lo que debe cerrarse
+     * (try-with-resources).
+     */
+    public static Stream<Employee> streamEmployees() throws SQLException {
+        String query = "SELECT * FROM employee ORDER BY id_employee";
+
+        return queryStream("EmployeeDAO.streamEmployees", query, mapper);
+    }
+
+    /**
+     * Obtiene una página de empleados ordenada por ID, a partir del empleado indicado (paginación por llave).
+     * A diferencia de OFFSET, el costo no crece conforme se avanza en la tabla.
+     *
+     * @param last_id ID del último empleado de la página anterior. Integer.MIN_VALUE para la primera página.
+     * @param limit número máximo de empleados a obtener.
+     * @return lista con los empleados, en orden ascendente de ID.
+     */
+    public static List<Employee> getEmployeesAfter(int last_id, int limit) throws SQLException {
+        String query = "SELECT * FROM employee WHERE id_employee > ? ORDER BY id_employee LIMIT ?";
+
+        return queryList("EmployeeDAO.getEmployeesAfter", query, mapper, last_id, limit);
+    }
+
+    /**
+     * Obtiene la página de empleados anterior al empleado indicado (paginación por llave).
+     *
+     * @param first_id ID del primer empleado de la página siguiente.
+     * @param limit número máximo de empleados a obtener.
+     * @return lista con los empleados, en orden ascendente de ID.
+     */
+    public static List<Employee> getEmployeesBefore(int first_id, int limit) throws SQLException {
+        String query = "SELECT * FROM employee WHERE id_employee < ? ORDER BY id_employee DESC LIMIT ?";
+
+        List<Employee> employees = queryList("EmployeeDAO.getEmployeesBefore", query, mapper, first_id, limit);
+
+        // La consulta recorre el índice en orden descendente; se devuelve en el orden de la tabla.
+        Collections.reverse(employees);
+
+        return employees;
+    }
+
+    /**
+     * Obtiene la página de empleados que sigue al empleado indicado, con el orden y los filtros dados. El orden y los
+     * filtros se resuelven en la base de datos (ORDER BY y WHERE), con el ID como desempate.
+     *
+     * @param last_employee Último empleado de la página anterior, o null para la primera página.
+     * @param limit número máximo de empleados a obtener.
+     * @param list_query Orden y filtros. Columnas permitidas: "id", "name", "last_name", "email", "phone_number".
+     * @return lista con los empleados, en el orden solicitado.
+     */
+    public static List<Employee> getEmployeesAfter(Employee last_employee, int limit, ListQuery list_query)
+            throws SQLException {
+        String query = keyset_query.select(list_query, last_employee != null, false);
+
+        return queryList(
+            "EmployeeDAO.getEmployeesAfter", query, mapper, keyset_query.params(list_query, last_employee, limit)
+        );
+    }
+
+    /**
+     * Obtiene la página de empleados que precede al empleado indicado, con el orden y los filtros dados.
+     *
+     * @param first_employee Primer empleado de la página siguiente.
+     * @param limit número máximo de empleados a obtener.
+     * @param list_query Orden y filtros. Columnas permitidas: "id", "name", "last_name", "email", "phone_number".
+     * @return lista con los empleados, en el orden solicitado.
+     */
+    public static List<Employee> getEmployeesBefore(Employee first_employee, int limit, ListQuery list_query)
+            throws SQLException {
+        String query = keyset_query.select(list_query, true, true);
+
+        List<Employee> employees = queryList(
+            "EmployeeDAO.getEmployeesBefore", query, mapper, keyset_query.params(list_query, first_employee, limit)
+        );
+
+        // La consulta recorre el orden al revés; se devuelve en el orden solicitado.
+        Collections.reverse(employees);
+
+        return employees;
+    }
+
+    /**
+     * Obtiene los empleados insertados, actualizados o eliminados desde una versión de cambio, por ejemplo por otra
+     * terminal. El costo depende del número de cambios, no del tamaño de la tabla. Actualiza la caché con los
+     * cambios encontrados.
+     *
+     * @param since_version Versión devuelta por la consulta anterior, o -1 para obtener solo la versión actual.
+     * @return los cambios y la versión hasta la que se consultaron.
+     */
+    public static ChangeSet<Employee> getEmployeeChanges(long since_version) throws SQLException {
+        // Escrituras de la caché antes de la consulta: los cambios leídos no deben reemplazar una escritura local
+        // posterior.
+        long cache_writes = cache.getWriteCount();
+        long version = getChangeVersion();
+
+        if (since_version < 0 || since_version >= version) return ChangeSet.empty(version);
+
+        // Ya se borraron marcas de eliminación posteriores a since_version: no se sabría qué filas se eliminaron.
+        if (since_version < getPrunedVersion()) return ChangeSet.incomplete(version);
+
+        // Se limita a la versión leída para que la siguiente consulta empiece justo después.
+        String changed_query = "SELECT * FROM employee WHERE version > ? AND version <= ?";
+        String deleted_query =
+            "SELECT row_id FROM deleted_row WHERE table_name = 'employee' AND version > ? AND version <= ?";
+
+        List<Employee> changed = queryList(
+            "EmployeeDAO.getEmployeeChanges", changed_query, mapper, since_version, version
+        );
+        List<Employee> deleted = queryList(
+            "EmployeeDAO.getDeletedEmployees",
+            deleted_query,
+            result_set -> row -> new Employee(row.getInt(1), null, null, null, null),
+            since_version,
+            version
+        );
+
+        for (Employee employee : changed) {
+            cache.putIfUnchanged(employee.getId(), employee, cache_writes);
+        }
+
+        for (Employee employee : deleted) {
+            cache.invalidate(employee.getId());
+        }
+
+        return new ChangeSet<>(version, changed, deleted);
     }
 
     /**
      * Actualiza los datos de un empleado en específico utilizando su ID.
      *
      * @param employee objeto tipo Employee con los datos del empleado a actualizar.
+     * @return el empleado actualizado, o null si ya no existe en la base de datos.
+     */
+    public static Employee update(Employee employee) throws SQLException {
+        String query = "UPDATE employee SET name = ?, last_name = ?, email = ?, phone_number = ?, " +
+            "version = " + change_version + " WHERE id_employee = ?";
+
+        int rows_affected = executeVersionedUpdate(
+            "EmployeeDAO.update",
+            new String[] { query },
+            employee.getName(),
+            employee.getLastName(),
+            employee.getEmail(),
+            employee.getPhoneNumber(),
+            employee.getId()
+        );
+
+        if (rows_affected == 0) {
+            cache.invalidate(employee.getId());
+            return null;
+        }
+
+        cache.put(employee.getId(), employee);
+
+        return employee;
+    }
+
+    /**
+     * Elimina un empleado de la base de datos utilizando su ID. Deja una marca en deleted_row para que las demás
+     * terminales lo quiten de sus listas.
+     *
+     * @param id del empleado a ser eliminado.
      * @return número de filas afectadas.
      */
-    public static int update(Employee employee) throws SQLException {
-        String query = String.format(
-            "UPDATE employee SET name = '%s', last_name = '%s', email = '%s', phone_number = '%s' WHERE id_employee = %d",
+    public static int delete(int id) throws SQLException {
+        int rows_affected = executeVersionedUpdate("EmployeeDAO.delete", delete_queries, id);
+        cache.invalidate(id);
+
+        return rows_affected;
+    }
+
+    /**
+     * Inserta varios empleados en lotes. Cada lote se envía en una sola transacción.
+     *
+     * @param employees empleados a insertar.
+     * @return el resultado de cada empleado, en el orden de la colección.
+     */
+    public static BatchResult addAll(Collection<Employee> employees) throws SQLException {
+        String query = "INSERT INTO employee (name, last_name, phone_number, email, version) " +
+            "VALUES (?, ?, ?, ?, " + change_version + ")";
+
+        List<Object[]> rows = new ArrayList<>(employees.size());
+
+        for (Employee employee : employees) {
+            rows.add(new Object[] {
+                employee.getName(),
+                employee.getLastName(),
+                employee.getPhoneNumber(),
+                employee.getEmail()
+            });
+        }
+
+        return executeVersionedBatch("EmployeeDAO.addAll", new String[] { query }, rows);
+    }
+
+    /**
+     * Actualiza varios empleados en lotes. Cada lote se envía en una sola transacción.
+     *
+     * @param employees empleados a actualizar, con su ID.
+     * @return el resultado de cada empleado, en el orden de la colección.
+     */
+    public static BatchResult updateAll(Collection<Employee> employees) throws SQLException {
+        String query = "UPDATE employee SET name = ?, last_name = ?, email = ?, phone_number = ?, " +
+            "version = " + change_version + " WHERE id_employee = ?";
+
+        List<Object[]> rows = new ArrayList<>(employees.size());
+
+        for (Employee employee : employees) {
+            rows.add(new Object[] {
                 employee.getName(),
                 employee.getLastName(),
                 employee.getEmail(),
                 employee.getPhoneNumber(),
                 employee.getId()
-        );
+            });
+        }
 
-        return executeUpdate(query);
+        try {
+            return executeVersionedBatch("EmployeeDAO.updateAll", new String[] { query }, rows);
+        } finally {
+            // Después del commit: una lectura concurrente no puede volver a guardar la fila anterior.
+            for (Employee employee : employees) {
+                cache.invalidate(employee.getId());
+            }
+        }
     }
 
     /**
-     * Elimina un empleado de la base de datos utilizando su ID.
+     * Elimina varios empleados en lotes. Cada lote se envía en una sola transacción.
      *
-     * @param id del empleado a ser eliminado.
-     * @return número de filas afectadas.
+     * @param ids de los empleados a eliminar.
+     * @return el resultado de cada ID, en el orden del arreglo.
      */
-    public static int delete(int id) throws SQLException {
-        String query = String.format("DELETE FROM employee WHERE id_employee = %d", id);
+    public static BatchResult deleteAll(int[] ids) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(ids.length);
 
-        return executeUpdate(query);
+        for (int id : ids) {
+            rows.add(new Object[] { id });
+        }
+
+        try {
+            return executeVersionedBatch("EmployeeDAO.deleteAll", delete_queries, rows);
+        } finally {
+            for (int id : ids) {
+                cache.invalidate(id);
+            }
+        }
+    }
+
+    /**
+     * @return el exportador de empleados a CSV o JSON Lines. Se usa junto con streamEmployees().
+     */
+    public static TableExporter<Employee> getExporter() {
+        return exporter;
+    }
+
+    /**
+     * @return el importador de empleados desde CSV. Las filas válidas se guardan con addAll().
+     */
+    public static TableImporter<Employee> getImporter() {
+        return importer;
+    }
+
+    // Valida una fila importada con los límites de las columnas de la tabla employee.
+    private static Employee parseImportedEmployee(String[] fields) {
+        String email = TableImporter.requireText(fields[3], "email", 100);
+
+        if (email.indexOf('@') < 1 || email.indexOf('@') == email.length() - 1) {
+            throw new IllegalArgumentException("email no es válido");
+        }
+
+        return new Employee(
+            TableImporter.requireText(fields[0], "name", 100),
+            TableImporter.requireText(fields[1], "last_name", 100),
+            TableImporter.requireText(fields[2], "phone_number", 20),
+            email
+        );
+    }
+
+    /**
+     * @return las métricas de la caché de empleados.
+     */
+    public static CacheStats getCacheStats() {
+        return cache.getStats();
     }
-}
\ No newline at end of file
+}
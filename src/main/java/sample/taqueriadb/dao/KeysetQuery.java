@@ -0,0 +1,143 @@
+package sample.taqueriadb.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Genera las consultas de paginación por llave de una tabla para un ListQuery: filtros por prefijo (LIKE 'x%'),
+ * orden por una columna permitida y el ID como desempate, de modo que cada página continúa exactamente donde
+ * terminó la anterior aunque haya valores repetidos.
+ *
+ * @param <T> Tipo de entidad de la tabla.
+ */
+final class KeysetQuery<T> {
+    private final String table;
+    private final String id_column;
+    private final ToIntFunction<T> id_accessor;
+    // Columnas que se pueden usar para ordenar y filtrar, por llave.
+    private final Map<String, Column<T>> columns = new HashMap<>();
+
+    KeysetQuery(String table, String id_column, ToIntFunction<T> id_accessor) {
+        this.table = table;
+        this.id_column = id_column;
+        this.id_accessor = id_accessor;
+    }
+
+    /**
+     * Permite ordenar y filtrar por una columna.
+     *
+     * @param key Llave de la columna en ListQuery.
+     * @param sql_column Nombre de la columna en la tabla.
+     * @param accessor Obtiene el valor de la columna de una entidad, para continuar a partir de ella.
+     */
+    KeysetQuery<T> column(String key, String sql_column, Function<T, ?> accessor) {
+        columns.put(key, new Column<>(sql_column, accessor));
+
+        return this;
+    }
+
+    /**
+     * Genera la consulta de una página.
+     *
+     * @param list_query Orden y filtros.
+     * @param has_cursor Si la página continúa a partir de una entidad (false para la primera página).
+     * @param backwards Si la página es la anterior a la entidad. Las filas se obtienen en orden inverso.
+     * @return la consulta SQL, con sus parámetros en el orden de params().
+     */
+    String select(ListQuery list_query, boolean has_cursor, boolean backwards) {
+        Column<T> sort_column = sortColumn(list_query);
+        boolean descending = list_query.isDescending() != backwards;
+        String comparison = descending ? "<" : ">";
+        String direction = descending ? "DESC" : "ASC";
+
+        List<String> conditions = new ArrayList<>();
+
+        for (String key : list_query.getFilters().keySet()) {
+            conditions.add(columnFor(key).sql_column + " LIKE ? ESCAPE '!'");
+        }
+
+        if (has_cursor && sort_column == null) {
+            conditions.add(id_column + " " + comparison + " ?");
+        } else if (has_cursor) {
+            conditions.add(
+                "(" + sort_column.sql_column + " " + comparison + " ? OR (" +
+                    sort_column.sql_column + " = ? AND " + id_column + " " + comparison + " ?))"
+            );
+        }
+
+        StringBuilder query = new StringBuilder("SELECT * FROM ").append(table);
+
+        if (!conditions.isEmpty()) query.append(" WHERE ").append(String.join(" AND ", conditions));
+
+        query.append(" ORDER BY ");
+
+        if (sort_column != null) query.append(sort_column.sql_column).append(' ').append(direction).append(", ");
+
+        return query.append(id_column).append(' ').append(direction).append(" LIMIT ?").toString();
+    }
+
+    /**
+     * @param list_query Orden y filtros, los mismos que se usaron en select().
+     * @param cursor Entidad a partir de la cual continúa la página, o null para la primera página.
+     * @param limit Número máximo de filas.
+     * @return los parámetros de la consulta generada por select().
+     */
+    Object[] params(ListQuery list_query, T cursor, int limit) {
+        Column<T> sort_column = sortColumn(list_query);
+        List<Object> params = new ArrayList<>();
+
+        for (String prefix : list_query.getFilters().values()) {
+            params.add(escapeLike(prefix) + "%");
+        }
+
+        if (cursor != null && sort_column == null) {
+            params.add(id_accessor.applyAsInt(cursor));
+        } else if (cursor != null) {
+            Object value = sort_column.accessor.apply(cursor);
+
+            params.add(value);
+            params.add(value);
+            params.add(id_accessor.applyAsInt(cursor));
+        }
+
+        params.add(limit);
+
+        return params.toArray();
+    }
+
+    // Columna de orden, o null si se ordena solo por ID.
+    private Column<T> sortColumn(ListQuery list_query) {
+        if (list_query.getSortKey() == null) return null;
+
+        Column<T> column = columnFor(list_query.getSortKey());
+
+        return column.sql_column.equals(id_column) ? null : column;
+    }
+
+    private Column<T> columnFor(String key) {
+        Column<T> column = columns.get(key);
+
+        if (column == null) throw new IllegalArgumentException("La columna '" + key + "' no se puede consultar.");
+
+        return column;
+    }
+
+    // Escapa los comodines de LIKE para que el prefijo se compare literalmente.
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static final class Column<T> {
+        private final String sql_column;
+        private final Function<T, ?> accessor;
+
+        Column(String sql_column, Function<T, ?> accessor) {
+            this.sql_column = sql_column;
+            this.accessor = accessor;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package sample.taqueriadb.dao;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Orden y filtros con los que se consulta una lista de elementos. Los DAO lo traducen a ORDER BY y WHERE, de modo
+ * que la base de datos ordena y filtra con sus índices y solo se transfiere la página solicitada.
+ *
+ * Las columnas se identifican con llaves fijas ("name", "last_name", ...) que cada DAO valida contra su lista de
+ * columnas permitidas; nunca se concatena texto del usuario en la consulta. Es inmutable.
+ */
+public class ListQuery {
+    // Orden por ID ascendente y sin filtros.
+    public static final ListQuery DEFAULT = new ListQuery(null, false, Collections.emptyMap());
+
+    private final String sort_key;
+    private final boolean descending;
+    private final Map<String, String> filters;
+
+    /**
+     * @param sort_key Columna por la que se ordena, o null para ordenar por ID.
+     * @param descending Si el orden es descendente.
+     * @param filters Prefijo que debe tener cada columna filtrada, por llave de columna.
+     */
+    public ListQuery(String sort_key, boolean descending, Map<String, String> filters) {
+        this.sort_key = sort_key;
+        this.descending = descending;
+        this.filters = Collections.unmodifiableMap(new LinkedHashMap<>(filters));
+    }
+
+    public String getSortKey() {
+        return sort_key;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Map<String, String> getFilters() {
+        return filters;
+    }
+
+    /**
+     * @return una copia con el orden indicado y los mismos filtros.
+     */
+    public ListQuery withSort(String sort_key, boolean descending) {
+        return new ListQuery(sort_key, descending, filters);
+    }
+
+    /**
+     * @param key Columna a filtrar.
+     * @param prefix Prefijo que deben tener los valores, sin distinguir mayúsculas. null o vacío quita el filtro.
+     * @return una copia con el filtro indicado.
+     */
+    public ListQuery withFilter(String key, String prefix) {
+        Map<String, String> new_filters = new LinkedHashMap<>(filters);
+
+        if (prefix == null || prefix.isEmpty()) {
+            new_filters.remove(key);
+        } else {
+            new_filters.put(key, prefix);
+        }
+
+        return new ListQuery(sort_key, descending, new_filters);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ListQuery that = (ListQuery) o;
+        return descending == that.descending && Objects.equals(sort_key, that.sort_key) &&
+            filters.equals(that.filters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sort_key, descending, filters);
+    }
+}
@@ -0,0 +1,701 @@
+package sample.taqueriadb.dao;
+
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.db.WriteJournal;
+import sample.taqueriadb.model.Client;
+import sample.taqueriadb.model.Employee;
+import sample.taqueriadb.utils.BatchResult;
+import sample.taqueriadb.utils.Json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Modo de escritura diferida (WRITE_BEHIND en db.properties). Las altas, cambios y bajas de los formularios se
+ * guardan en un diario local (WriteJournal) y se confirman en cuanto están en disco, sin esperar a la base de datos.
+ * Un hilo en segundo plano las aplica después en lotes con los métodos de los DAO, en el mismo orden en que se
+ * hicieron.
+ *
+ * Los elementos nuevos reciben un ID provisional negativo hasta que se insertan; entonces se avisa a los listeners
+ * con el elemento provisional y el guardado, y los cambios posteriores al elemento provisional se aplican al ID real.
+ *
+ * Si la aplicación se cierra con escrituras pendientes, se aplican al volver a iniciar. Cada alta lleva una llave
+ * única que se guarda con la fila (columna write_key); un alta cuya inserción se confirmó justo antes del cierre, pero
+ * cuyo ID real aún no llegaba al diario, se encuentra por esa llave en lugar de insertarse otra vez.
+ *
+ * Solo se reintentan los errores pasajeros: conexión perdida, bloqueos y tiempos de espera. Una escritura que la base
+ * de datos rechaza (por ejemplo, un dato demasiado largo) se guarda en el archivo de rechazadas
+ * (WRITE_BEHIND_REJECTED_FILE) y se avisa a los listeners de rechazos, para que no detenga las siguientes.
+ */
+public class WriteBehind {
+    // Tipos de registro del diario.
+    private static final byte insert_operation = 1;
+    private static final byte update_operation = 2;
+    private static final byte delete_operation = 3;
+    // ID real asignado a un elemento provisional.
+    private static final byte assigned_operation = 4;
+
+    private static final byte client_table = 1;
+    private static final byte employee_table = 2;
+
+    // Número de campos de cada tabla; las altas llevan además su llave al final.
+    private static final int client_field_count = 1;
+    private static final int employee_field_count = 4;
+
+    private static final long max_retry_millis = 30_000;
+
+    // Se conserva después de stop() para que el hilo de escritura no encuentre null al terminar.
+    private static volatile WriteJournal journal;
+    private static Thread flusher;
+    private static volatile boolean running;
+
+    // Escrituras confirmadas en el diario que aún no se aplican, en orden.
+    private static final BlockingQueue<PendingWrite> pending_writes = new LinkedBlockingQueue<>();
+    private static final AtomicLong pending_count = new AtomicLong();
+    private static final AtomicLong applied_count = new AtomicLong();
+    private static final AtomicLong failed_count = new AtomicLong();
+
+    private static final AtomicInteger next_provisional_id = new AtomicInteger(-1);
+    // ID real de cada elemento provisional ya insertado.
+    private static final Map<Integer, Integer> assigned_ids = new ConcurrentHashMap<>();
+    // Hace atómicos la resolución de IDs provisionales y el orden de los registros en el diario.
+    private static final Object append_lock = new Object();
+
+    private static final List<BiConsumer<Client, Client>> client_listeners = new CopyOnWriteArrayList<>();
+    private static final List<BiConsumer<Employee, Employee>> employee_listeners = new CopyOnWriteArrayList<>();
+    private static final List<Consumer<String>> rejection_listeners = new CopyOnWriteArrayList<>();
+
+    private WriteBehind() {}
+
+    /**
+     * Abre el diario, recupera las escrituras pendientes e inicia el hilo que las aplica. No hace nada si
+     * WRITE_BEHIND no está activado.
+     */
+    public static synchronized void start() throws IOException {
+        if (!DatabaseConnector.isWriteBehindEnabled() || journal != null) return;
+
+        journal = new WriteJournal(
+            Paths.get(DatabaseConnector.getWriteBehindFile()), DatabaseConnector.getWriteBehindJournalBytes()
+        );
+
+        List<byte[]> records = journal.getPendingRecords();
+        int min_provisional_id = 0;
+
+        for (int i = 0; i < records.size(); i++) {
+            PendingWrite write = decode(records.get(i));
+            write.sequence = i + 1;
+
+            min_provisional_id = Math.min(min_provisional_id, write.id);
+
+            if (write.operation == assigned_operation) {
+                assigned_ids.put(write.id, Integer.parseInt(write.fields[0]));
+            } else {
+                // Si es un alta, su inserción pudo confirmarse antes del cierre.
+                write.may_exist = true;
+                pending_writes.add(write);
+                pending_count.incrementAndGet();
+            }
+        }
+
+        next_provisional_id.set(min_provisional_id - 1);
+
+        if (!pending_writes.isEmpty()) {
+            System.out.println("Escrituras pendientes recuperadas del diario: " + pending_writes.size());
+        }
+
+        running = true;
+        flusher = new Thread(WriteBehind::flushLoop, "write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Detiene el hilo que aplica las escrituras y cierra el diario. Las escrituras que no se alcanzaron a aplicar
+     * se conservan para el siguiente inicio.
+     */
+    public static synchronized void stop() throws IOException {
+        if (!running) return;
+
+        running = false;
+        flusher.interrupt();
+
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        journal.close();
+    }
+
+    /**
+     * @return true si las escrituras de los formularios deben hacerse con este modo.
+     */
+    public static boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Registra un cliente nuevo.
+     *
+     * @return se completa cuando el alta está en el diario, con el cliente y un ID provisional.
+     */
+    public static CompletableFuture<Client> addClient(Client client) {
+        return append(insert_operation, client_table, 0, client.getName())
+            .thenApply(id -> new Client(id, client.getName()));
+    }
+
+    /**
+     * Registra los cambios de un cliente.
+     *
+     * @return se completa cuando el cambio está en el diario, con el cliente. Si tenía un ID provisional que ya se
+     * insertó, se devuelve con el ID real.
+     */
+    public static CompletableFuture<Client> updateClient(Client client) {
+        return append(update_operation, client_table, client.getId(), client.getName())
+            .thenApply(id -> new Client(id, client.getName()));
+    }
+
+    /**
+     * Registra la baja de un cliente.
+     *
+     * @return se completa cuando la baja está en el diario, con el número de filas que se eliminarán (1).
+     */
+    public static CompletableFuture<Integer> deleteClient(int id) {
+        return append(delete_operation, client_table, id).thenApply(resolved_id -> 1);
+    }
+
+    /**
+     * Registra un empleado nuevo.
+     *
+     * @return se completa cuando el alta está en el diario, con el empleado y un ID provisional.
+     */
+    public static CompletableFuture<Employee> addEmployee(Employee employee) {
+        return append(insert_operation, employee_table, 0, employeeFields(employee))
+            .thenApply(id -> withId(employee, id));
+    }
+
+    /**
+     * Registra los cambios de un empleado.
+     *
+     * @return se completa cuando el cambio está en el diario, con el empleado. Si tenía un ID provisional que ya se
+     * insertó, se devuelve con el ID real.
+     */
+    public static CompletableFuture<Employee> updateEmployee(Employee employee) {
+        return append(update_operation, employee_table, employee.getId(), employeeFields(employee))
+            .thenApply(id -> withId(employee, id));
+    }
+
+    /**
+     * Registra la baja de un empleado.
+     *
+     * @return se completa cuando la baja está en el diario, con el número de filas que se eliminarán (1).
+     */
+    public static CompletableFuture<Integer> deleteEmployee(int id) {
+        return append(delete_operation, employee_table, id).thenApply(resolved_id -> 1);
+    }
+
+    /**
+     * Agrega un listener que recibe el cliente provisional y el cliente guardado cada vez que se inserta un alta. Si
+     * la base de datos rechazó el alta, el cliente guardado es null. Se llama desde el hilo de escritura diferida.
+     */
+    public static void addClientListener(BiConsumer<Client, Client> listener) {
+        client_listeners.add(listener);
+    }
+
+    public static void removeClientListener(BiConsumer<Client, Client> listener) {
+        client_listeners.remove(listener);
+    }
+
+    /**
+     * Agrega un listener que recibe el empleado provisional y el empleado guardado cada vez que se inserta un alta. Si
+     * la base de datos rechazó el alta, el empleado guardado es null. Se llama desde el hilo de escritura diferida.
+     */
+    public static void addEmployeeListener(BiConsumer<Employee, Employee> listener) {
+        employee_listeners.add(listener);
+    }
+
+    public static void removeEmployeeListener(BiConsumer<Employee, Employee> listener) {
+        employee_listeners.remove(listener);
+    }
+
+    /**
+     * Agrega un listener que recibe un mensaje para el usuario cada vez que la base de datos rechaza una escritura.
+     * Se llama desde el hilo de escritura diferida.
+     */
+    public static void addRejectionListener(Consumer<String> listener) {
+        rejection_listeners.add(listener);
+    }
+
+    public static void removeRejectionListener(Consumer<String> listener) {
+        rejection_listeners.remove(listener);
+    }
+
+    /**
+     * @return el número de escrituras confirmadas que aún no se aplican en la base de datos.
+     */
+    public static long getPendingCount() {
+        return pending_count.get();
+    }
+
+    /**
+     * @return un resumen del estado de la escritura diferida, o null si no está activada.
+     */
+    public static String getStats() {
+        WriteJournal current_journal = journal;
+
+        if (!running) return null;
+
+        return "pendientes=" + pending_count.get() +
+            ", aplicadas=" + applied_count.get() +
+            ", rechazadas=" + failed_count.get() +
+            ", diario=" + current_journal.getUsedBytes() / 1024 + "/" + current_journal.getCapacity() / 1024 + " KB";
+    }
+
+    /**
+     * Agrega un registro al diario y lo encola para aplicarse cuando esté en disco.
+     *
+     * @param id ID del elemento. En las altas se ignora y se asigna uno provisional.
+     * @return se completa con el ID con el que se registró el elemento.
+     */
+    private static CompletableFuture<Integer> append(byte operation, byte table, int id, String... fields) {
+        if (!running) throw new IllegalStateException("La escritura diferida no está activada.");
+
+        // Las altas llevan al final una llave única con la que se reconocen si se vuelven a aplicar.
+        if (operation == insert_operation) fields = withField(fields, UUID.randomUUID().toString());
+
+        synchronized (append_lock) {
+            int resolved_id = operation == insert_operation ? next_provisional_id.getAndDecrement() : resolve(id);
+            PendingWrite write = new PendingWrite(operation, table, resolved_id, fields);
+
+            pending_count.incrementAndGet();
+
+            // Los registros se confirman en orden, por lo que la cola conserva el orden del diario.
+            return journal.append(encode(write)).handle((sequence, error) -> {
+                if (error != null) {
+                    pending_count.decrementAndGet();
+
+                    throw new UncheckedIOException(new IOException("No se pudo guardar en el diario.", error));
+                }
+
+                write.sequence = sequence;
+                pending_writes.add(write);
+
+                return resolved_id;
+            });
+        }
+    }
+
+    // Traduce un ID provisional ya insertado a su ID real.
+    private static int resolve(int id) {
+        return id < 0 ? assigned_ids.getOrDefault(id, id) : id;
+    }
+
+    private static void flushLoop() {
+        int batch_size = DatabaseConnector.getBatchSize();
+        List<PendingWrite> batch = new ArrayList<>();
+
+        while (running) {
+            try {
+                PendingWrite first = pending_writes.poll(1, TimeUnit.SECONDS);
+
+                if (first == null) continue;
+
+                batch.add(first);
+                pending_writes.drainTo(batch, batch_size - 1);
+
+                applyWithRetry(batch);
+
+                journal.checkpoint(batch.get(batch.size() - 1).sequence);
+                pending_count.addAndGet(-batch.size());
+                batch.clear();
+            } catch (InterruptedException e) {
+                // stop() interrumpe la espera; las escrituras sin aplicar quedan en el diario.
+                return;
+            }
+        }
+    }
+
+    /**
+     * Aplica un lote en orden. Si la base de datos no responde, se reintenta desde la primera escritura sin aplicar,
+     * esperando cada vez más entre intentos. Un error que se repetiría en cada intento rechaza esa escritura y se
+     * continúa con la siguiente.
+     */
+    private static void applyWithRetry(List<PendingWrite> batch) throws InterruptedException {
+        int applied = 0;
+        long retry_millis = 500;
+
+        while (applied < batch.size()) {
+            try {
+                applied = applyRun(batch, applied);
+                retry_millis = 500;
+            } catch (SQLException e) {
+                if (!isTransient(e)) {
+                    reject(batch.get(applied), e.getMessage());
+                    applied++;
+                    continue;
+                }
+
+                System.out.println("No se pudieron aplicar las escrituras pendientes; se reintentará en " +
+                    retry_millis + " ms: " + e.getMessage());
+
+                Thread.sleep(retry_millis);
+                retry_millis = Math.min(retry_millis * 2, max_retry_millis);
+            }
+        }
+    }
+
+    /**
+     * Aplica la escritura en la posición start y las siguientes del mismo tipo y tabla. Los cambios y bajas se
+     * envían juntos con updateAll y deleteAll; las altas se insertan una por una para obtener su ID.
+     *
+     * @return la posición de la primera escritura no aplicada.
+     */
+    private static int applyRun(List<PendingWrite> batch, int start) throws SQLException {
+        PendingWrite first = batch.get(start);
+
+        if (first.operation == insert_operation) {
+            applyInsert(first);
+            return start + 1;
+        }
+
+        int end = start + 1;
+
+        while (end < batch.size() && batch.get(end).isSameKind(first)) {
+            end++;
+        }
+
+        List<PendingWrite> run = new ArrayList<>();
+
+        for (PendingWrite write : batch.subList(start, end)) {
+            int id = resolve(write.id);
+
+            if (id < 0) {
+                reject(write, "El alta de este elemento fue rechazada.");
+            } else {
+                run.add(new PendingWrite(write.operation, write.table, id, write.fields));
+            }
+        }
+
+        if (run.isEmpty()) return end;
+
+        BatchResult result = applySameKind(run);
+
+        // Volver a aplicar todo el tramo no altera el resultado: los cambios y bajas ya aplicados se repiten igual.
+        throwIfTransient(result);
+
+        applied_count.addAndGet(result.getSucceededCount());
+
+        // El lote que falló se deshizo completo; cada una de sus escrituras se aplica sola para rechazar solo la que
+        // causa el error.
+        for (int i = 0; i < run.size(); i++) {
+            if (result.isSuccessful(i)) continue;
+
+            PendingWrite write = run.get(i);
+            BatchResult single = applySameKind(Collections.singletonList(write));
+
+            throwIfTransient(single);
+
+            if (single.isSuccessful(0)) {
+                applied_count.incrementAndGet();
+            } else {
+                reject(write, single.getErrors().get(0).getMessage());
+            }
+        }
+
+        return end;
+    }
+
+    private static BatchResult applySameKind(List<PendingWrite> run) throws SQLException {
+        return run.get(0).operation == update_operation ? applyUpdates(run) : applyDeletes(run);
+    }
+
+    private static void throwIfTransient(BatchResult result) throws SQLException {
+        for (SQLException error : result.getErrors()) {
+            if (isTransient(error)) throw error;
+        }
+    }
+
+    /**
+     * @return true si el error puede desaparecer al reintentar: conexión perdida o rechazada (SQLState 08),
+     * interbloqueos y tiempos de espera. Los errores sin SQLState vienen de la aplicación, por ejemplo cuando el pool
+     * aún no se crea, y también se reintentan. Las violaciones de restricciones y los datos inválidos no.
+     */
+    private static boolean isTransient(SQLException error) {
+        if (error instanceof SQLTransientException || error instanceof SQLRecoverableException) return true;
+
+        String state = error.getSQLState();
+
+        return state == null || state.startsWith("08");
+    }
+
+    /**
+     * Guarda una escritura rechazada en el archivo de rechazadas, para que no se pierda, y avisa a los listeners.
+     * Si era un alta, los listeners de la tabla reciben el elemento provisional con null como elemento guardado.
+     */
+    private static void reject(PendingWrite write, String reason) {
+        failed_count.incrementAndGet();
+
+        String table = write.table == client_table ? "client" : "employee";
+        String operation = write.operation == insert_operation ? "insert"
+            : write.operation == update_operation ? "update" : "delete";
+
+        StringBuilder line = new StringBuilder("{\"time\":");
+        Json.appendString(line, Instant.now().toString());
+        line.append(",\"operation\":");
+        Json.appendString(line, operation);
+        line.append(",\"table\":");
+        Json.appendString(line, table);
+        line.append(",\"id\":").append(write.id).append(",\"fields\":[");
+
+        for (int i = 0; i < write.fields.length; i++) {
+            if (i > 0) line.append(',');
+            Json.appendString(line, write.fields[i]);
+        }
+
+        line.append("],\"error\":");
+        Json.appendString(line, reason);
+        line.append("}\n");
+
+        String file = DatabaseConnector.getWriteBehindRejectedFile();
+
+        // Se confirma en disco antes de que el checkpoint del diario pase esta escritura.
+        try (FileChannel channel = FileChannel.open(
+            Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND
+        )) {
+            channel.write(ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.out.println("No se pudo guardar la escritura rechazada: " + line);
+        }
+
+        String message = "La base de datos rechazó " + describe(write) + ": " + reason +
+            "\nLa escritura se guardó en " + file + ".";
+        System.out.println(message);
+
+        for (Consumer<String> listener : rejection_listeners) {
+            listener.accept(message);
+        }
+
+        if (write.operation != insert_operation) return;
+
+        if (write.table == client_table) {
+            for (BiConsumer<Client, Client> listener : client_listeners) {
+                listener.accept(new Client(write.id, write.fields[0]), null);
+            }
+        } else {
+            for (BiConsumer<Employee, Employee> listener : employee_listeners) {
+                listener.accept(toEmployee(write.id, write.fields), null);
+            }
+        }
+    }
+
+    // Describe la escritura para el usuario, por ejemplo: el alta del cliente "Ana".
+    private static String describe(PendingWrite write) {
+        String action = write.operation == insert_operation ? "el alta"
+            : write.operation == update_operation ? "el cambio" : "la baja";
+        String item = write.table == client_table ? " del cliente" : " del empleado";
+
+        return action + item + (write.fields.length > 0 ? " \"" + write.fields[0] + "\"" : " con ID " + write.id);
+    }
+
+    private static void applyInsert(PendingWrite write) throws SQLException {
+        // Ya se insertó antes de un cierre inesperado.
+        if (assigned_ids.containsKey(write.id)) return;
+
+        String write_key = writeKey(write);
+        boolean may_exist = write.may_exist && write_key != null;
+
+        // Si este intento falla, la inserción pudo confirmarse aunque la respuesta no llegara; el reintento la busca.
+        write.may_exist = true;
+
+        if (write.table == client_table) {
+            Client provisional = new Client(write.id, write.fields[0]);
+            Client saved = may_exist ? ClientDAO.getClientByWriteKey(write_key) : null;
+
+            if (saved == null) saved = ClientDAO.add(new Client(write.fields[0]), write_key);
+
+            assign(write, saved.getId());
+
+            for (BiConsumer<Client, Client> listener : client_listeners) {
+                listener.accept(provisional, saved);
+            }
+        } else {
+            Employee provisional = toEmployee(write.id, write.fields);
+            Employee saved = may_exist ? EmployeeDAO.getEmployeeByWriteKey(write_key) : null;
+
+            if (saved == null) saved = EmployeeDAO.add(toEmployee(0, write.fields), write_key);
+
+            assign(write, saved.getId());
+
+            for (BiConsumer<Employee, Employee> listener : employee_listeners) {
+                listener.accept(provisional, saved);
+            }
+        }
+
+        applied_count.incrementAndGet();
+    }
+
+    // Llave única del alta, o null si el registro se escribió antes de que las altas la llevaran.
+    private static String writeKey(PendingWrite write) {
+        int field_count = write.table == client_table ? client_field_count : employee_field_count;
+
+        return write.fields.length > field_count ? write.fields[field_count] : null;
+    }
+
+    // Guarda en el diario el ID real de un alta, para resolver los cambios posteriores aun después de reiniciar.
+    private static void assign(PendingWrite write, int saved_id) {
+        CompletableFuture<Long> durable;
+
+        synchronized (append_lock) {
+            assigned_ids.put(write.id, saved_id);
+
+            durable = journal.append(encode(new PendingWrite(
+                assigned_operation, write.table, write.id, new String[] { Integer.toString(saved_id) }
+            )));
+        }
+
+        durable.join();
+    }
+
+    private static BatchResult applyUpdates(List<PendingWrite> run) throws SQLException {
+        if (run.get(0).table == client_table) {
+            List<Client> clients = new ArrayList<>(run.size());
+
+            for (PendingWrite write : run) {
+                clients.add(new Client(write.id, write.fields[0]));
+            }
+
+            return ClientDAO.updateAll(clients);
+        }
+
+        List<Employee> employees = new ArrayList<>(run.size());
+
+        for (PendingWrite write : run) {
+            employees.add(toEmployee(write.id, write.fields));
+        }
+
+        return EmployeeDAO.updateAll(employees);
+    }
+
+    private static BatchResult applyDeletes(List<PendingWrite> run) throws SQLException {
+        int[] ids = new int[run.size()];
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = run.get(i).id;
+        }
+
+        return run.get(0).table == client_table ? ClientDAO.deleteAll(ids) : EmployeeDAO.deleteAll(ids);
+    }
+
+    private static String[] employeeFields(Employee employee) {
+        return new String[] {
+            employee.getName(), employee.getLastName(), employee.getPhoneNumber(), employee.getEmail()
+        };
+    }
+
+    private static Employee toEmployee(int id, String[] fields) {
+        return new Employee(id, fields[0], fields[1], fields[2], fields[3]);
+    }
+
+    private static String[] withField(String[] fields, String field) {
+        String[] extended = new String[fields.length + 1];
+        System.arraycopy(fields, 0, extended, 0, fields.length);
+        extended[fields.length] = field;
+
+        return extended;
+    }
+
+    private static Employee withId(Employee employee, int id) {
+        return new Employee(
+            id, employee.getName(), employee.getLastName(), employee.getPhoneNumber(), employee.getEmail()
+        );
+    }
+
+    // Formato del registro: operación, tabla, ID, número de campos y cada campo en UTF-8.
+    private static byte[] encode(PendingWrite write) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+
+            output.writeByte(write.operation);
+            output.writeByte(write.table);
+            output.writeInt(write.id);
+            output.writeByte(write.fields.length);
+
+            for (String field : write.fields) {
+                output.writeUTF(field);
+            }
+
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PendingWrite decode(byte[] payload) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+
+        byte operation = input.readByte();
+        byte table = input.readByte();
+        int id = input.readInt();
+        String[] fields = new String[input.readByte()];
+
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = input.readUTF();
+        }
+
+        return new PendingWrite(operation, table, id, fields);
+    }
+
+    private static final class PendingWrite {
+        private final byte operation;
+        private final byte table;
+        private final int id;
+        private final String[] fields;
+        // Número de secuencia en el diario.
+        private long sequence;
+        // true si el alta pudo insertarse en un intento anterior y debe buscarse por su llave antes de insertarla.
+        private boolean may_exist;
+
+        PendingWrite(byte operation, byte table, int id, String[] fields) {
+            this.operation = operation;
+            this.table = table;
+            this.id = id;
+            this.fields = fields;
+        }
+
+        boolean isSameKind(PendingWrite other) {
+            return operation == other.operation && table == other.table;
+        }
+    }
+}
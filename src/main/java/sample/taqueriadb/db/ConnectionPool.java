@@ -0,0 +1,380 @@
+package sample.taqueriadb.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones a la base de datos, seguro para usarse desde varios hilos.
+ * Las conexiones se prestan con borrow() y regresan al pool al llamar a close() sobre ellas.
+ *
+ * Soporta tamaño mínimo y máximo, expulsión de conexiones inactivas, validación al prestar, tiempo límite de espera
+ * y detección de conexiones que no fueron devueltas (fugas).
+ */
+public class ConnectionPool {
+    private final String jdbc_url;
+    private final String user;
+    private final String password;
+    private final ConnectionPoolConfig config;
+
+    // Conexiones disponibles. La más reciente se presta primero para que las antiguas puedan expirar.
+    private final LinkedBlockingDeque<PooledConnection> idle_connections = new LinkedBlockingDeque<>();
+    // Conexiones prestadas, indexadas por el proxy que recibe el código cliente.
+    private final Map<Connection, PooledConnection> active_connections = new ConcurrentHashMap<>();
+    // Limita el número total de conexiones prestadas al mismo tiempo.
+    private final Semaphore permits;
+    // Tarea periódica de mantenimiento (expulsión, tamaño mínimo y fugas).
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicInteger total_connections = new AtomicInteger();
+    private final AtomicInteger waiting_threads = new AtomicInteger();
+    private final AtomicLong borrow_count = new AtomicLong();
+    private final AtomicLong total_wait_nanos = new AtomicLong();
+    private final AtomicLong max_wait_nanos = new AtomicLong();
+    private final AtomicLong timeout_count = new AtomicLong();
+    private final AtomicLong leak_count = new AtomicLong();
+    private final AtomicLong created_count = new AtomicLong();
+    private final AtomicLong destroyed_count = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String jdbc_url, String user, String password, ConnectionPoolConfig config) {
+        this.jdbc_url = jdbc_url;
+        this.user = user;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = config.getHousekeepingIntervalMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+
+        // Abre las conexiones mínimas por adelantado.
+        fillToMinimum();
+    }
+
+    /**
+     * Presta una conexión del pool. Si no hay conexiones disponibles y el pool está lleno, espera hasta el tiempo
+     * límite configurado.
+     *
+     * @return una conexión que debe cerrarse (close) para regresar al pool.
+     * @throws SQLTimeoutException si no se obtuvo una conexión dentro del tiempo límite.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("El pool de conexiones está cerrado.");
+
+        long start = System.nanoTime();
+
+        waiting_threads.incrementAndGet();
+
+        try {
+            if (!permits.tryAcquire(config.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeout_count.incrementAndGet();
+
+                throw new SQLTimeoutException(String.format(
+                    "No se obtuvo una conexión en %d ms (activas: %d, máximo: %d).",
+                    config.getBorrowTimeoutMillis(), active_connections.size(), config.getMaxSize()
+                ));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new SQLException("Interrumpido mientras se esperaba una conexión.", e);
+        } finally {
+            waiting_threads.decrementAndGet();
+        }
+
+        try {
+            PooledConnection pooled = takeValidConnection();
+
+            recordWait(System.nanoTime() - start);
+
+            Connection proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, new ConnectionHandle(pooled)
+            );
+
+            pooled.borrowed_at = System.nanoTime();
+            pooled.borrow_trace = config.getLeakDetectionThresholdMillis() > 0
+                ? new Throwable("Conexión prestada aquí")
+                : null;
+            pooled.leak_reported = false;
+
+            active_connections.put(proxy, pooled);
+
+            return proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene una conexión inactiva válida o abre una nueva. Las conexiones que no pasan la validación se descartan.
+     */
+    private PooledConnection takeValidConnection() throws SQLException {
+        PooledConnection pooled;
+
+        while ((pooled = idle_connections.pollFirst()) != null) {
+            if (isValid(pooled)) return pooled;
+
+            destroy(pooled);
+        }
+
+        return create();
+    }
+
+    /**
+     * Obtiene la caché de sentencias de la conexión física detrás de una conexión prestada.
+     *
+     * @param connection Conexión obtenida con borrow() y que aún no ha sido devuelta.
+     * @return la caché de sentencias de la conexión.
+     */
+    public StatementCache getStatementCache(Connection connection) throws SQLException {
+        PooledConnection pooled = active_connections.get(connection);
+
+        if (pooled == null) throw new SQLException("La conexión no pertenece al pool o ya fue devuelta.");
+
+        return pooled.statement_cache;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return !pooled.physical.isClosed() && pooled.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(jdbc_url, user, password);
+
+        total_connections.incrementAndGet();
+        created_count.incrementAndGet();
+
+        return new PooledConnection(physical, config.getStatementCacheSize());
+    }
+
+    private void destroy(PooledConnection pooled) {
+        total_connections.decrementAndGet();
+        destroyed_count.incrementAndGet();
+
+        try {
+            pooled.statement_cache.clear();
+            pooled.physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Regresa una conexión al pool. Deshace las transacciones pendientes y restablece el auto-commit para que el
+     * siguiente usuario reciba la conexión en un estado limpio.
+     */
+    private void release(PooledConnection pooled, Connection proxy) {
+        if (active_connections.remove(proxy) == null) return;
+
+        try {
+            boolean reusable = !closed && !pooled.physical.isClosed();
+
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+
+            if (reusable) {
+                pooled.last_used = System.nanoTime();
+                idle_connections.offerFirst(pooled);
+            } else {
+                destroy(pooled);
+            }
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void recordWait(long wait_nanos) {
+        borrow_count.incrementAndGet();
+        total_wait_nanos.addAndGet(wait_nanos);
+        max_wait_nanos.accumulateAndGet(wait_nanos, Math::max);
+    }
+
+    /**
+     * Mantenimiento periódico: expulsa las conexiones inactivas por más tiempo del permitido, repone el tamaño mínimo
+     * y reporta las conexiones prestadas por más tiempo del umbral de fuga.
+     */
+    private void housekeep() {
+        try {
+            evictIdleConnections();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void evictIdleConnections() {
+        long idle_timeout = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+        long now = System.nanoTime();
+
+        // Recorre desde las conexiones más antiguas (final de la cola).
+        Iterator<PooledConnection> iterator = idle_connections.descendingIterator();
+
+        while (iterator.hasNext() && total_connections.get() > config.getMinSize()) {
+            PooledConnection pooled = iterator.next();
+
+            if (now - pooled.last_used > idle_timeout && idle_connections.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && total_connections.get() < config.getMinSize()) {
+            try {
+                idle_connections.offerLast(create());
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakDetectionThresholdMillis();
+
+        if (threshold <= 0) return;
+
+        long now = System.nanoTime();
+
+        for (PooledConnection pooled : active_connections.values()) {
+            long borrowed_millis = TimeUnit.NANOSECONDS.toMillis(now - pooled.borrowed_at);
+
+            if (borrowed_millis > threshold && !pooled.leak_reported) {
+                pooled.leak_reported = true;
+                leak_count.incrementAndGet();
+
+                System.err.println("Posible fuga de conexión: prestada hace " + borrowed_millis + " ms.");
+
+                if (pooled.borrow_trace != null) pooled.borrow_trace.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return una instantánea con las estadísticas actuales del pool.
+     */
+    public PoolStats getStats() {
+        return new PoolStats(
+            active_connections.size(),
+            idle_connections.size(),
+            total_connections.get(),
+            waiting_threads.get(),
+            borrow_count.get(),
+            total_wait_nanos.get(),
+            max_wait_nanos.get(),
+            timeout_count.get(),
+            leak_count.get(),
+            created_count.get(),
+            destroyed_count.get()
+        );
+    }
+
+    /**
+     * Cierra el pool. Las conexiones inactivas se cierran de inmediato y las prestadas al ser devueltas.
+     */
+    public void close() {
+        closed = true;
+
+        housekeeper.shutdownNow();
+
+        PooledConnection pooled;
+
+        while ((pooled = idle_connections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    /**
+     * Envuelve una conexión física junto con su información de préstamo.
+     */
+    private static final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statement_cache;
+
+        private volatile long last_used = System.nanoTime();
+        private volatile long borrowed_at;
+        private volatile Throwable borrow_trace;
+        private volatile boolean leak_reported;
+
+        PooledConnection(Connection physical, int statement_cache_size) {
+            this.physical = physical;
+            this.statement_cache = new StatementCache(physical, statement_cache_size);
+        }
+    }
+
+    /**
+     * Intercepta las llamadas al proxy de un préstamo. close() regresa la conexión al pool en lugar de cerrarla, y
+     * cualquier uso posterior del mismo proxy falla aunque la conexión física ya se haya prestado a otro hilo.
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private volatile boolean returned;
+
+        ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled, (Connection) proxy);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+
+            if (returned) throw new SQLException("La conexión ya fue devuelta al pool.");
+
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package sample.taqueriadb.db;
+
+import java.util.Properties;
+
+/**
+ * Parámetros de configuración del pool de conexiones. Se leen desde db.properties; las claves que no existan toman
+ * su valor por defecto.
+ */
+public class ConnectionPoolConfig {
+    private final int min_size;
+    private final int max_size;
+    private final long idle_timeout_millis;
+    private final long borrow_timeout_millis;
+    private final long leak_detection_threshold_millis;
+    private final long housekeeping_interval_millis;
+    private final int validation_timeout_seconds;
+    private final int statement_cache_size;
+
+    public ConnectionPoolConfig(
+        int min_size,
+        int max_size,
+        long idle_timeout_millis,
+        long borrow_timeout_millis,
+        long leak_detection_threshold_millis,
+        long housekeeping_interval_millis,
+        int validation_timeout_seconds,
+        int statement_cache_size
+    ) {
+        if (max_size < 1) throw new IllegalArgumentException("POOL_MAX_SIZE debe ser mayor a 0.");
+        if (min_size < 0 || min_size > max_size) {
+            throw new IllegalArgumentException("POOL_MIN_SIZE debe estar entre 0 y POOL_MAX_SIZE.");
+        }
+
+        this.min_size = min_size;
+        this.max_size = max_size;
+        this.idle_timeout_millis = idle_timeout_millis;
+        this.borrow_timeout_millis = borrow_timeout_millis;
+        this.leak_detection_threshold_millis = leak_detection_threshold_millis;
+        this.housekeeping_interval_millis = housekeeping_interval_millis;
+        this.validation_timeout_seconds = validation_timeout_seconds;
+        this.statement_cache_size = statement_cache_size;
+    }
+
+    /**
+     * Crea la configuración a partir de las propiedades de conexión.
+     *
+     * @param properties Propiedades cargadas desde db.properties.
+     * @return la configuración del pool.
+     */
+    public static ConnectionPoolConfig fromProperties(Properties properties) {
+        return new ConnectionPoolConfig(
+            Integer.parseInt(properties.getProperty("POOL_MIN_SIZE", "1")),
+            Integer.parseInt(properties.getProperty("POOL_MAX_SIZE", "8")),
+            Long.parseLong(properties.getProperty("POOL_IDLE_TIMEOUT_MS", "300000")),
+            Long.parseLong(properties.getProperty("POOL_BORROW_TIMEOUT_MS", "5000")),
+            Long.parseLong(properties.getProperty("POOL_LEAK_THRESHOLD_MS", "30000")),
+            Long.parseLong(properties.getProperty("POOL_HOUSEKEEPING_MS", "10000")),
+            Integer.parseInt(properties.getProperty("POOL_VALIDATION_TIMEOUT_S", "2")),
+            Integer.parseInt(properties.getProperty("STATEMENT_CACHE_SIZE", "32"))
+        );
+    }
+
+    public int getMinSize() {
+        return min_size;
+    }
+
+    public int getMaxSize() {
+        return max_size;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idle_timeout_millis;
+    }
+
+    public long getBorrowTimeoutMillis() {
+        return borrow_timeout_millis;
+    }
+
+    /**
+     * @return el tiempo tras el cual una conexión prestada se reporta como posible fuga. 0 desactiva la detección.
+     */
+    public long getLeakDetectionThresholdMillis() {
+        return leak_detection_threshold_millis;
+    }
+
+    public long getHousekeepingIntervalMillis() {
+        return housekeeping_interval_millis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validation_timeout_seconds;
+    }
+
+    // Número máximo de PreparedStatement en caché por conexión.
+    public int getStatementCacheSize() {
+        return statement_cache_size;
+    }
+}
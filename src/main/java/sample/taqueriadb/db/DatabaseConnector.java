@@ -2,71 +2,416 @@ package sample.taqueriadb.db;
 
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Proporciona una utilidad para conectarse a la base de datos.
+ * Las conexiones se obtienen de un pool compartido; cada conexión obtenida con getConnection() debe cerrarse para
+ * regresar al pool.
+ *
+ * La configuración se lee de src/main/resources/db.properties si existe (al ejecutar desde el proyecto) o, si no,
+ * de db.properties en el classpath (imagen jlink o jar).
  */
 public class DatabaseConnector {
     // Variables de entorno para la conexión a la base de datos.
     private static final Properties properties = new Properties();
-    // Almacena la conexión a la base de datos.
-    private static Connection connection;
+    private static final String properties_file = "src/main/resources/db.properties";
+    private static boolean properties_loaded;
+    // Pool de conexiones a la base de datos.
+    private static volatile ConnectionPool pool;
+    // Creación del pool en segundo plano, o null si no se inició con createConnectionAsync().
+    private static volatile CompletableFuture<Void> connecting;
 
-    private static void loadProperties() {
-        try {
-            properties.load(new FileReader("src/main/resources/db.properties"));
+    /**
+     * Lee la configuración de db.properties, si aún no se ha leído. createConnection() la lee si hace falta; se llama
+     * por separado cuando la configuración se necesita antes de crear el pool.
+     */
+    public static synchronized void loadProperties() {
+        if (properties_loaded) return;
+
+        properties_loaded = true;
+
+        try (Reader reader = openProperties()) {
+            if (reader == null) {
+                System.out.println("No se encontró db.properties.");
+                return;
+            }
+
+            properties.load(reader);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    // Crea la conexión a la base de datos.
-    public static void createConnection() {
-        // Verifica si la conexión ya existe.
-        if (connection != null) return;
+    private static Reader openProperties() throws IOException {
+        if (Files.isRegularFile(Paths.get(properties_file))) return new FileReader(properties_file);
+
+        InputStream resource = DatabaseConnector.class.getResourceAsStream("/db.properties");
+
+        return resource == null ? null : new InputStreamReader(resource, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Crea el pool de conexiones a la base de datos y aplica las migraciones pendientes.
+     *
+     * @throws IllegalStateException si una migración falló. El pool no se crea.
+     */
+    public static synchronized void createConnection() {
+        // Verifica si el pool ya existe.
+        if (pool != null) return;
 
         // Carga las credenciales de la base de datos.
         loadProperties();
 
-        try {
-            connection = DriverManager.getConnection(
-                properties.getProperty("JDBC_URL"),
-                properties.getProperty("USER"),
-                properties.getProperty("PASSWORD")
-            );
+        createPool();
+    }
 
-            System.out.println("Conexión exitosa.");
-        } catch (SQLException e) {
-            e.printStackTrace();
+    /**
+     * Crea el pool de conexiones en un hilo aparte, para que la interfaz se construya mientras tanto. Mientras se
+     * crea, getConnection() espera a que termine en lugar de fallar.
+     *
+     * @return se completa cuando el pool está listo y las migraciones se aplicaron, o de forma excepcional si una
+     * migración falló; en ese caso getConnection() lanza una SQLException con la causa.
+     */
+    public static synchronized CompletableFuture<Void> createConnectionAsync() {
+        if (connecting == null) {
+            connecting = CompletableFuture.runAsync(DatabaseConnector::createConnection, runnable -> {
+                Thread thread = new Thread(runnable, "database-connect");
+                thread.setDaemon(true);
+                thread.start();
+            });
+        }
+
+        return connecting;
+    }
+
+    /**
+     * Crea el pool de conexiones con propiedades dadas en lugar de leer db.properties. Se usa al ejecutar la capa
+     * de datos fuera de la aplicación, por ejemplo en benchmarks o contra una base de datos embebida.
+     *
+     * @param custom_properties Propiedades con las mismas claves que db.properties.
+     */
+    public static synchronized void createConnection(Properties custom_properties) {
+        if (pool != null) return;
+
+        properties.putAll(custom_properties);
+
+        createPool();
+    }
+
+    private static void createPool() {
+        ConnectionPool new_pool = new ConnectionPool(
+            withCursorFetch(properties.getProperty("JDBC_URL")),
+            properties.getProperty("USER"),
+            properties.getProperty("PASSWORD"),
+            ConnectionPoolConfig.fromProperties(properties)
+        );
+
+        System.out.println("Pool de conexiones creado.");
+
+        // El pool se publica después de las migraciones, para que ninguna consulta vea el esquema a medias. Si una
+        // migración falla, el pool no se publica y las consultas fallan en lugar de usar ese esquema.
+        if (isMigrationsEnabled()) {
+            try (Connection connection = new_pool.borrow()) {
+                SchemaMigrator.migrate(connection);
+            } catch (SQLException e) {
+                new_pool.close();
+                throw new IllegalStateException("No se pudieron aplicar las migraciones del esquema.", e);
+            } catch (RuntimeException e) {
+                new_pool.close();
+                throw e;
+            }
+        }
+
+        pool = new_pool;
+    }
+
+    /**
+     * Connector/J ignora un FETCH_SIZE positivo y lee el resultado completo en memoria antes de devolver la primera
+     * fila, a menos que la URL tenga useCursorFetch=true. Con esa opción, las consultas con FETCH_SIZE (queryStream)
+     * se leen del servidor por bloques y cerrarlas antes de terminar no obliga a descargar el resto.
+     *
+     * @return la URL con useCursorFetch=true si es de MySQL y no indica la opción; cualquier otra, sin cambios.
+     */
+    static String withCursorFetch(String jdbc_url) {
+        if (jdbc_url == null || !jdbc_url.startsWith("jdbc:mysql:") || jdbc_url.contains("useCursorFetch=")) {
+            return jdbc_url;
         }
+
+        return jdbc_url + (jdbc_url.indexOf('?') < 0 ? "?" : "&") + "useCursorFetch=true";
     }
 
     /**
-     * Se utiliza para obtener la conexión a la base de datos desde cualquier lugar.
+     * Se utiliza para obtener una conexión a la base de datos desde cualquier lugar.
+     * La conexión debe cerrarse al terminar de usarse (de preferencia con try-with-resources) para devolverla al pool.
      *
-     * @return la conexión a la base de datos.
+     * @return una conexión prestada por el pool.
+     * @throws SQLException si el pool no ha sido creado o no hay conexiones disponibles a tiempo.
      */
-    public static Connection getConnection() {
-        return connection;
-    };
+    public static Connection getConnection() throws SQLException {
+        awaitConnection();
+
+        if (pool == null) throw new SQLException("No se ha creado la conexión a la base de datos.");
+
+        return pool.borrow();
+    }
+
+    // Espera a que termine la creación del pool iniciada con createConnectionAsync(), si está en curso.
+    private static void awaitConnection() throws SQLException {
+        CompletableFuture<Void> pending = connecting;
 
-    // Cierra la conexión actual a la base de datos.
-    public static void closeConnection() {
-        if (connection == null) return;
+        if (pool != null || pending == null) return;
 
         try {
-            connection.close();
-        } catch (SQLException e) {
-            e.printStackTrace();
+            pending.join();
+        } catch (CompletionException e) {
+            throw new SQLException("No se pudo crear la conexión a la base de datos.", e.getCause());
         }
     }
 
+    /**
+     * @return el número de filas por lote en las operaciones masivas (BATCH_SIZE en db.properties). Con MySQL,
+     * agregar rewriteBatchedStatements=true a JDBC_URL hace que cada lote se envíe como un solo INSERT, lo que acelera
+     * mucho las importaciones.
+     */
+    public static int getBatchSize() {
+        return Integer.parseInt(properties.getProperty("BATCH_SIZE", "500"));
+    }
+
+    /**
+     * @return el número de filas que el driver solicita al servidor por cada viaje al leer un resultado que se
+     * recorre con queryStream (FETCH_SIZE en db.properties). Con MySQL requiere useCursorFetch=true en la URL, que se
+     * agrega al crear el pool.
+     */
+    public static int getFetchSize() {
+        return Integer.parseInt(properties.getProperty("FETCH_SIZE", "100"));
+    }
+
+    /**
+     * @return el número de filas por página en las listas (PAGE_SIZE en db.properties).
+     */
+    public static int getPageSize() {
+        return Integer.parseInt(properties.getProperty("PAGE_SIZE", "100"));
+    }
+
+    /**
+     * @return el número máximo de páginas que una lista mantiene en memoria (MAX_LOADED_PAGES en db.properties).
+     * Se requieren al menos tres para que al descartar una página la posición visible no provoque otra carga.
+     */
+    public static int getMaxLoadedPages() {
+        return Math.max(3, Integer.parseInt(properties.getProperty("MAX_LOADED_PAGES", "5")));
+    }
+
+    /**
+     * @return el número de tareas de base de datos que se ejecutan a la vez (DB_EXECUTOR_THREADS en db.properties).
+     * Por defecto es igual al tamaño máximo del pool, ya que más tareas solo esperarían una conexión.
+     */
+    public static int getExecutorThreads() {
+        return Integer.parseInt(
+            properties.getProperty("DB_EXECUTOR_THREADS", properties.getProperty("POOL_MAX_SIZE", "8"))
+        );
+    }
+
+    /**
+     * @return el número máximo de tareas de base de datos en espera (DB_EXECUTOR_QUEUE en db.properties).
+     */
+    public static int getExecutorQueueSize() {
+        return Integer.parseInt(properties.getProperty("DB_EXECUTOR_QUEUE", "1000"));
+    }
+
+    /**
+     * @return el número máximo de entidades por tabla en la caché de los DAO (CACHE_MAX_SIZE en db.properties).
+     */
+    public static int getCacheMaxSize() {
+        return Integer.parseInt(properties.getProperty("CACHE_MAX_SIZE", "10000"));
+    }
+
+    /**
+     * @return el tiempo de vida de las entidades en la caché de los DAO, en milisegundos (CACHE_TTL_MS en
+     * db.properties).
+     */
+    public static long getCacheTtlMillis() {
+        return Long.parseLong(properties.getProperty("CACHE_TTL_MS", "300000"));
+    }
+
+    /**
+     * @return el archivo donde se escriben las métricas de las consultas al cerrar la aplicación
+     * (METRICS_DUMP_FILE en db.properties), o null si no se configuró.
+     */
+    public static String getMetricsDumpFile() {
+        return properties.getProperty("METRICS_DUMP_FILE");
+    }
+
+    /**
+     * @return cada cuántos milisegundos las listas consultan los cambios hechos desde otras terminales
+     * (SYNC_INTERVAL_MS en db.properties). 0 desactiva la sincronización.
+     */
+    public static long getSyncIntervalMillis() {
+        return Long.parseLong(properties.getProperty("SYNC_INTERVAL_MS", "2000"));
+    }
+
+    /**
+     * @return cuánto tiempo se conservan las marcas de las filas eliminadas, en milisegundos
+     * (DELETED_ROW_RETENTION_HOURS en db.properties). 0 las conserva siempre. Una terminal que pasa más tiempo sin
+     * sincronizarse vuelve a cargar sus listas completas.
+     */
+    public static long getDeletedRowRetentionMillis() {
+        return TimeUnit.HOURS.toMillis(Long.parseLong(properties.getProperty("DELETED_ROW_RETENTION_HOURS", "168")));
+    }
+
+    /**
+     * @return true si los formularios guardan en el diario local y la base de datos se actualiza en segundo plano
+     * (WRITE_BEHIND en db.properties).
+     */
+    public static boolean isWriteBehindEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("WRITE_BEHIND", "false"));
+    }
+
+    /**
+     * @return el archivo del diario de escrituras diferidas (WRITE_BEHIND_FILE en db.properties).
+     */
+    public static String getWriteBehindFile() {
+        return properties.getProperty("WRITE_BEHIND_FILE", "write-behind.journal");
+    }
+
+    /**
+     * @return el archivo donde se guardan las escrituras diferidas que la base de datos rechazó, una por línea en
+     * formato JSON (WRITE_BEHIND_REJECTED_FILE en db.properties).
+     */
+    public static String getWriteBehindRejectedFile() {
+        return properties.getProperty("WRITE_BEHIND_REJECTED_FILE", "write-behind.rechazadas.jsonl");
+    }
+
+    /**
+     * @return el tamaño del diario de escrituras diferidas en bytes (WRITE_BEHIND_JOURNAL_MB en db.properties).
+     */
+    public static int getWriteBehindJournalBytes() {
+        return Integer.parseInt(properties.getProperty("WRITE_BEHIND_JOURNAL_MB", "16")) * 1024 * 1024;
+    }
+
+    /**
+     * @return el archivo donde una lista guarda la copia local de sus filas, dentro de SNAPSHOT_DIR (db.properties),
+     * o null si SNAPSHOT_DIR está vacío.
+     *
+     * @param name Nombre de la lista.
+     */
+    public static Path getSnapshotFile(String name) {
+        String directory = properties.getProperty("SNAPSHOT_DIR", "snapshots");
+
+        return directory.isBlank() ? null : Paths.get(directory, name + ".snapshot");
+    }
+
+    /**
+     * @return la URL de la base de datos (JDBC_URL en db.properties).
+     */
+    public static String getJdbcUrl() {
+        return properties.getProperty("JDBC_URL");
+    }
+
+    /**
+     * @return la dirección en la que escucha la API HTTP (API_HOST en db.properties). Por omisión solo acepta
+     * conexiones del mismo equipo; para escuchar en la red (por ejemplo 0.0.0.0) también se requiere API_TOKEN.
+     */
+    public static String getApiHost() {
+        return properties.getProperty("API_HOST", "127.0.0.1");
+    }
+
+    /**
+     * @return el puerto de la API HTTP (API_PORT en db.properties).
+     */
+    public static int getApiPort() {
+        return Integer.parseInt(properties.getProperty("API_PORT", "8080"));
+    }
+
+    /**
+     * @return el número máximo de peticiones que la API HTTP atiende a la vez (API_MAX_IN_FLIGHT en db.properties).
+     * Las demás se responden de inmediato con 503.
+     */
+    public static int getApiMaxInFlight() {
+        return Integer.parseInt(properties.getProperty("API_MAX_IN_FLIGHT", "256"));
+    }
+
+    /**
+     * @return el token que deben enviar los clientes de la API HTTP en el encabezado Authorization (API_TOKEN en
+     * db.properties), o null si no se requiere.
+     */
+    public static String getApiToken() {
+        String token = properties.getProperty("API_TOKEN", "");
+
+        return token.isBlank() ? null : token;
+    }
+
+    /**
+     * @return true si al crear el pool se aplican las migraciones pendientes del esquema (MIGRATIONS_ENABLED en
+     * db.properties).
+     */
+    public static boolean isMigrationsEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("MIGRATIONS_ENABLED", "true"));
+    }
+
+    /**
+     * Prepara una sentencia SQL reutilizando la caché de sentencias de la conexión.
+     * La sentencia devuelta pertenece a la caché y no debe cerrarse; basta con cerrar sus ResultSet.
+     *
+     * @param connection Conexión obtenida con getConnection().
+     * @param sql Sentencia SQL con parámetros (?).
+     * @return la sentencia preparada.
+     */
+    public static PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+        awaitConnection();
+
+        if (pool == null) throw new SQLException("No se ha creado la conexión a la base de datos.");
+
+        return pool.getStatementCache(connection).prepare(sql);
+    }
+
+    /**
+     * Prepara una sentencia INSERT que devuelve las llaves generadas, reutilizando la caché de sentencias.
+     * La sentencia devuelta pertenece a la caché y no debe cerrarse; basta con cerrar sus ResultSet.
+     *
+     * @param connection Conexión obtenida con getConnection().
+     * @param sql Sentencia SQL con parámetros (?).
+     * @return la sentencia preparada.
+     */
+    public static PreparedStatement prepareInsert(Connection connection, String sql) throws SQLException {
+        awaitConnection();
+
+        if (pool == null) throw new SQLException("No se ha creado la conexión a la base de datos.");
+
+        return pool.getStatementCache(connection).prepare(sql, true);
+    }
+
+    /**
+     * @return las estadísticas actuales del pool de conexiones, o null si aún no se ha creado.
+     */
+    public static PoolStats getPoolStats() {
+        return pool == null ? null : pool.getStats();
+    }
+
+    // Cierra el pool de conexiones a la base de datos.
+    public static synchronized void closeConnection() {
+        if (pool == null) return;
+
+        pool.close();
+        pool = null;
+        connecting = null;
+    }
+
     /**
      * Se utiliza para cerrar un Statement dado.
      *
@@ -0,0 +1,186 @@
+package sample.taqueriadb.db;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ejecutor dedicado para todo el trabajo JDBC de la aplicación, de modo que ninguna consulta se ejecute en el hilo
+ * de JavaFX ni compita con el ForkJoinPool común.
+ *
+ * En JDK 21 o superior cada tarea corre en un hilo virtual y un semáforo limita cuántas se ejecutan a la vez; en
+ * versiones anteriores se usa un pool fijo de hilos. En ambos casos la cola de espera está acotada y las tareas que
+ * no caben se rechazan.
+ *
+ * Los resultados se entregan como CompletableFuture; el código de interfaz debe aplicarlos con Platform.runLater.
+ */
+public class DatabaseExecutor {
+    private static final int max_concurrency = DatabaseConnector.getExecutorThreads();
+    private static final int max_queued = DatabaseConnector.getExecutorQueueSize();
+
+    // Limita las tareas en ejecución al usar hilos virtuales.
+    private static final Semaphore running_permits = new Semaphore(max_concurrency);
+    private static final boolean virtual_threads;
+    private static final ExecutorService executor;
+
+    private static final AtomicInteger queued = new AtomicInteger();
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicLong completed_count = new AtomicLong();
+    private static final AtomicLong failed_count = new AtomicLong();
+    private static final AtomicLong rejected_count = new AtomicLong();
+    private static final AtomicLong total_queue_nanos = new AtomicLong();
+    private static final AtomicLong max_queue_nanos = new AtomicLong();
+    private static final AtomicLong total_run_nanos = new AtomicLong();
+    private static final AtomicLong max_run_nanos = new AtomicLong();
+
+    static {
+        ExecutorService virtual_executor = createVirtualThreadExecutor();
+
+        virtual_threads = virtual_executor != null;
+        executor = virtual_threads ? virtual_executor : createPlatformThreadExecutor();
+    }
+
+    /**
+     * Crea un ejecutor de hilos virtuales si la JVM lo soporta (JDK 21+). Se obtiene por reflexión porque el
+     * proyecto compila para Java 11. También lo usa la API HTTP para atender cada petición en su propio hilo.
+     *
+     * @return el ejecutor, o null si la JVM no tiene hilos virtuales.
+     */
+    public static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService createPlatformThreadExecutor() {
+        AtomicInteger thread_number = new AtomicInteger();
+
+        return new ThreadPoolExecutor(
+            max_concurrency,
+            max_concurrency,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "db-worker-" + thread_number.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+    }
+
+    /**
+     * Ejecuta una tarea de base de datos en el ejecutor dedicado.
+     *
+     * @param task Tarea a ejecutar, normalmente una llamada a un DAO.
+     * @return un CompletableFuture con el resultado de la tarea. Si la tarea lanza SQLException o es rechazada por
+     * estar llena la cola, el futuro termina con esa excepción.
+     */
+    public static <R> CompletableFuture<R> supplyAsync(SQLSupplier<R> task) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+
+        // La cola se reserva antes de enviar la tarea para que el límite sea exacto entre hilos.
+        if (queued.incrementAndGet() > max_queued) {
+            queued.decrementAndGet();
+            rejected_count.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException(
+                "La cola de tareas de base de datos está llena (" + max_queued + ")."
+            ));
+
+            return future;
+        }
+
+        long submitted_at = System.nanoTime();
+
+        try {
+            executor.execute(() -> run(task, future, submitted_at));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected_count.incrementAndGet();
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    private static <R> void run(SQLSupplier<R> task, CompletableFuture<R> future, long submitted_at) {
+        boolean acquired = false;
+
+        try {
+            if (virtual_threads) {
+                running_permits.acquire();
+                acquired = true;
+            }
+
+            long started_at = System.nanoTime();
+
+            queued.decrementAndGet();
+            running.incrementAndGet();
+            record(total_queue_nanos, max_queue_nanos, started_at - submitted_at);
+
+            R result = null;
+            Throwable error = null;
+
+            try {
+                result = task.get();
+                completed_count.incrementAndGet();
+            } catch (Exception e) {
+                failed_count.incrementAndGet();
+                error = e instanceof CompletionException ? e.getCause() : e;
+            }
+
+            // Las métricas se actualizan antes de completar el futuro para que reflejen la tarea terminada.
+            running.decrementAndGet();
+            record(total_run_nanos, max_run_nanos, System.nanoTime() - started_at);
+
+            if (error == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(error);
+            }
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        } finally {
+            if (acquired) running_permits.release();
+        }
+    }
+
+    private static void record(AtomicLong total, AtomicLong max, long nanos) {
+        total.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return una instantánea de las métricas del ejecutor.
+     */
+    public static ExecutorStats getStats() {
+        return new ExecutorStats(
+            virtual_threads,
+            max_concurrency,
+            queued.get(),
+            running.get(),
+            completed_count.get(),
+            failed_count.get(),
+            rejected_count.get(),
+            total_queue_nanos.get(),
+            max_queue_nanos.get(),
+            total_run_nanos.get(),
+            max_run_nanos.get()
+        );
+    }
+}
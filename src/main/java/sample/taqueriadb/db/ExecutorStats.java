@@ -0,0 +1,123 @@
+package sample.taqueriadb.db;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instantánea de las métricas del ejecutor de base de datos: profundidad de la cola y latencia de las tareas.
+ */
+public class ExecutorStats {
+    private final boolean virtual_threads;
+    private final int max_concurrency;
+    private final int queue_depth;
+    private final int running;
+    private final long completed_count;
+    private final long failed_count;
+    private final long rejected_count;
+    private final long total_queue_nanos;
+    private final long max_queue_nanos;
+    private final long total_run_nanos;
+    private final long max_run_nanos;
+
+    public ExecutorStats(
+        boolean virtual_threads,
+        int max_concurrency,
+        int queue_depth,
+        int running,
+        long completed_count,
+        long failed_count,
+        long rejected_count,
+        long total_queue_nanos,
+        long max_queue_nanos,
+        long total_run_nanos,
+        long max_run_nanos
+    ) {
+        this.virtual_threads = virtual_threads;
+        this.max_concurrency = max_concurrency;
+        this.queue_depth = queue_depth;
+        this.running = running;
+        this.completed_count = completed_count;
+        this.failed_count = failed_count;
+        this.rejected_count = rejected_count;
+        this.total_queue_nanos = total_queue_nanos;
+        this.max_queue_nanos = max_queue_nanos;
+        this.total_run_nanos = total_run_nanos;
+        this.max_run_nanos = max_run_nanos;
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtual_threads;
+    }
+
+    public int getMaxConcurrency() {
+        return max_concurrency;
+    }
+
+    // Tareas enviadas que aún no empiezan a ejecutarse.
+    public int getQueueDepth() {
+        return queue_depth;
+    }
+
+    // Tareas ejecutándose en este momento.
+    public int getRunning() {
+        return running;
+    }
+
+    public long getCompletedCount() {
+        return completed_count;
+    }
+
+    public long getFailedCount() {
+        return failed_count;
+    }
+
+    public long getRejectedCount() {
+        return rejected_count;
+    }
+
+    private long getFinishedCount() {
+        return completed_count + failed_count;
+    }
+
+    /**
+     * @return el tiempo promedio que una tarea espera en la cola, en milisegundos.
+     */
+    public double getAverageQueueMillis() {
+        return average(total_queue_nanos);
+    }
+
+    public double getMaxQueueMillis() {
+        return max_queue_nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return el tiempo promedio de ejecución de una tarea, en milisegundos.
+     */
+    public double getAverageRunMillis() {
+        return average(total_run_nanos);
+    }
+
+    public double getMaxRunMillis() {
+        return max_run_nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private double average(long total_nanos) {
+        if (getFinishedCount() == 0) return 0;
+
+        return total_nanos / (double) getFinishedCount() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorStats{" +
+                "virtualThreads=" + virtual_threads +
+                ", maxConcurrency=" + max_concurrency +
+                ", queueDepth=" + queue_depth +
+                ", running=" + running +
+                ", completed=" + completed_count +
+                ", failed=" + failed_count +
+                ", rejected=" + rejected_count +
+                ", avgQueueMs=" + String.format("%.3f", getAverageQueueMillis()) +
+                ", avgRunMs=" + String.format("%.3f", getAverageRunMillis()) +
+                '}';
+    }
+}
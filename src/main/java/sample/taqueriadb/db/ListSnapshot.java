@@ -0,0 +1,176 @@
+package sample.taqueriadb.db;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Copia local de las filas que muestra una lista al abrirse, guardada en un archivo binario junto con la versión de
+ * cambio hasta la que estaba al día. Al iniciar, la lista la muestra de inmediato y después aplica solo los cambios
+ * posteriores a esa versión, sin esperar la consulta de la primera página.
+ *
+ * Formato: marca, formato, versión, indicador de más filas, CRC32 del contenido y el contenido: origen (JDBC_URL),
+ * número de filas y cada fila (número de campos y cada campo en UTF-8). Un archivo de otra base de datos, incompleto
+ * o con CRC incorrecto se ignora.
+ */
+public class ListSnapshot {
+    private static final int magic = 0x54515331; // "TQS1"
+    private static final int format = 1;
+
+    private final long version;
+    private final boolean has_more;
+    private final List<String[]> rows;
+
+    /**
+     * @param version Versión de cambio hasta la que las filas están al día.
+     * @param has_more Indica si en la tabla hay más filas después de las guardadas.
+     * @param rows Campos de cada fila, en el orden de la lista.
+     */
+    public ListSnapshot(long version, boolean has_more, List<String[]> rows) {
+        this.version = version;
+        this.has_more = has_more;
+        this.rows = Collections.unmodifiableList(rows);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean hasMore() {
+        return has_more;
+    }
+
+    public List<String[]> getRows() {
+        return rows;
+    }
+
+    /**
+     * Lee la copia guardada en un archivo.
+     *
+     * @param file Archivo de la copia.
+     * @param source Base de datos actual (JDBC_URL). Una copia de otra base de datos se ignora.
+     * @return la copia, o null si no existe o no es válida.
+     */
+    public static ListSnapshot read(Path file, String source) {
+        if (!Files.isRegularFile(file)) return null;
+
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)));
+
+            if (input.readInt() != magic || input.readInt() != format) return null;
+
+            long version = input.readLong();
+            boolean has_more = input.readBoolean();
+            int checksum = input.readInt();
+            byte[] content = input.readAllBytes();
+
+            if (crc(content) != checksum) return null;
+
+            input = new DataInputStream(new ByteArrayInputStream(content));
+
+            if (!Objects.equals(readString(input), source)) return null;
+
+            int row_count = input.readInt();
+            List<String[]> rows = new ArrayList<>(row_count);
+
+            for (int i = 0; i < row_count; i++) {
+                String[] fields = new String[input.readUnsignedByte()];
+
+                for (int j = 0; j < fields.length; j++) {
+                    fields[j] = readString(input);
+                }
+
+                rows.add(fields);
+            }
+
+            return new ListSnapshot(version, has_more, rows);
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            return null;
+        }
+    }
+
+    /**
+     * Guarda la copia en un archivo. Se escribe en un archivo temporal que luego reemplaza al anterior, por lo que
+     * una escritura interrumpida no deja una copia a medias.
+     *
+     * @param file Archivo de la copia.
+     * @param source Base de datos actual (JDBC_URL).
+     */
+    public void write(Path file, String source) throws IOException {
+        ByteArrayOutputStream content_bytes = new ByteArrayOutputStream();
+        DataOutputStream content = new DataOutputStream(content_bytes);
+
+        writeString(content, source);
+        content.writeInt(rows.size());
+
+        for (String[] fields : rows) {
+            content.writeByte(fields.length);
+
+            for (String field : fields) {
+                writeString(content, field);
+            }
+        }
+
+        ByteArrayOutputStream file_bytes = new ByteArrayOutputStream(content_bytes.size() + 21);
+        DataOutputStream output = new DataOutputStream(file_bytes);
+
+        output.writeInt(magic);
+        output.writeInt(format);
+        output.writeLong(version);
+        output.writeBoolean(has_more);
+        output.writeInt(crc(content_bytes.toByteArray()));
+        content_bytes.writeTo(output);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Path temp_file = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            Files.write(temp_file, file_bytes.toByteArray());
+            Files.move(temp_file, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp_file);
+        }
+    }
+
+    // Los campos nulos se guardan con longitud -1.
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+
+        if (length < 0) return null;
+
+        return new String(input.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,117 @@
+package sample.taqueriadb.db;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instantánea de las estadísticas del pool de conexiones. Sirve para dimensionar el pool bajo carga.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int waiting;
+    private final long borrow_count;
+    private final long total_wait_nanos;
+    private final long max_wait_nanos;
+    private final long timeout_count;
+    private final long leak_count;
+    private final long created_count;
+    private final long destroyed_count;
+
+    public PoolStats(
+        int active,
+        int idle,
+        int total,
+        int waiting,
+        long borrow_count,
+        long total_wait_nanos,
+        long max_wait_nanos,
+        long timeout_count,
+        long leak_count,
+        long created_count,
+        long destroyed_count
+    ) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.waiting = waiting;
+        this.borrow_count = borrow_count;
+        this.total_wait_nanos = total_wait_nanos;
+        this.max_wait_nanos = max_wait_nanos;
+        this.timeout_count = timeout_count;
+        this.leak_count = leak_count;
+        this.created_count = created_count;
+        this.destroyed_count = destroyed_count;
+    }
+
+    // Conexiones prestadas en este momento.
+    public int getActive() {
+        return active;
+    }
+
+    // Conexiones abiertas disponibles para prestarse.
+    public int getIdle() {
+        return idle;
+    }
+
+    // Conexiones físicas abiertas (prestadas + disponibles).
+    public int getTotal() {
+        return total;
+    }
+
+    // Hilos esperando una conexión.
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getBorrowCount() {
+        return borrow_count;
+    }
+
+    /**
+     * @return el tiempo promedio de espera para obtener una conexión, en milisegundos.
+     */
+    public double getAverageWaitMillis() {
+        if (borrow_count == 0) return 0;
+
+        return total_wait_nanos / (double) borrow_count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return el mayor tiempo de espera registrado para obtener una conexión, en milisegundos.
+     */
+    public double getMaxWaitMillis() {
+        return max_wait_nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getTimeoutCount() {
+        return timeout_count;
+    }
+
+    public long getLeakCount() {
+        return leak_count;
+    }
+
+    public long getCreatedCount() {
+        return created_count;
+    }
+
+    public long getDestroyedCount() {
+        return destroyed_count;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", total=" + total +
+                ", waiting=" + waiting +
+                ", borrows=" + borrow_count +
+                ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + String.format("%.3f", getMaxWaitMillis()) +
+                ", timeouts=" + timeout_count +
+                ", leaks=" + leak_count +
+                '}';
+    }
+}
@@ -0,0 +1,13 @@
+package sample.taqueriadb.db;
+
+import java.sql.SQLException;
+
+/**
+ * Tarea de base de datos que devuelve un resultado y puede lanzar SQLException.
+ *
+ * @param <R> Tipo del resultado.
+ */
+@FunctionalInterface
+public interface SQLSupplier<R> {
+    R get() throws SQLException;
+}
@@ -0,0 +1,382 @@
+package sample.taqueriadb.db;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Aplica las migraciones del esquema de la base de datos al iniciar la aplicación.
+ *
+ * Cada migración es un script SQL versionado en db/migration (por ejemplo V2__add_search_indexes.sql). Las versiones
+ * aplicadas se registran en la tabla schema_history junto con el checksum del script; un script que cambia después
+ * de aplicarse detiene el inicio, ya que las terminales tendrían esquemas distintos.
+ *
+ * Para agregar una migración, se crea el script con la siguiente versión y se agrega a la lista scripts.
+ *
+ * En MySQL cada sentencia DDL se confirma por sí sola, así que un script que falla a la mitad deja aplicadas sus
+ * primeras sentencias. Para poder ejecutarlo de nuevo, se omiten las sentencias CREATE TABLE, CREATE INDEX y
+ * ALTER TABLE ... ADD COLUMN cuyo objeto ya existe, y los INSERT INTO ... VALUES cuya primera columna es la clave
+ * primaria con un valor literal (por ejemplo la fila inicial de change_sequence) si esa fila ya existe. Cualquier otra
+ * sentencia DML de un script debe poder repetirse por sí misma.
+ */
+public class SchemaMigrator {
+    private static final String script_directory = "/db/migration/";
+    // Scripts en orden de versión. Un script aplicado nunca debe modificarse; los cambios van en uno nuevo.
+    private static final String[] scripts = {
+        "V1__create_tables.sql",
+        "V2__add_search_indexes.sql",
+        "V3__add_change_tracking.sql",
+        "V4__add_deleted_row_retention.sql",
+        "V5__add_write_key.sql",
+    };
+    // Nombre del candado de MySQL que evita que dos terminales migren al mismo tiempo.
+    private static final String lock_name = "taqueriadb_schema_migration";
+    private static final int lock_timeout_seconds = 60;
+
+    // Sentencias que se omiten si su objeto ya existe. El grupo 1 es la tabla y el grupo 2 el índice, la columna o la
+    // clave primaria; en insert_row, el grupo 3 es el valor de la clave.
+    private static final Pattern create_table = Pattern.compile(
+        "CREATE\\s+TABLE\\s+(\\w+)\\s*\\(.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL
+    );
+    private static final Pattern create_index = Pattern.compile(
+        "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL
+    );
+    private static final Pattern add_column = Pattern.compile(
+        "ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+COLUMN\\s+(\\w+)\\s.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL
+    );
+    private static final Pattern insert_row = Pattern.compile(
+        "INSERT\\s+INTO\\s+(\\w+)\\s*\\(\\s*(\\w+)\\s*,[^)]*\\)\\s*VALUES\\s*\\(\\s*(\\d+)\\s*,[^)]*\\)",
+        Pattern.CASE_INSENSITIVE
+    );
+
+    private SchemaMigrator() {}
+
+    /**
+     * Aplica las migraciones pendientes, en orden de versión.
+     *
+     * @param connection Conexión del pool que se está creando; aún no se publica para que ninguna consulta vea el
+     * esquema a medias.
+     * @throws SQLException si un script falló. Las migraciones anteriores quedan registradas.
+     * @throws IllegalStateException si un script aplicado cambió o no se encuentra.
+     */
+    public static void migrate(Connection connection) throws SQLException {
+        boolean locked = acquireLock(connection);
+
+        try {
+            createHistoryTable(connection);
+
+            Map<Integer, String> applied = getAppliedChecksums(connection);
+
+            for (String script : scripts) {
+                Migration migration = loadMigration(script);
+                String applied_checksum = applied.get(migration.version);
+
+                if (applied_checksum == null) {
+                    apply(connection, migration);
+                } else if (!applied_checksum.equals(migration.checksum)) {
+                    throw new IllegalStateException(
+                        "La migración " + script + " cambió después de aplicarse (checksum " + applied_checksum +
+                            " en la base de datos, " + migration.checksum + " en el script)."
+                    );
+                }
+            }
+        } finally {
+            if (locked) releaseLock(connection);
+        }
+    }
+
+    private static void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(
+                "CREATE TABLE IF NOT EXISTS schema_history (" +
+                    "version INT PRIMARY KEY, " +
+                    "script VARCHAR(200) NOT NULL, " +
+                    "checksum VARCHAR(64) NOT NULL, " +
+                    "installed_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "execution_ms INT NOT NULL)"
+            );
+        }
+    }
+
+    private static Map<Integer, String> getAppliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+
+        try (
+            Statement statement = connection.createStatement();
+            ResultSet result_set = statement.executeQuery("SELECT version, checksum FROM schema_history")
+        ) {
+            while (result_set.next()) {
+                applied.put(result_set.getInt("version"), result_set.getString("checksum"));
+            }
+        }
+
+        return applied;
+    }
+
+    /**
+     * Ejecuta las sentencias de un script y lo registra en schema_history.
+     */
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : splitStatements(migration.sql)) {
+                if (alreadyApplied(connection, sql)) {
+                    System.out.println("Se omite en " + migration.script + ", ya existe: " + firstLine(sql));
+                    continue;
+                }
+
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Falló la migración " + migration.script + ": " + e.getMessage(), e);
+        }
+
+        int execution_ms = (int) ((System.nanoTime() - start) / 1_000_000);
+
+        try (PreparedStatement statement = connection.prepareStatement(
+            "INSERT INTO schema_history (version, script, checksum, execution_ms) VALUES (?, ?, ?, ?)"
+        )) {
+            statement.setInt(1, migration.version);
+            statement.setString(2, migration.script);
+            statement.setString(3, migration.checksum);
+            statement.setInt(4, execution_ms);
+            statement.executeUpdate();
+        }
+
+        System.out.println("Migración aplicada: " + migration.script + " (" + execution_ms + " ms)");
+    }
+
+    /**
+     * @return true si la sentencia crea una tabla, un índice o una columna que ya existe, o inserta una fila cuya
+     * clave ya existe, por ejemplo porque el script falló después de crearla en un intento anterior.
+     */
+    private static boolean alreadyApplied(Connection connection, String sql) throws SQLException {
+        Matcher matcher = create_table.matcher(sql);
+
+        if (matcher.matches()) return findTable(connection, matcher.group(1)) != null;
+
+        matcher = create_index.matcher(sql);
+
+        if (matcher.matches()) {
+            String table = findTable(connection, matcher.group(2));
+
+            return table != null && hasIndex(connection, table, matcher.group(1));
+        }
+
+        matcher = add_column.matcher(sql);
+
+        if (matcher.matches()) {
+            String table = findTable(connection, matcher.group(1));
+
+            return table != null && hasColumn(connection, table, matcher.group(2));
+        }
+
+        matcher = insert_row.matcher(sql);
+
+        if (matcher.matches()) {
+            String table = findTable(connection, matcher.group(1));
+
+            return table != null
+                && isPrimaryKey(connection, table, matcher.group(2))
+                && hasRow(connection, table, matcher.group(2), Long.parseLong(matcher.group(3)));
+        }
+
+        return false;
+    }
+
+    // Nombre de la tabla como lo guarda la base de datos (H2 usa mayúsculas), o null si no existe.
+    private static String findTable(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metadata = connection.getMetaData();
+
+        try (ResultSet tables = metadata.getTables(
+            connection.getCatalog(), connection.getSchema(), null, new String[] { "TABLE" }
+        )) {
+            while (tables.next()) {
+                String name = tables.getString("TABLE_NAME");
+
+                if (name.equalsIgnoreCase(table)) return name;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean hasIndex(Connection connection, String table, String index) throws SQLException {
+        try (ResultSet indexes = connection.getMetaData().getIndexInfo(
+            connection.getCatalog(), connection.getSchema(), table, false, true
+        )) {
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet columns = connection.getMetaData().getColumns(
+            connection.getCatalog(), connection.getSchema(), table, null
+        )) {
+            while (columns.next()) {
+                if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) return true;
+            }
+        }
+
+        return false;
+    }
+
+    // true si la columna es, por sí sola, la clave primaria de la tabla.
+    private static boolean isPrimaryKey(Connection connection, String table, String column) throws SQLException {
+        List<String> key_columns = new ArrayList<>();
+
+        try (ResultSet keys = connection.getMetaData().getPrimaryKeys(
+            connection.getCatalog(), connection.getSchema(), table
+        )) {
+            while (keys.next()) {
+                key_columns.add(keys.getString("COLUMN_NAME"));
+            }
+        }
+
+        return key_columns.size() == 1 && key_columns.get(0).equalsIgnoreCase(column);
+    }
+
+    // Los nombres vienen de los scripts de la aplicación, no de datos del usuario.
+    private static boolean hasRow(Connection connection, String table, String column, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+            "SELECT 1 FROM " + table + " WHERE " + column + " = ?"
+        )) {
+            statement.setLong(1, key);
+
+            try (ResultSet result_set = statement.executeQuery()) {
+                return result_set.next();
+            }
+        }
+    }
+
+    private static String firstLine(String sql) {
+        int end = sql.indexOf('\n');
+
+        return end < 0 ? sql : sql.substring(0, end);
+    }
+
+    // Divide un script en sentencias terminadas en ';', sin los comentarios de línea (--).
+    private static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+
+            current.append(trimmed).append('\n');
+
+            if (trimmed.endsWith(";")) {
+                statements.add(current.substring(0, current.lastIndexOf(";")).trim());
+                current.setLength(0);
+            }
+        }
+
+        if (current.toString().trim().length() > 0) statements.add(current.toString().trim());
+
+        return statements;
+    }
+
+    private static Migration loadMigration(String script) {
+        int version = Integer.parseInt(script.substring(1, script.indexOf("__")));
+
+        try (InputStream input = SchemaMigrator.class.getResourceAsStream(script_directory + script)) {
+            if (input == null) throw new IllegalStateException("No se encontró la migración " + script + ".");
+
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            input.transferTo(content);
+
+            // Se normalizan los saltos de línea para que el checksum no dependa del sistema operativo.
+            String sql = content.toString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+
+            return new Migration(version, script, sql, checksum(sql));
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la migración " + script + ".", e);
+        }
+    }
+
+    // SHA-256 del script, en hexadecimal.
+    private static String checksum(String sql) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sql.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Obtiene el candado de migración de MySQL (GET_LOCK). Las bases de datos sin GET_LOCK, como H2 en las pruebas
+     * de rendimiento, migran sin candado; en MySQL, un error al pedirlo detiene la migración.
+     *
+     * @return true si se obtuvo el candado y debe liberarse al terminar.
+     * @throws SQLException si no se pudo obtener el candado.
+     */
+    private static boolean acquireLock(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+
+        if (!product.contains("mysql") && !product.contains("mariadb")) return false;
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, lock_name);
+            statement.setInt(2, lock_timeout_seconds);
+
+            try (ResultSet result_set = statement.executeQuery()) {
+                if (result_set.next() && result_set.getInt(1) == 1) return true;
+            }
+        }
+
+        throw new SQLException("No se obtuvo el candado de migración en " + lock_timeout_seconds + " s.");
+    }
+
+    private static void releaseLock(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, lock_name);
+            statement.executeQuery().close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String script;
+        private final String sql;
+        private final String checksum;
+
+        Migration(int version, String script, String sql, String checksum) {
+            this.version = version;
+            this.script = script;
+            this.sql = sql;
+            this.checksum = checksum;
+        }
+    }
+}
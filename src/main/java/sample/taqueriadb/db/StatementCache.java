@@ -0,0 +1,119 @@
+package sample.taqueriadb.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché LRU de PreparedStatement para una conexión física, indexada por el texto SQL.
+ * Reutilizar el mismo PreparedStatement evita que el servidor analice y planifique la sentencia en cada ejecución.
+ *
+ * Una conexión solo se presta a un hilo a la vez, por lo que cada caché es usada por un único hilo; los contadores
+ * son globales para todas las conexiones del pool.
+ */
+public class StatementCache {
+    private static final AtomicLong hit_count = new AtomicLong();
+    private static final AtomicLong miss_count = new AtomicLong();
+    private static final AtomicLong eviction_count = new AtomicLong();
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    /**
+     * @param connection Conexión física dueña de las sentencias.
+     * @param max_size Número máximo de sentencias abiertas en la conexión.
+     */
+    public StatementCache(Connection connection, int max_size) {
+        this.connection = connection;
+
+        // LinkedHashMap en orden de acceso: el primer elemento es el menos usado recientemente.
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= max_size) return false;
+
+                eviction_count.incrementAndGet();
+                closeQuietly(eldest.getValue());
+
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Devuelve el PreparedStatement asociado a la sentencia SQL, preparándolo si no existe en la caché.
+     * El llamador no debe cerrar la sentencia devuelta.
+     *
+     * @param sql Sentencia SQL con parámetros (?).
+     * @return la sentencia preparada, sin parámetros asignados.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, false);
+    }
+
+    /**
+     * Devuelve el PreparedStatement asociado a la sentencia SQL, preparándolo si no existe en la caché.
+     * El llamador no debe cerrar la sentencia devuelta.
+     *
+     * @param sql Sentencia SQL con parámetros (?).
+     * @param return_generated_keys Verdadero si la sentencia debe devolver las llaves generadas (INSERT).
+     * @return la sentencia preparada, sin parámetros asignados.
+     */
+    public PreparedStatement prepare(String sql, boolean return_generated_keys) throws SQLException {
+        // Una misma sentencia preparada con y sin llaves generadas son objetos distintos en el driver.
+        String key = return_generated_keys ? "#keys#" + sql : sql;
+
+        PreparedStatement statement = statements.get(key);
+
+        if (statement != null && !statement.isClosed()) {
+            hit_count.incrementAndGet();
+            statement.clearParameters();
+
+            return statement;
+        }
+
+        miss_count.incrementAndGet();
+
+        statement = return_generated_keys
+            ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+            : connection.prepareStatement(sql);
+        statements.put(key, statement);
+
+        return statement;
+    }
+
+    // Cierra todas las sentencias de la caché.
+    public void clear() {
+        Iterator<PreparedStatement> iterator = statements.values().iterator();
+
+        while (iterator.hasNext()) {
+            closeQuietly(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static long getHitCount() {
+        return hit_count.get();
+    }
+
+    public static long getMissCount() {
+        return miss_count.get();
+    }
+
+    public static long getEvictionCount() {
+        return eviction_count.get();
+    }
+}
@@ -0,0 +1,320 @@
+package sample.taqueriadb.db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Diario local de escrituras, de solo anexar, guardado en un archivo mapeado en memoria. Cada registro se confirma
+ * (fsync) antes de completar su CompletableFuture, por lo que sobrevive a un cierre inesperado de la aplicación.
+ *
+ * Un solo hilo escribe en el archivo. Toma todos los registros en espera, los copia al mapa y hace un único force()
+ * para todos ellos, de modo que varias escrituras simultáneas comparten el costo del fsync.
+ *
+ * Cada registro recibe un número de secuencia. Quien lo aplica llama a checkpoint() con el último número aplicado;
+ * esos registros dejan de ser pendientes y su espacio se reutiliza. Al abrir el archivo, getPendingRecords() devuelve
+ * los registros que no llegaron al checkpoint.
+ *
+ * Formato: encabezado (marca, formato, posición del checkpoint) seguido de registros (longitud, CRC32, contenido).
+ * La lectura se detiene en el primer registro vacío o con CRC incorrecto, que corresponde a una escritura que no
+ * terminó.
+ *
+ * Cuando el final del archivo se llena, los registros no aplicados se copian al inicio. La copia solo se hace si
+ * cabe completa antes del checkpoint guardado, de modo que un cierre a la mitad nunca toca los registros que se
+ * recuperarían al volver a abrir. Mientras más de la mitad del espacio usado siga sin aplicarse, el diario se
+ * reporta lleno.
+ */
+public class WriteJournal implements AutoCloseable {
+    private static final int magic = 0x54514A31; // "TQJ1"
+    private static final int format = 1;
+    private static final int header_size = 16;
+    private static final int checkpoint_position = 8;
+    private static final int frame_header_size = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final List<byte[]> pending_records;
+
+    // Solicitudes para el hilo escritor, en orden.
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    // Estado del hilo escritor. Las posiciones se leen desde otros hilos solo para las estadísticas.
+    private volatile int write_position;
+    private volatile int checkpoint;
+    // Número de secuencia y posición final de cada registro aún no aplicado, en orden.
+    private final ArrayDeque<long[]> unapplied = new ArrayDeque<>();
+    private long last_sequence;
+
+    /**
+     * Abre o crea el diario y lee los registros pendientes.
+     *
+     * @param file Archivo del diario.
+     * @param capacity Tamaño del archivo en bytes. Un diario existente conserva su tamaño si es mayor.
+     */
+    public WriteJournal(Path file, int capacity) throws IOException {
+        channel = FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+
+        boolean is_new = channel.size() < header_size;
+        int size = (int) Math.max(capacity, channel.size());
+
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        if (is_new) {
+            buffer.putInt(0, magic);
+            buffer.putInt(4, format);
+            buffer.putLong(checkpoint_position, header_size);
+            buffer.force();
+        } else if (buffer.getInt(0) != magic || buffer.getInt(4) != format) {
+            channel.close();
+
+            throw new IOException("El archivo " + file + " no es un diario de escrituras válido.");
+        }
+
+        checkpoint = (int) buffer.getLong(checkpoint_position);
+        pending_records = Collections.unmodifiableList(recover());
+
+        writer = new Thread(this::writeLoop, "write-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Lee los registros completos a partir del checkpoint.
+    private List<byte[]> recover() {
+        List<byte[]> records = new ArrayList<>();
+        int position = checkpoint;
+
+        while (position + frame_header_size <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+
+            if (length <= 0 || position + frame_header_size + length > buffer.capacity()) break;
+
+            byte[] payload = getBytes(position + frame_header_size, length);
+
+            if (crc(payload) != buffer.getInt(position + 4)) break;
+
+            position += frame_header_size + length;
+            records.add(payload);
+            unapplied.add(new long[] { ++last_sequence, position });
+        }
+
+        write_position = position;
+
+        return records;
+    }
+
+    /**
+     * @return los registros que estaban pendientes al abrir el diario, en orden. Su número de secuencia es su
+     * posición en la lista más uno.
+     */
+    public List<byte[]> getPendingRecords() {
+        return pending_records;
+    }
+
+    /**
+     * Agrega un registro al diario.
+     *
+     * @param payload Contenido del registro.
+     * @return se completa con el número de secuencia del registro cuando ya está en disco.
+     */
+    public CompletableFuture<Long> append(byte[] payload) {
+        CompletableFuture<Long> durable = new CompletableFuture<>();
+
+        if (closed) {
+            durable.completeExceptionally(new IOException("El diario de escrituras está cerrado."));
+        } else {
+            requests.add(new Request(payload, durable, 0));
+        }
+
+        return durable;
+    }
+
+    /**
+     * Marca como aplicados los registros hasta el número de secuencia dado, inclusive.
+     */
+    public void checkpoint(long sequence) {
+        if (!closed) requests.add(new Request(null, null, sequence));
+    }
+
+    /**
+     * @return el número de bytes ocupados por registros aún no aplicados.
+     */
+    public int getUsedBytes() {
+        return write_position - checkpoint;
+    }
+
+    /**
+     * @return el tamaño del archivo del diario en bytes.
+     */
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    private void writeLoop() {
+        List<Request> batch = new ArrayList<>();
+
+        while (!closed || !requests.isEmpty()) {
+            try {
+                batch.add(requests.take());
+            } catch (InterruptedException e) {
+                // close() interrumpe la espera; la condición del ciclo termina de escribir lo que quede.
+                continue;
+            }
+
+            requests.drainTo(batch);
+
+            List<Request> appended = new ArrayList<>();
+            boolean checkpoint_moved = false;
+
+            for (Request request : batch) {
+                if (request.payload == null) {
+                    checkpoint_moved |= applyCheckpoint(request.sequence);
+                } else if (write(request.payload)) {
+                    request.sequence = ++last_sequence;
+                    unapplied.add(new long[] { last_sequence, write_position });
+                    appended.add(request);
+                } else {
+                    request.durable.completeExceptionally(
+                        new IOException("El diario de escrituras está lleno; faltan registros por aplicar.")
+                    );
+                }
+            }
+
+            batch.clear();
+
+            if (appended.isEmpty() && !checkpoint_moved) continue;
+
+            // Un solo fsync para todos los registros y el checkpoint de esta ronda.
+            buffer.force();
+
+            for (Request request : appended) {
+                request.durable.complete(request.sequence);
+            }
+        }
+    }
+
+    // Copia un registro al mapa. Si no cabe, compacta el diario; devuelve false si aun así no cabe.
+    private boolean write(byte[] payload) {
+        int frame_size = frame_header_size + payload.length;
+
+        if (write_position + frame_size + 4 > buffer.capacity()) compact();
+
+        if (write_position + frame_size + 4 > buffer.capacity()) return false;
+
+        // El marcador de fin se escribe primero: si el proceso termina a la mitad, la lectura se detiene aquí.
+        buffer.putInt(write_position + frame_size, 0);
+        putBytes(write_position + frame_header_size, payload);
+        buffer.putInt(write_position + 4, crc(payload));
+        buffer.putInt(write_position, payload.length);
+
+        write_position += frame_size;
+
+        return true;
+    }
+
+    private boolean applyCheckpoint(long sequence) {
+        int new_checkpoint = checkpoint;
+
+        while (!unapplied.isEmpty() && unapplied.peekFirst()[0] <= sequence) {
+            new_checkpoint = (int) unapplied.pollFirst()[1];
+        }
+
+        if (new_checkpoint == checkpoint) return false;
+
+        checkpoint = new_checkpoint;
+        buffer.putLong(checkpoint_position, checkpoint);
+
+        return true;
+    }
+
+    // Mueve los registros no aplicados al inicio del archivo para liberar el espacio de los aplicados.
+    private void compact() {
+        int offset = checkpoint - header_size;
+        int length = write_position - checkpoint;
+
+        // Hasta mover el checkpoint, la recuperación lee desde la posición anterior; si el destino (con su marcador
+        // de fin) alcanzara esa posición, un cierre a la mitad de la copia perdería registros ya confirmados.
+        if (length + 4 > offset) return;
+
+        putBytes(header_size, getBytes(checkpoint, length));
+        buffer.putInt(header_size + length, 0);
+
+        for (long[] record : unapplied) {
+            record[1] -= offset;
+        }
+
+        write_position -= offset;
+        checkpoint = header_size;
+
+        // Los registros deben estar en su nueva posición antes de mover el checkpoint.
+        buffer.force();
+        buffer.putLong(checkpoint_position, checkpoint);
+        buffer.force();
+    }
+
+    private byte[] getBytes(int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.get(bytes);
+
+        return bytes;
+    }
+
+    private void putBytes(int position, byte[] bytes) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.put(bytes);
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Termina de escribir los registros en espera y cierra el archivo.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        writer.interrupt();
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        buffer.force();
+        channel.close();
+    }
+
+    private static final class Request {
+        private final byte[] payload;
+        private final CompletableFuture<Long> durable;
+        private long sequence;
+
+        Request(byte[] payload, CompletableFuture<Long> durable, long sequence) {
+            this.payload = payload;
+            this.durable = durable;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package sample.taqueriadb.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias con cubetas log-lineales, al estilo de HdrHistogram.
+ * Los valores menores a 128 ns se guardan exactos; los mayores se agrupan por potencia de 2 en 64 sub-cubetas, lo
+ * que mantiene el error relativo de cualquier percentil por debajo de 1.6%.
+ *
+ * Registrar un valor es O(1), no reserva memoria y no usa candados, por lo que puede llamarse en cada consulta.
+ */
+public class LatencyHistogram {
+    // Valores menores a este límite tienen una cubeta propia.
+    private static final int linear_limit = 128;
+    // Sub-cubetas por cada potencia de 2 a partir del límite lineal.
+    private static final int sub_buckets = 64;
+    private static final int bucket_count = linear_limit + 57 * sub_buckets;
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucket_count);
+    private final AtomicLong total_count = new AtomicLong();
+    private final AtomicLong total_sum = new AtomicLong();
+    private final AtomicLong max_value = new AtomicLong();
+
+    /**
+     * Registra un valor, normalmente una latencia en nanosegundos.
+     *
+     * @param value Valor a registrar. Los valores negativos se registran como 0.
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+
+        counts.incrementAndGet(indexOf(clamped));
+        total_count.incrementAndGet();
+        total_sum.addAndGet(clamped);
+        max_value.accumulateAndGet(clamped, Math::max);
+    }
+
+    private static int indexOf(long value) {
+        if (value < linear_limit) return (int) value;
+
+        // Desplazamiento que deja los 7 bits más significativos del valor (entre 64 y 127).
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+        int top = (int) (value >>> shift);
+
+        return linear_limit + (shift - 1) * sub_buckets + (top - sub_buckets);
+    }
+
+    // Valor representativo (punto medio) de una cubeta.
+    private static long valueAt(int index) {
+        if (index < linear_limit) return index;
+
+        int shift = (index - linear_limit) / sub_buckets + 1;
+        long top = (index - linear_limit) % sub_buckets + sub_buckets;
+
+        return (top << shift) + (1L << (shift - 1));
+    }
+
+    public long getCount() {
+        return total_count.get();
+    }
+
+    public long getMax() {
+        return max_value.get();
+    }
+
+    public double getMean() {
+        long count = total_count.get();
+
+        return count == 0 ? 0 : total_sum.get() / (double) count;
+    }
+
+    /**
+     * @param percentile Percentil entre 0 y 100 (por ejemplo 99.9).
+     * @return el valor aproximado bajo el cual cae el percentil indicado de los valores registrados.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = total_count.get();
+
+        if (count == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(100, percentile) / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < bucket_count; i++) {
+            seen += counts.get(i);
+
+            if (seen >= target) return Math.min(valueAt(i), max_value.get());
+        }
+
+        return max_value.get();
+    }
+
+    // Elimina todos los valores registrados.
+    public void reset() {
+        for (int i = 0; i < bucket_count; i++) {
+            counts.set(i, 0);
+        }
+
+        total_count.set(0);
+        total_sum.set(0);
+        max_value.set(0);
+    }
+}
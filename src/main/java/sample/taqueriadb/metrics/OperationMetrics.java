@@ -0,0 +1,66 @@
+package sample.taqueriadb.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de una operación de base de datos (por ejemplo "ClientDAO.add"): latencia, filas y errores.
+ */
+public class OperationMetrics {
+    private static final double nanos_per_milli = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public OperationMetrics(String operation) {
+        this.operation = operation;
+    }
+
+    void recordSuccess(long nanos, long row_count) {
+        latency.record(nanos);
+        rows.add(row_count);
+    }
+
+    void recordError(long nanos) {
+        latency.record(nanos);
+        errors.increment();
+    }
+
+    void reset() {
+        latency.reset();
+        rows.reset();
+        errors.reset();
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    // Número de ejecuciones, incluyendo las que fallaron.
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    // Filas devueltas (consultas) o afectadas (escrituras).
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public double getMeanMillis() {
+        return latency.getMean() / nanos_per_milli;
+    }
+
+    public double getPercentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / nanos_per_milli;
+    }
+
+    public double getMaxMillis() {
+        return latency.getMax() / nanos_per_milli;
+    }
+}
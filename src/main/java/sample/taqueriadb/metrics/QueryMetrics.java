@@ -0,0 +1,92 @@
+package sample.taqueriadb.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro global de métricas de las consultas ejecutadas por SQLCommandExecutor, agrupadas por operación.
+ * Las métricas pueden consultarse desde la ventana de diagnóstico o volcarse a un archivo.
+ */
+public class QueryMetrics {
+    private static final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    private QueryMetrics() {}
+
+    private static OperationMetrics metricsFor(String operation) {
+        return operations.computeIfAbsent(operation, OperationMetrics::new);
+    }
+
+    /**
+     * Registra una ejecución exitosa.
+     *
+     * @param operation Nombre de la operación, por ejemplo "ClientDAO.add".
+     * @param nanos Duración de la ejecución.
+     * @param rows Filas devueltas o afectadas.
+     */
+    public static void recordSuccess(String operation, long nanos, long rows) {
+        metricsFor(operation).recordSuccess(nanos, rows);
+    }
+
+    /**
+     * Registra una ejecución que terminó con error.
+     *
+     * @param operation Nombre de la operación.
+     * @param nanos Duración hasta el error.
+     */
+    public static void recordError(String operation, long nanos) {
+        metricsFor(operation).recordError(nanos);
+    }
+
+    /**
+     * @return las métricas de todas las operaciones registradas, ordenadas por nombre.
+     */
+    public static List<OperationMetrics> getOperations() {
+        List<OperationMetrics> sorted = new ArrayList<>(operations.values());
+        sorted.sort(Comparator.comparing(OperationMetrics::getOperation));
+
+        return sorted;
+    }
+
+    // Reinicia las métricas de todas las operaciones.
+    public static void reset() {
+        operations.values().forEach(OperationMetrics::reset);
+    }
+
+    /**
+     * Escribe las métricas actuales en un archivo CSV.
+     *
+     * @param file Archivo de destino. Se reemplaza si ya existe.
+     */
+    public static void dump(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# Métricas de consultas, " + LocalDateTime.now() + "\n");
+            writer.write("operation,count,errors,rows,mean_ms,p50_ms,p99_ms,p999_ms,max_ms\n");
+
+            for (OperationMetrics metrics : getOperations()) {
+                writer.write(String.format(
+                    Locale.ROOT,
+                    "%s,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                    metrics.getOperation(),
+                    metrics.getCount(),
+                    metrics.getErrors(),
+                    metrics.getRows(),
+                    metrics.getMeanMillis(),
+                    metrics.getPercentileMillis(50),
+                    metrics.getPercentileMillis(99),
+                    metrics.getPercentileMillis(99.9),
+                    metrics.getMaxMillis()
+                ));
+            }
+        }
+    }
+}
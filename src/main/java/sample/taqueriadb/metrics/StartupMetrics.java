@@ -0,0 +1,71 @@
+package sample.taqueriadb.metrics;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tiempos de las fases del arranque de la aplicación. Las fases pueden ejecutarse a la vez (por ejemplo, la conexión
+ * a la base de datos mientras se construyen las ventanas), por lo que de cada una se registra su duración y el
+ * momento en que terminó, contado desde el inicio de la JVM.
+ */
+public class StartupMetrics {
+    // Inicio de la JVM en milisegundos; si el sistema no lo reporta, se usa la carga de esta clase.
+    private static final long jvm_start_millis = ProcessHandle.current().info().startInstant()
+        .map(Instant::toEpochMilli)
+        .orElse(System.currentTimeMillis());
+
+    // Inicio y fin de cada fase, en milisegundos desde el inicio de la JVM, en el orden en que se iniciaron.
+    private static final Map<String, long[]> phases = new LinkedHashMap<>();
+
+    private StartupMetrics() {}
+
+    private static long now() {
+        return System.currentTimeMillis() - jvm_start_millis;
+    }
+
+    /**
+     * Marca el inicio de una fase.
+     *
+     * @param phase Nombre de la fase, por ejemplo "Conexión".
+     */
+    public static synchronized void begin(String phase) {
+        phases.putIfAbsent(phase, new long[] { now(), -1 });
+    }
+
+    /**
+     * Marca el fin de una fase. Una fase sin begin() se cuenta desde el inicio de la JVM.
+     *
+     * @param phase Nombre de la fase.
+     */
+    public static synchronized void end(String phase) {
+        long[] times = phases.computeIfAbsent(phase, key -> new long[] { 0, -1 });
+
+        if (times[1] < 0) times[1] = now();
+    }
+
+    /**
+     * @return una línea por fase con su duración y el momento en que terminó. Las fases en curso se indican como
+     * tales.
+     */
+    public static synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder();
+
+        for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+            long[] times = phase.getValue();
+
+            if (summary.length() > 0) summary.append('\n');
+
+            if (times[1] < 0) {
+                summary.append(String.format(Locale.ROOT, "%s: en curso desde %d ms", phase.getKey(), times[0]));
+            } else {
+                summary.append(String.format(
+                    Locale.ROOT, "%s: %d ms (terminó a los %d ms)", phase.getKey(), times[1] - times[0], times[1]
+                ));
+            }
+        }
+
+        return summary.toString();
+    }
+}
@@ -6,12 +6,14 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.text.Text;
 import sample.taqueriadb.base.EditableForm;
+import sample.taqueriadb.db.DatabaseExecutor;
 import sample.taqueriadb.model.Client;
 import sample.taqueriadb.dao.ClientDAO;
+import sample.taqueriadb.dao.WriteBehind;
 
-import java.sql.SQLException;
 import java.util.concurrent.CompletableFuture;
 
+
 /**
  * Ventana que muestra un formulario para agregar o modificar un cliente en la base de datos.
  */
@@ -64,7 +66,9 @@ public class ClientForm extends EditableForm<Client, ClientsList> {
     /**
      * Maneja tanto la creación de un nuevo cliente como la actualización de uno existente.
      * Obtiene los datos del formulario y realiza una operación INSERT o UPDATE en la base de datos de forma asíncrona.
-     * Tras ejecutar el proceso, actualiza la tabla de clientes y cierra la ventana.
+     * Tras ejecutar el proceso, aplica el cambio en la tabla de clientes y cierra la ventana.
+     * Con la escritura diferida activada, el cambio se guarda en el diario local y la ventana se cierra sin esperar a
+     * la base de datos.
      */
     protected void onSaveButtonClicked() {
         // Obtiene los datos ingresados en el formulario.
@@ -75,26 +79,35 @@ public class ClientForm extends EditableForm<Client, ClientsList> {
         // El ID se utiliza dentro del query para saber qué cliente se va a actualizar.
         if (!is_new_item) new_client.setId(old_item.getId());
 
-        // Ejecuta el proceso de manera asíncrona. Una vez finalizada la tarea, almacena el resultado del mismo y
-        // actualiza la tabla de clientes.
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                return is_new_item ? ClientDAO.add(new_client) : ClientDAO.update(new_client);
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-        }).thenAccept(
-                // Este bloque de código se ejecuta en el hilo de la aplicación JavaFX, lo cual hace posible ejecutar
-                // operaciones en la interfaz de usuario (refreshTable, closeWindow).
-                rows_affected -> Platform.runLater(() -> {
-                    // Actualiza la lista de clientes en la interfaz.
-                    items_list.refreshTable();
-
-                    System.out.println("Filas afectadas: " + rows_affected);
-
-                    // Cierra la ventana actual.
-                    this.close();
-                })
+        // Ejecuta el proceso de manera asíncrona en el ejecutor de base de datos. Una vez finalizada la tarea,
+        // aplica el resultado del mismo en la tabla de clientes.
+        CompletableFuture<Client> save;
+
+        if (WriteBehind.isEnabled()) {
+            save = is_new_item ? WriteBehind.addClient(new_client) : WriteBehind.updateClient(new_client);
+        } else {
+            save = DatabaseExecutor.supplyAsync(() ->
+                is_new_item ? ClientDAO.add(new_client) : ClientDAO.update(new_client)
+            );
+        }
+
+        save.thenAccept(
+            // Este bloque de código se ejecuta en el hilo de la aplicación JavaFX, lo cual hace posible ejecutar
+            // operaciones en la interfaz de usuario (insertItem, replaceItem, closeWindow).
+            saved_client -> Platform.runLater(() -> {
+                // Aplica el cambio directamente en la lista de clientes, sin volver a consultar la tabla.
+                if (is_new_item) {
+                    items_list.insertItem(saved_client);
+                } else if (saved_client != null) {
+                    items_list.replaceItem(saved_client);
+                } else {
+                    // El registro fue eliminado desde otra terminal mientras se editaba.
+                    items_list.removeItem(old_item);
+                }
+
+                // Cierra la ventana actual.
+                this.close();
+            })
         ).exceptionally(e -> {
             e.printStackTrace();
 
@@ -1,18 +1,25 @@
 package sample.taqueriadb.ui.client;
 
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.scene.control.*;
 import sample.taqueriadb.base.ItemsList;
+import sample.taqueriadb.db.DatabaseExecutor;
+import sample.taqueriadb.utils.SearchIndex;
+import sample.taqueriadb.utils.BatchResult;
+import sample.taqueriadb.utils.TableExporter;
+import sample.taqueriadb.utils.TableImporter;
 import sample.taqueriadb.dao.ClientDAO;
+import sample.taqueriadb.dao.ChangeSet;
+import sample.taqueriadb.dao.ListQuery;
+import sample.taqueriadb.dao.WriteBehind;
 import sample.taqueriadb.model.Client;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 /**
  * Ventana que muestra la lista de clientes registrados.
@@ -21,60 +28,123 @@ public class ClientsList extends ItemsList<Client> {
 
     public ClientsList() {
         super("Lista de clientes");
+
+        // Con la escritura diferida, reemplaza los clientes provisionales cuando se insertan en la base de datos, o
+        // los quita si la base de datos rechazó el alta.
+        BiConsumer<Client, Client> insert_listener =
+            (provisional, saved) -> Platform.runLater(() -> replaceProvisionalItem(provisional, saved));
+
+        WriteBehind.addClientListener(insert_listener);
+        this.setOnHidden(event -> WriteBehind.removeClientListener(insert_listener));
     }
 
     /**
-     * Obtiene la lista de clientes y los guarda en un ObservableList como un objeto de tipo Client.
+     * Obtiene la página de clientes que sigue al cliente indicado.
      *
-     * @return ObservableList con la información de los clientes.
+     * @param last_item Último cliente cargado, o null para la primera página.
+     * @param limit Número máximo de clientes a obtener.
+     * @param list_query Orden y filtros de la tabla.
+     * @return lista con la información de los clientes, en el orden de la tabla.
      */
     @Override
-    protected ObservableList<Client> getItems() {
-        ObservableList<Client> clients = FXCollections.observableArrayList();
-
-        try (ResultSet resultSet = ClientDAO.getClients()) {
-            while (resultSet.next()) {
-                 clients.add(new Client(
-                    resultSet.getInt("id_client"),
-                    resultSet.getString("name")
-                ));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    protected List<Client> getItemsAfter(Client last_item, int limit, ListQuery list_query) throws SQLException {
+        return ClientDAO.getClientsAfter(last_item, limit, list_query);
+    }
 
-        return clients;
+    /**
+     * Obtiene la página de clientes que precede al cliente indicado.
+     *
+     * @param first_item Primer cliente cargado.
+     * @param limit Número máximo de clientes a obtener.
+     * @param list_query Orden y filtros de la tabla.
+     * @return lista con la información de los clientes, en el orden de la tabla.
+     */
+    @Override
+    protected List<Client> getItemsBefore(Client first_item, int limit, ListQuery list_query) throws SQLException {
+        return ClientDAO.getClientsBefore(first_item, limit, list_query);
     }
 
     /**
-     * Muestra la información de los clientes asignándolos a una columna en la tabla de clientes.
+     * Recorre todos los clientes para construir el índice de búsqueda.
+     *
+     * @return Stream con los clientes en orden ascendente de ID.
      */
     @Override
-    protected void showItemsList() {
-        // Guarda los empleados recuperados desde la base de datos.
-        items = getItems();
+    protected Stream<Client> streamItems() throws SQLException {
+        return ClientDAO.streamClients();
+    }
 
-        TableColumn<Client, String> id_column = createColumn("ID", "id");
+    /**
+     * Obtiene los clientes encontrados por una búsqueda.
+     *
+     * @param ids de los clientes, en el orden en que deben mostrarse.
+     * @return los clientes que aún existen, en el mismo orden.
+     */
+    @Override
+    protected List<Client> getItemsByIds(int[] ids) throws SQLException {
+        return ClientDAO.getClientsByIds(ids);
+    }
 
-        TableColumn<Client, String> name_column = createColumn("Nombre", "name");
+    /**
+     * Obtiene los clientes modificados desde otras terminales.
+     *
+     * @param since_version Versión devuelta por la consulta anterior, o -1 para obtener solo la versión actual.
+     * @return los cambios y la versión hasta la que se consultaron.
+     */
+    @Override
+    protected ChangeSet<Client> getChangesSince(long since_version) throws SQLException {
+        return ClientDAO.getClientChanges(since_version);
+    }
 
-        // Agrega las columnas de la tabla a una lista para poder iterar sobre ellas.
-        List<TableColumn<Client, String>> columns = Arrays.asList(id_column, name_column);
+    @Override
+    protected TableExporter<Client> getExporter() {
+        return ClientDAO.getExporter();
+    }
 
-        // Recorre la lista de columnas y se agregan una por una a la tabla de clientes.
-        for (TableColumn<Client, String> column : columns) {
-            table_view.getColumns().add(column);
-        }
+    @Override
+    protected TableImporter<Client> getImporter() {
+        return ClientDAO.getImporter();
+    }
+
+    @Override
+    protected BatchResult addItems(List<Client> items) throws SQLException {
+        return ClientDAO.addAll(items);
+    }
 
-        table_view.setItems(items);
+    @Override
+    protected String[] toSnapshotFields(Client client) {
+        return new String[] { String.valueOf(client.getId()), client.getName() };
+    }
+
+    @Override
+    protected Client fromSnapshotFields(String[] fields) {
+        return new Client(Integer.parseInt(fields[0]), fields[1]);
     }
 
     /**
-     * Agrega una columna con botones "Editar" y los despliega en cada celda de la tabla.
+     * @return un índice de búsqueda por el nombre de los clientes.
+     */
+    @Override
+    protected SearchIndex<Client> createSearchIndex() {
+        return new SearchIndex<>(Client::getId, Client::getName);
+    }
+
+    /**
+     * Muestra la información de los clientes asignándolos a una columna en la tabla de clientes.
      */
     @Override
-    protected void addEditButtonColumn() {
-        createActionButtonColumn("Editar", this::editButtonAction);
+    protected void showItemsList() {
+        TableColumn<Client, Void> id_column = createColumn("ID", Client::getId, "id");
+
+        TableColumn<Client, Void> name_column = createColumn("Nombre", Client::getName, "name");
+
+        // Agrega las columnas de la tabla a una lista para poder iterar sobre ellas.
+        List<TableColumn<Client, Void>> columns = Arrays.asList(id_column, name_column);
+
+        // Recorre la lista de columnas y se agregan una por una a la tabla de clientes.
+        for (TableColumn<Client, Void> column : columns) {
+            table_view.getColumns().add(column);
+        }
     }
 
     /**
@@ -89,14 +159,6 @@ public class ClientsList extends ItemsList<Client> {
         new ClientForm(this, old_client);
     }
 
-    /**
-     * Agrega una columna con botones "Borrar" y los despliega en cada celda de la tabla.
-     */
-    @Override
-    protected void addDeleteButtonColumn() {
-        createActionButtonColumn("Borrar", this::deleteButtonAction);
-    }
-
     /**
      * Implementa una ventana de confirmación previo a la eliminación de un cliente.
      * La ventana despliega los botones "Aceptar" y "Cancelar". Al presionar en "Aceptar", se elimina al cliente.
@@ -110,29 +172,29 @@ public class ClientsList extends ItemsList<Client> {
             "¿Estás seguro de eliminar este cliente?"
         ).ifPresent(response -> {
             if (response == ButtonType.OK) {
-                deleteClient(client.getId());
+                deleteClient(client);
             }
         });
     }
 
     /**
      * Elimina un cliente de la base de datos mediante su ID. Se ejecuta de forma asíncrona un DELETE a la base de
-     * datos con la referencia del cliente. Por último, la tabla de clientes se actualiza.
+     * datos con la referencia del cliente. Por último, el cliente se quita de la tabla de clientes.
      *
-     * @param id del cliente a eliminar.
+     * @param client cliente a eliminar.
      */
-    private void deleteClient(int id) {
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                return ClientDAO.delete(id);
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-        }).thenAccept(rows_affected -> Platform.runLater(() -> {
-            refreshTable();
-
-            System.out.println("Filas afectadas: " + rows_affected);
-        })).exceptionally(e -> {
+    private void deleteClient(Client client) {
+        CompletableFuture<Integer> delete = WriteBehind.isEnabled()
+            ? WriteBehind.deleteClient(client.getId())
+            : DatabaseExecutor.supplyAsync(() -> ClientDAO.delete(client.getId()));
+
+        delete.thenAccept(
+            rows_affected -> Platform.runLater(() -> {
+                removeItem(client);
+
+                System.out.println("Filas afectadas: " + rows_affected);
+            })
+        ).exceptionally(e -> {
             e.printStackTrace();
 
             return null;
@@ -0,0 +1,149 @@
+package sample.taqueriadb.ui.diagnostics;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import sample.taqueriadb.dao.ClientDAO;
+import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.dao.WriteBehind;
+import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.db.DatabaseExecutor;
+import sample.taqueriadb.db.StatementCache;
+import sample.taqueriadb.metrics.OperationMetrics;
+import sample.taqueriadb.metrics.QueryMetrics;
+import sample.taqueriadb.metrics.StartupMetrics;
+import sample.taqueriadb.utils.AccessorTableCell;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Ventana de diagnóstico. Muestra la latencia, las filas y los errores de cada operación de base de datos, junto
+ * con el estado del pool de conexiones, el ejecutor y las cachés. Se actualiza cada segundo mientras está abierta.
+ */
+public class DiagnosticsWindow extends Stage {
+    private final TableView<OperationMetrics> operations_table = new TableView<>();
+    private final TextArea resources_area = new TextArea();
+    private final Timeline refresh_timeline;
+
+    public DiagnosticsWindow() {
+        createUI();
+        this.setTitle("Diagnóstico");
+
+        refresh_timeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> refresh()));
+        refresh_timeline.setCycleCount(Timeline.INDEFINITE);
+
+        this.setOnShown(event -> refresh_timeline.play());
+        this.setOnHidden(event -> refresh_timeline.stop());
+
+        refresh();
+        this.show();
+    }
+
+    private void createUI() {
+        operations_table.getColumns().add(createColumn("Operación", OperationMetrics::getOperation));
+        operations_table.getColumns().add(createColumn("Llamadas", OperationMetrics::getCount));
+        operations_table.getColumns().add(createColumn("Errores", OperationMetrics::getErrors));
+        operations_table.getColumns().add(createColumn("Filas", OperationMetrics::getRows));
+        operations_table.getColumns().add(createColumn("Media (ms)", metrics -> format(metrics.getMeanMillis())));
+        operations_table.getColumns().add(
+            createColumn("p50 (ms)", metrics -> format(metrics.getPercentileMillis(50)))
+        );
+        operations_table.getColumns().add(
+            createColumn("p99 (ms)", metrics -> format(metrics.getPercentileMillis(99)))
+        );
+        operations_table.getColumns().add(
+            createColumn("p99.9 (ms)", metrics -> format(metrics.getPercentileMillis(99.9)))
+        );
+        operations_table.getColumns().add(createColumn("Máx. (ms)", metrics -> format(metrics.getMaxMillis())));
+        VBox.setVgrow(operations_table, Priority.ALWAYS);
+
+        resources_area.setEditable(false);
+        resources_area.setPrefRowCount(16);
+
+        Button btn_reset = new Button("Reiniciar métricas");
+        btn_reset.setOnAction(event -> {
+            QueryMetrics.reset();
+            refresh();
+        });
+
+        Button btn_export = new Button("Exportar...");
+        btn_export.setOnAction(event -> exportMetrics());
+
+        HBox buttons = new HBox(8, btn_reset, btn_export);
+
+        VBox container = new VBox(8, operations_table, resources_area, buttons);
+
+        this.setScene(new Scene(container, 900, 600));
+    }
+
+    private static TableColumn<OperationMetrics, Void> createColumn(
+        String column_name,
+        Function<OperationMetrics, ?> accessor
+    ) {
+        TableColumn<OperationMetrics, Void> column = new TableColumn<>(column_name);
+        column.setCellFactory(params -> new AccessorTableCell<>(accessor));
+
+        return column;
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.3f", millis);
+    }
+
+    /**
+     * Vuelve a leer las métricas. Las lecturas no bloquean y no consultan la base de datos.
+     */
+    private void refresh() {
+        operations_table.getItems().setAll(QueryMetrics.getOperations());
+        // Las filas son las mismas instancias; se fuerza a recalcular los valores de las celdas.
+        operations_table.refresh();
+
+        resources_area.setText(
+            "Pool de conexiones: " + DatabaseConnector.getPoolStats() + "\n" +
+            "Ejecutor: " + DatabaseExecutor.getStats() + "\n" +
+            "Caché de sentencias: aciertos=" + StatementCache.getHitCount() +
+                ", fallos=" + StatementCache.getMissCount() +
+                ", expulsiones=" + StatementCache.getEvictionCount() + "\n" +
+            "Caché de clientes: " + ClientDAO.getCacheStats() + "\n" +
+            "Caché de empleados: " + EmployeeDAO.getCacheStats() +
+            (WriteBehind.isEnabled() ? "\nEscritura diferida: " + WriteBehind.getStats() : "") + "\n\n" +
+            "Arranque:\n" + StartupMetrics.getSummary()
+        );
+    }
+
+    /**
+     * Pide un archivo al usuario y escribe en él las métricas actuales en formato CSV.
+     */
+    private void exportMetrics() {
+        FileChooser file_chooser = new FileChooser();
+        file_chooser.setTitle("Exportar métricas");
+        file_chooser.setInitialFileName("metricas.csv");
+        file_chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+
+        File file = file_chooser.showSaveDialog(this);
+
+        if (file == null) return;
+
+        try {
+            QueryMetrics.dump(file.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setHeaderText(null);
+            alert.setTitle("Exportar métricas");
+            alert.setContentText("No se pudieron exportar las métricas: " + e.getMessage());
+            alert.showAndWait();
+        }
+    }
+}
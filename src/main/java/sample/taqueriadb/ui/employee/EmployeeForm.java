@@ -6,12 +6,14 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.text.Text;
 import sample.taqueriadb.base.EditableForm;
+import sample.taqueriadb.db.DatabaseExecutor;
 import sample.taqueriadb.model.Employee;
 import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.dao.WriteBehind;
 
-import java.sql.SQLException;
 import java.util.concurrent.CompletableFuture;
 
+
 /**
  * Ventana que muestra un formulario para agregar o modificar un empleado en la base de datos.
  */
@@ -96,7 +98,9 @@ public class EmployeeForm extends EditableForm<Employee, EmployeesList> {
     /**
      * Maneja tanto la creación de un nuevo empleado como la actualización de uno existente.
      * Obtiene los datos del formulario y realiza una operación INSERT o UPDATE en la base de datos de forma asíncrona.
-     * Tras ejecutar el proceso, actualiza la tabla de empleados y cierra la ventana.
+     * Tras ejecutar el proceso, aplica el cambio en la tabla de empleados y cierra la ventana.
+     * Con la escritura diferida activada, el cambio se guarda en el diario local y la ventana se cierra sin esperar a
+     * la base de datos.
      */
     protected void onSaveButtonClicked() {
         // Obtiene los datos ingresados en el formulario.
@@ -107,22 +111,31 @@ public class EmployeeForm extends EditableForm<Employee, EmployeesList> {
         // El ID se utiliza dentro del query para saber qué empleado se va a actualizar.
         if (!is_new_item) new_employee.setId(old_item.getId());
 
-        // Ejecuta el proceso de manera asíncrona. Una vez finalizada la tarea, almacena el resultado del mismo y
-        // actualiza la tabla de empleados.
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                return is_new_item ? EmployeeDAO.add(new_employee) : EmployeeDAO.update(new_employee);
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-        }).thenAccept(
-            // Este bloque de código se ejecuta en el hilo de la aplicación JavaFX, lo cual hace posible ejecutar
-            // operaciones en la interfaz de usuario (refreshTable, closeWindow).
-            rows_affected -> Platform.runLater(() -> {
-                // Actualiza la lista de empleados en la interfaz.
-                items_list.refreshTable();
+        // Ejecuta el proceso de manera asíncrona en el ejecutor de base de datos. Una vez finalizada la tarea,
+        // aplica el resultado del mismo en la tabla de empleados.
+        CompletableFuture<Employee> save;
 
-                System.out.println("Filas afectadas: " + rows_affected);
+        if (WriteBehind.isEnabled()) {
+            save = is_new_item ? WriteBehind.addEmployee(new_employee) : WriteBehind.updateEmployee(new_employee);
+        } else {
+            save = DatabaseExecutor.supplyAsync(() ->
+                is_new_item ? EmployeeDAO.add(new_employee) : EmployeeDAO.update(new_employee)
+            );
+        }
+
+        save.thenAccept(
+            // Este bloque de código se ejecuta en el hilo de la aplicación JavaFX, lo cual hace posible ejecutar
+            // operaciones en la interfaz de usuario (insertItem, replaceItem, closeWindow).
+            saved_employee -> Platform.runLater(() -> {
+                // Aplica el cambio directamente en la lista de empleados, sin volver a consultar la tabla.
+                if (is_new_item) {
+                    items_list.insertItem(saved_employee);
+                } else if (saved_employee != null) {
+                    items_list.replaceItem(saved_employee);
+                } else {
+                    // El registro fue eliminado desde otra terminal mientras se editaba.
+                    items_list.removeItem(old_item);
+                }
 
                 // Cierra la ventana actual.
                 this.close();
@@ -1,18 +1,25 @@
 package sample.taqueriadb.ui.employee;
 
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.scene.control.*;
 import sample.taqueriadb.model.Employee;
 import sample.taqueriadb.dao.EmployeeDAO;
+import sample.taqueriadb.dao.ChangeSet;
+import sample.taqueriadb.dao.ListQuery;
+import sample.taqueriadb.dao.WriteBehind;
 import sample.taqueriadb.base.ItemsList;
+import sample.taqueriadb.db.DatabaseExecutor;
+import sample.taqueriadb.utils.SearchIndex;
+import sample.taqueriadb.utils.BatchResult;
+import sample.taqueriadb.utils.TableExporter;
+import sample.taqueriadb.utils.TableImporter;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 /**
  * Ventana que muestra la lista de empleados registrados.
@@ -21,32 +28,117 @@ public class EmployeesList extends ItemsList<Employee> {
 
     public EmployeesList() {
         super("Lista de empleados");
+
+        // Con la escritura diferida, reemplaza los empleados provisionales cuando se insertan en la base de datos, o
+        // los quita si la base de datos rechazó el alta.
+        BiConsumer<Employee, Employee> insert_listener =
+            (provisional, saved) -> Platform.runLater(() -> replaceProvisionalItem(provisional, saved));
+
+        WriteBehind.addEmployeeListener(insert_listener);
+        this.setOnHidden(event -> WriteBehind.removeEmployeeListener(insert_listener));
     }
 
     /**
-     * Obtiene la lista de empleados y los guarda en un ObservableList como un objeto de tipo Employee.
+     * Obtiene la página de empleados que sigue al empleado indicado.
      *
-     * @return ObservableList con la información de los empleados.
+     * @param last_item Último empleado cargado, o null para la primera página.
+     * @param limit Número máximo de empleados a obtener.
+     * @param list_query Orden y filtros de la tabla.
+     * @return lista con la información de los empleados, en el orden de la tabla.
      */
     @Override
-    protected ObservableList<Employee> getItems() {
-        ObservableList<Employee> employees = FXCollections.observableArrayList();
-
-        try (ResultSet resultSet = EmployeeDAO.getEmployees()) {
-            while (resultSet.next()) {
-                 employees.add(new Employee(
-                    resultSet.getInt("id_employee"),
-                    resultSet.getString("name"),
-                    resultSet.getString("last_name"),
-                    resultSet.getString("phone_number"),
-                    resultSet.getString("email")
-                ));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    protected List<Employee> getItemsAfter(Employee last_item, int limit, ListQuery list_query) throws SQLException {
+        return EmployeeDAO.getEmployeesAfter(last_item, limit, list_query);
+    }
+
+    /**
+     * Obtiene la página de empleados que precede al empleado indicado.
+     *
+     * @param first_item Primer empleado cargado.
+     * @param limit Número máximo de empleados a obtener.
+     * @param list_query Orden y filtros de la tabla.
+     * @return lista con la información de los empleados, en el orden de la tabla.
+     */
+    @Override
+    protected List<Employee> getItemsBefore(Employee first_item, int limit, ListQuery list_query) throws SQLException {
+        return EmployeeDAO.getEmployeesBefore(first_item, limit, list_query);
+    }
+
+    /**
+     * Recorre todos los empleados para construir el índice de búsqueda.
+     *
+     * @return Stream con los empleados en orden ascendente de ID.
+     */
+    @Override
+    protected Stream<Employee> streamItems() throws SQLException {
+        return EmployeeDAO.streamEmployees();
+    }
 
-        return employees;
+    /**
+     * Obtiene los empleados encontrados por una búsqueda.
+     *
+     * @param ids de los empleados, en el orden en que deben mostrarse.
+     * @return los empleados que aún existen, en el mismo orden.
+     */
+    @Override
+    protected List<Employee> getItemsByIds(int[] ids) throws SQLException {
+        return EmployeeDAO.getEmployeesByIds(ids);
+    }
+
+    /**
+     * Obtiene los empleados modificados desde otras terminales.
+     *
+     * @param since_version Versión devuelta por la consulta anterior, o -1 para obtener solo la versión actual.
+     * @return los cambios y la versión hasta la que se consultaron.
+     */
+    @Override
+    protected ChangeSet<Employee> getChangesSince(long since_version) throws SQLException {
+        return EmployeeDAO.getEmployeeChanges(since_version);
+    }
+
+    @Override
+    protected TableExporter<Employee> getExporter() {
+        return EmployeeDAO.getExporter();
+    }
+
+    @Override
+    protected TableImporter<Employee> getImporter() {
+        return EmployeeDAO.getImporter();
+    }
+
+    @Override
+    protected BatchResult addItems(List<Employee> items) throws SQLException {
+        return EmployeeDAO.addAll(items);
+    }
+
+    @Override
+    protected String[] toSnapshotFields(Employee employee) {
+        return new String[] {
+            String.valueOf(employee.getId()),
+            employee.getName(),
+            employee.getLastName(),
+            employee.getPhoneNumber(),
+            employee.getEmail()
+        };
+    }
+
+    @Override
+    protected Employee fromSnapshotFields(String[] fields) {
+        return new Employee(Integer.parseInt(fields[0]), fields[1], fields[2], fields[3], fields[4]);
+    }
+
+    /**
+     * @return un índice de búsqueda por el nombre, los apellidos, el email y el número de teléfono de los empleados.
+     */
+    @Override
+    protected SearchIndex<Employee> createSearchIndex() {
+        return new SearchIndex<>(
+            Employee::getId,
+            Employee::getName,
+            Employee::getLastName,
+            Employee::getEmail,
+            Employee::getPhoneNumber
+        );
     }
 
     /**
@@ -54,42 +146,29 @@ public class EmployeesList extends ItemsList<Employee> {
      */
     @Override
     protected void showItemsList() {
-        // Guarda los empleados recuperados desde la base de datos.
-        items = getItems();
-
-        TableColumn<Employee, String> id_column = createColumn("ID", "id");
+        TableColumn<Employee, Void> id_column = createColumn("ID", Employee::getId, "id");
 
-        TableColumn<Employee, String> name_column = createColumn("Nombre", "name");
+        TableColumn<Employee, Void> name_column = createColumn("Nombre", Employee::getName, "name");
 
-        TableColumn<Employee, String> last_name_column = createColumn(
-            "Apellidos", "lastName"
+        TableColumn<Employee, Void> last_name_column = createColumn(
+            "Apellidos", Employee::getLastName, "last_name"
         );
 
-        TableColumn<Employee, String> phone_number_column = createColumn(
-            "Número de teléfono", "phoneNumber"
+        TableColumn<Employee, Void> phone_number_column = createColumn(
+            "Número de teléfono", Employee::getPhoneNumber, "phone_number"
         );
 
-        TableColumn<Employee, String> email_column = createColumn("Email", "email");
+        TableColumn<Employee, Void> email_column = createColumn("Email", Employee::getEmail, "email");
 
         // Agrega las columnas de la tabla a una lista para poder iterar sobre ellas.
-        List<TableColumn<Employee, String>> columns = Arrays.asList(
+        List<TableColumn<Employee, Void>> columns = Arrays.asList(
             id_column, name_column, last_name_column, phone_number_column, email_column
         );
 
         // Recorre la lista de columnas y se agregan una por una a la tabla de empleados.
-        for (TableColumn<Employee, String> column : columns) {
+        for (TableColumn<Employee, Void> column : columns) {
             table_view.getColumns().add(column);
         }
-
-        table_view.setItems(items);
-    }
-
-    /**
-     * Agrega una columna con botones "Editar" y los despliega en cada celda de la tabla.
-     */
-    @Override
-    protected void addEditButtonColumn() {
-        createActionButtonColumn("Editar", this::editButtonAction);
     }
 
     /**
@@ -104,14 +183,6 @@ public class EmployeesList extends ItemsList<Employee> {
         new EmployeeForm(this, old_employee);
     }
 
-    /**
-     * Agrega una columna con botones "Borrar" y los despliega en cada celda de la tabla.
-     */
-    @Override
-    protected void addDeleteButtonColumn() {
-        createActionButtonColumn("Borrar", this::deleteButtonAction);
-    }
-
     /**
      * Implementa una ventana de confirmación previo a la eliminación de un empleado.
      * La ventana despliega los botones "Aceptar" y "Cancelar". Al presionar en "Aceptar", se elimina al empleado.
@@ -125,29 +196,29 @@ public class EmployeesList extends ItemsList<Employee> {
             "¿Estás seguro de eliminar este empleado?"
         ).ifPresent(response -> {
             if (response == ButtonType.OK) {
-                deleteEmployee(employee.getId());
+                deleteEmployee(employee);
             }
         });
     }
 
     /**
      * Elimina un empleado de la base de datos mediante su ID. Se ejecuta de forma asíncrona un DELETE a la base de
-     * datos con la referencia del empleado. Por último, la tabla de empleados se actualiza.
+     * datos con la referencia del empleado. Por último, el empleado se quita de la tabla de empleados.
      *
-     * @param id del empleado a eliminar.
+     * @param employee empleado a eliminar.
      */
-    private void deleteEmployee(int id) {
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                return EmployeeDAO.delete(id);
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-        }).thenAccept(rows_affected -> Platform.runLater(() -> {
-            refreshTable();
-
-            System.out.println("Filas afectadas: " + rows_affected);
-        })).exceptionally(e -> {
+    private void deleteEmployee(Employee employee) {
+        CompletableFuture<Integer> delete = WriteBehind.isEnabled()
+            ? WriteBehind.deleteEmployee(employee.getId())
+            : DatabaseExecutor.supplyAsync(() -> EmployeeDAO.delete(employee.getId()));
+
+        delete.thenAccept(
+            rows_affected -> Platform.runLater(() -> {
+                removeItem(employee);
+
+                System.out.println("Filas afectadas: " + rows_affected);
+            })
+        ).exceptionally(e -> {
             e.printStackTrace();
 
             return null;
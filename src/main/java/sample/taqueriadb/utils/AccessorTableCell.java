@@ -0,0 +1,60 @@
+package sample.taqueriadb.utils;
+
+import javafx.beans.InvalidationListener;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableRow;
+
+import java.util.function.Function;
+
+/**
+ * Celda de tabla que muestra un dato de la fila obtenido con un método de acceso (por ejemplo Client::getName).
+ *
+ * A diferencia de PropertyValueFactory, la celda lee el elemento directamente de su fila: no busca la propiedad por
+ * reflexión ni crea un ObservableValue cada vez que se pinta, y el modelo no necesita abrirse para reflexión.
+ *
+ * @param <T> Representa un genérico para el tipo de dato en la fila de la tabla.
+ */
+public class AccessorTableCell<T> extends TableCell<T, Void> {
+    private final Function<T, ?> accessor;
+    // Vuelve a pintar la celda cuando su fila recibe otro elemento en el mismo índice (por ejemplo, tras items.set).
+    private final InvalidationListener row_item_listener = observable -> render();
+
+    /**
+     * @param accessor Obtiene de la fila el valor a mostrar. Se muestra con toString(); null deja la celda vacía.
+     */
+    public AccessorTableCell(Function<T, ?> accessor) {
+        this.accessor = accessor;
+
+        tableRowProperty().addListener((observable, old_row, new_row) -> {
+            if (old_row != null) old_row.itemProperty().removeListener(row_item_listener);
+            if (new_row != null) new_row.itemProperty().addListener(row_item_listener);
+        });
+    }
+
+    /**
+     * Se llama cada vez que la celda se reutiliza para otra fila.
+     *
+     * @param item Siempre null; el valor se obtiene de la fila.
+     * @param empty Verifica si la celda está vacía.
+     */
+    @Override
+    protected void updateItem(Void item, boolean empty) {
+        super.updateItem(item, empty);
+
+        render();
+    }
+
+    private void render() {
+        TableRow<T> row = getTableRow();
+        T row_item = row == null || isEmpty() ? null : row.getItem();
+
+        if (row_item == null) {
+            setText(null);
+            return;
+        }
+
+        Object value = accessor.apply(row_item);
+
+        setText(value == null ? null : value.toString());
+    }
+}
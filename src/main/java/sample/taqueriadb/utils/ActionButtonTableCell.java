@@ -1,50 +1,61 @@
 package sample.taqueriadb.utils;
 
-import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableCell;
+import javafx.scene.control.TableRow;
+import javafx.scene.layout.HBox;
+
+import java.util.function.Consumer;
 
 /**
- * Esta clase representa una celda de tabla que contiene un botón de acción.
- * El botón en la celda puede realizar una acción específica dependiendo su uso.
+ * Esta clase representa una celda de tabla que contiene los botones de acción "Editar" y "Borrar" de una fila.
+ *
+ * La tabla solo crea tantas celdas como filas visibles y las reutiliza al desplazarse, por lo que los botones se
+ * crean una sola vez por celda y no por fila. Las acciones reciben el elemento de la fila que muestra la celda en el
+ * momento del clic.
  *
  * @param <T> Representa un genérico para el tipo de dato en la fila de la tabla.
  */
 public class ActionButtonTableCell<T> extends TableCell<T, Void> {
-    private final Button action_button;
+    private final HBox action_buttons;
 
     /**
-     * Instancia para crear un nuevo botón de acción en la celda.
+     * Instancia para crear una nueva celda con los botones de acción.
      *
-     * @param button_text El texto que específica la acción del botón.
+     * @param edit_action La acción a realizar cuando se pulse el botón "Editar".
+     * @param delete_action La acción a realizar cuando se pulse el botón "Borrar".
      */
-    public ActionButtonTableCell(String button_text) {
-        this.action_button = new Button(button_text);
-    }
+    public ActionButtonTableCell(Consumer<T> edit_action, Consumer<T> delete_action) {
+        Button edit_button = new Button("Editar");
+        edit_button.setOnAction(event -> runAction(edit_action));
 
-    /**
-     * Establece la acción que se realizará al hacer clic en el botón.
-     *
-     * @param eventHandler Evento a realizar al hacer clic en el botón.
-     */
-    public void setButtonAction(EventHandler<ActionEvent> eventHandler) {
-        this.action_button.setOnAction(eventHandler);
+        Button delete_button = new Button("Borrar");
+        delete_button.setOnAction(event -> runAction(delete_action));
+
+        this.action_buttons = new HBox(4, edit_button, delete_button);
     }
 
     /**
-     * Devuelve los datos de la fila que ha sido seleccionada al presionar el botón de acción.
+     * Devuelve los datos de la fila que muestra la celda actualmente.
      * Utiliza genéricos para especificar el tipo de dato a obtener.
      *
-     * @return los datos de la fila seleccionada.
+     * @return los datos de la fila, o null si la celda está vacía.
      */
     public T getCurrentItem() {
-        return getTableView().getItems().get(getIndex());
+        TableRow<T> row = getTableRow();
+
+        return row == null ? null : row.getItem();
+    }
+
+    private void runAction(Consumer<T> action) {
+        T item = getCurrentItem();
+
+        if (item != null) action.accept(item);
     }
 
     /**
-     * Actualiza el elemento representado por la celda y la visualización de la celda. En otras palabras, renderiza el
-     * botón de acción en la celda.
+     * Actualiza la visualización de la celda. Las celdas vacías (por debajo de la última fila) no muestran botones;
+     * como las celdas se reutilizan, el gráfico debe quitarse explícitamente.
      *
      * @param item El nuevo elemento representado en la celda.
      * @param empty Verifica si la celda está vacía.
@@ -53,6 +64,7 @@ public class ActionButtonTableCell<T> extends TableCell<T, Void> {
     protected void updateItem(Void item, boolean empty) {
         super.updateItem(item, empty);
 
-        if (!empty) setGraphic(action_button);
+        setText(null);
+        setGraphic(empty ? null : action_buttons);
     }
 }
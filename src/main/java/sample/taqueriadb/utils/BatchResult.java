@@ -0,0 +1,74 @@
+package sample.taqueriadb.utils;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una operación por lotes. Contiene el resultado de cada fila, en el mismo orden en que se enviaron.
+ * Las filas de un lote que falló valen Statement.EXECUTE_FAILED, ya que la transacción de ese lote se deshace.
+ */
+public class BatchResult {
+    private final int[] row_counts;
+    private final List<SQLException> errors = new ArrayList<>();
+
+    public BatchResult(int size) {
+        this.row_counts = new int[size];
+    }
+
+    void setRowCount(int index, int count) {
+        row_counts[index] = count;
+    }
+
+    void addError(SQLException error) {
+        errors.add(error);
+    }
+
+    /**
+     * @return el número de filas afectadas por cada elemento enviado (Statement.SUCCESS_NO_INFO si el driver no lo
+     * reporta, Statement.EXECUTE_FAILED si su lote falló).
+     */
+    public int[] getRowCounts() {
+        return row_counts.clone();
+    }
+
+    /**
+     * @param index Posición del elemento dentro de la colección enviada.
+     * @return verdadero si el elemento se guardó en la base de datos.
+     */
+    public boolean isSuccessful(int index) {
+        return row_counts[index] != Statement.EXECUTE_FAILED;
+    }
+
+    public int getSucceededCount() {
+        return row_counts.length - getFailedCount();
+    }
+
+    public int getFailedCount() {
+        int failed = 0;
+
+        for (int count : row_counts) {
+            if (count == Statement.EXECUTE_FAILED) failed++;
+        }
+
+        return failed;
+    }
+
+    /**
+     * @return los errores de los lotes que fallaron, uno por lote.
+     */
+    public List<SQLException> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "rows=" + row_counts.length +
+                ", succeeded=" + getSucceededCount() +
+                ", failed=" + getFailedCount() +
+                '}';
+    }
+}
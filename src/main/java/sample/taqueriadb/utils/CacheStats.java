@@ -0,0 +1,91 @@
+package sample.taqueriadb.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instantánea de las métricas de una caché de entidades.
+ */
+public class CacheStats {
+    private final int size;
+    private final long hit_count;
+    private final long miss_count;
+    private final long eviction_count;
+    private final long expiration_count;
+    private final long load_count;
+    private final long total_load_nanos;
+
+    public CacheStats(
+        int size,
+        long hit_count,
+        long miss_count,
+        long eviction_count,
+        long expiration_count,
+        long load_count,
+        long total_load_nanos
+    ) {
+        this.size = size;
+        this.hit_count = hit_count;
+        this.miss_count = miss_count;
+        this.eviction_count = eviction_count;
+        this.expiration_count = expiration_count;
+        this.load_count = load_count;
+        this.total_load_nanos = total_load_nanos;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hit_count;
+    }
+
+    public long getMissCount() {
+        return miss_count;
+    }
+
+    /**
+     * @return la proporción de consultas resueltas desde la caché, entre 0 y 1.
+     */
+    public double getHitRatio() {
+        long requests = hit_count + miss_count;
+
+        return requests == 0 ? 0 : hit_count / (double) requests;
+    }
+
+    // Entradas expulsadas por exceder el tamaño máximo.
+    public long getEvictionCount() {
+        return eviction_count;
+    }
+
+    // Entradas eliminadas por exceder su tiempo de vida.
+    public long getExpirationCount() {
+        return expiration_count;
+    }
+
+    public long getLoadCount() {
+        return load_count;
+    }
+
+    /**
+     * @return el tiempo promedio de carga desde la base de datos, en milisegundos.
+     */
+    public double getAverageLoadMillis() {
+        if (load_count == 0) return 0;
+
+        return total_load_nanos / (double) load_count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "size=" + size +
+                ", hitRatio=" + String.format("%.3f", getHitRatio()) +
+                ", hits=" + hit_count +
+                ", misses=" + miss_count +
+                ", evictions=" + eviction_count +
+                ", expirations=" + expiration_count +
+                ", avgLoadMs=" + String.format("%.3f", getAverageLoadMillis()) +
+                '}';
+    }
+}
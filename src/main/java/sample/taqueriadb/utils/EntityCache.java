@@ -0,0 +1,207 @@
+package sample.taqueriadb.utils;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché en memoria de entidades indexadas por su ID, con expulsión LRU y tiempo de vida (TTL).
+ * Se usa como caché de lectura (read-through): si la entidad no está, se carga desde la base de datos y se guarda.
+ * Los DAO la mantienen al día al escribir (write-through) e invalidan las entradas al eliminar.
+ *
+ * @param <K> Tipo de la llave (ID).
+ * @param <V> Tipo de la entidad.
+ */
+public class EntityCache<K, V> {
+    private final int max_size;
+    private final long ttl_nanos;
+    private final Map<K, CacheEntry<V>> entries;
+
+    // Aumenta con cada escritura; evita guardar una carga que empezó antes de una actualización.
+    private long write_count;
+
+    private long hit_count;
+    private long miss_count;
+    private long eviction_count;
+    private long expiration_count;
+    private long load_count;
+    private long total_load_nanos;
+
+    /**
+     * @param max_size Número máximo de entidades en la caché.
+     * @param ttl_millis Tiempo de vida de cada entrada, en milisegundos. 0 para no expirar.
+     */
+    public EntityCache(int max_size, long ttl_millis) {
+        this.max_size = max_size;
+        this.ttl_nanos = TimeUnit.MILLISECONDS.toNanos(ttl_millis);
+
+        // LinkedHashMap en orden de acceso: el primer elemento es el menos usado recientemente.
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() <= EntityCache.this.max_size) return false;
+
+                eviction_count++;
+
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Obtiene una entidad de la caché, o la carga con el loader si no está o ya expiró.
+     * Los resultados nulos (la entidad no existe) no se guardan.
+     *
+     * @param key ID de la entidad.
+     * @param loader Consulta a la base de datos para cargar la entidad.
+     * @return la entidad, o null si no existe.
+     */
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        V cached = getIfPresent(key);
+
+        if (cached != null) return cached;
+
+        long writes_before_load;
+
+        synchronized (this) {
+            writes_before_load = write_count;
+        }
+
+        // La carga se realiza fuera del candado para no bloquear otras lecturas durante la consulta.
+        long start = System.nanoTime();
+        V loaded = loader.load(key);
+        long elapsed = System.nanoTime() - start;
+
+        synchronized (this) {
+            load_count++;
+            total_load_nanos += elapsed;
+
+            // Si hubo escrituras durante la carga, el valor cargado podría ser anterior a ellas.
+            if (loaded != null && write_count == writes_before_load) {
+                entries.put(key, new CacheEntry<>(loaded, System.nanoTime()));
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * @return la entidad si está en la caché y no ha expirado, o null en otro caso.
+     */
+    public synchronized V getIfPresent(K key) {
+        CacheEntry<V> entry = entries.get(key);
+
+        if (entry != null && isExpired(entry)) {
+            entries.remove(key);
+            expiration_count++;
+            entry = null;
+        }
+
+        if (entry == null) {
+            miss_count++;
+            return null;
+        }
+
+        hit_count++;
+
+        return entry.value;
+    }
+
+    /**
+     * Guarda o reemplaza una entidad en la caché (write-through).
+     */
+    public synchronized void put(K key, V value) {
+        write_count++;
+        entries.put(key, new CacheEntry<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Guarda una entidad leída de la base de datos fuera de get(), por ejemplo un cambio de otra terminal, solo si la
+     * caché no recibió escrituras desde que empezó la consulta. Si las recibió, la entidad podría ser anterior a una
+     * escritura local y reemplazarla; en ese caso solo se elimina de la caché, para que la siguiente lectura la cargue
+     * de nuevo.
+     *
+     * @param writes_before Valor de getWriteCount() antes de la consulta.
+     */
+    public synchronized void putIfUnchanged(K key, V value, long writes_before) {
+        if (write_count == writes_before) {
+            entries.put(key, new CacheEntry<>(value, System.nanoTime()));
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * @return el número de escrituras hechas en la caché. Se usa con putIfUnchanged.
+     */
+    public synchronized long getWriteCount() {
+        return write_count;
+    }
+
+    /**
+     * Elimina una entidad de la caché.
+     */
+    public synchronized void invalidate(K key) {
+        write_count++;
+        entries.remove(key);
+    }
+
+    // Elimina todas las entidades de la caché.
+    public synchronized void invalidateAll() {
+        write_count++;
+        entries.clear();
+    }
+
+    /**
+     * Elimina las entradas expiradas. Las entradas expiradas también se eliminan al consultarse.
+     */
+    public synchronized void cleanUp() {
+        Iterator<CacheEntry<V>> iterator = entries.values().iterator();
+
+        while (iterator.hasNext()) {
+            if (isExpired(iterator.next())) {
+                iterator.remove();
+                expiration_count++;
+            }
+        }
+    }
+
+    private boolean isExpired(CacheEntry<V> entry) {
+        return ttl_nanos > 0 && System.nanoTime() - entry.created_at > ttl_nanos;
+    }
+
+    /**
+     * @return una instantánea de las métricas de la caché.
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(
+            entries.size(),
+            hit_count,
+            miss_count,
+            eviction_count,
+            expiration_count,
+            load_count,
+            total_load_nanos
+        );
+    }
+
+    /**
+     * Carga una entidad desde la base de datos.
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long created_at;
+
+        CacheEntry(V value, long created_at) {
+            this.value = value;
+            this.created_at = created_at;
+        }
+    }
+}
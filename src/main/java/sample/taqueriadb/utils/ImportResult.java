@@ -0,0 +1,89 @@
+package sample.taqueriadb.utils;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Resultado de una importación: cuántas filas se leyeron, cuántas se guardaron y cuántas se rechazaron.
+ */
+public class ImportResult {
+    private final long read_count;
+    private final long imported_count;
+    private final long rejected_count;
+    private final Path error_file;
+    private final long elapsed_nanos;
+
+    public ImportResult(
+        long read_count, long imported_count, long rejected_count, Path error_file, long elapsed_nanos
+    ) {
+        this.read_count = read_count;
+        this.imported_count = imported_count;
+        this.rejected_count = rejected_count;
+        this.error_file = error_file;
+        this.elapsed_nanos = elapsed_nanos;
+    }
+
+    /**
+     * @return el número de filas leídas del archivo, sin contar el encabezado ni las líneas vacías.
+     */
+    public long getReadCount() {
+        return read_count;
+    }
+
+    public long getImportedCount() {
+        return imported_count;
+    }
+
+    /**
+     * @return el número de filas que no pasaron la validación o que la base de datos no aceptó.
+     */
+    public long getRejectedCount() {
+        return rejected_count;
+    }
+
+    /**
+     * @return el archivo con las filas rechazadas, o null si no hubo ninguna.
+     */
+    public Path getErrorFile() {
+        return error_file;
+    }
+
+    public long getElapsedNanos() {
+        return elapsed_nanos;
+    }
+
+    /**
+     * @return las filas leídas por segundo.
+     */
+    public double getRowsPerSecond() {
+        return read_count / Math.max(elapsed_nanos / 1e9, 1e-9);
+    }
+
+    /**
+     * @return un resumen para mostrar al usuario, con la velocidad y el archivo de errores si lo hubo.
+     */
+    public String getSummary() {
+        String summary = String.format(
+            Locale.ROOT,
+            "Se importaron %,d de %,d filas en %.1f s (%,.0f filas/s).",
+            imported_count,
+            read_count,
+            elapsed_nanos / 1e9,
+            getRowsPerSecond()
+        );
+
+        if (error_file == null) return summary;
+
+        return summary + String.format(Locale.ROOT, "\n%,d filas rechazadas en %s.", rejected_count, error_file);
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "read=" + read_count +
+                ", imported=" + imported_count +
+                ", rejected=" + rejected_count +
+                ", error_file=" + error_file +
+                '}';
+    }
+}
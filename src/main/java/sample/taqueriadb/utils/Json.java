@@ -0,0 +1,187 @@
+package sample.taqueriadb.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lectura y escritura de JSON simple: objetos planos con valores de texto, números, booleanos o null. Es lo que usan
+ * las exportaciones y la API HTTP, sin depender de una biblioteca externa.
+ */
+public class Json {
+    private Json() {}
+
+    /**
+     * Agrega un texto como cadena JSON, con las comillas, diagonales invertidas y caracteres de control escapados.
+     */
+    public static void appendString(StringBuilder json, String value) {
+        json.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c == '\n') {
+                json.append("\\n");
+            } else if (c == '\r') {
+                json.append("\\r");
+            } else if (c == '\t') {
+                json.append("\\t");
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+
+        json.append('"');
+    }
+
+    /**
+     * Lee un objeto JSON plano, por ejemplo {"name": "Ana", "id": 3}.
+     *
+     * @return los valores por llave, en el orden del texto. Los números y booleanos se devuelven como texto y null
+     * como null.
+     * @throws IllegalArgumentException si el texto no es un objeto JSON o contiene objetos o arreglos anidados.
+     */
+    public static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> values = new LinkedHashMap<>();
+
+        parser.expect('{');
+
+        if (!parser.consume('}')) {
+            do {
+                String key = parser.readString();
+                parser.expect(':');
+                values.put(key, parser.readValue());
+            } while (parser.consume(','));
+
+            parser.expect('}');
+        }
+
+        parser.skipWhitespace();
+
+        if (parser.position < text.length()) throw parser.error("texto después del objeto");
+
+        return values;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private boolean consume(char c) {
+            skipWhitespace();
+
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) throw error("se esperaba '" + c + "'");
+        }
+
+        private String readValue() {
+            skipWhitespace();
+
+            if (position >= text.length()) throw error("falta un valor");
+
+            char c = text.charAt(position);
+
+            if (c == '"') return readString();
+            if (c == '{' || c == '[') throw error("no se admiten objetos ni arreglos anidados");
+
+            int start = position;
+
+            while (position < text.length() && ",}] \t\r\n".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+
+            String literal = text.substring(start, position);
+
+            if (literal.equals("null")) return null;
+            if (literal.equals("true") || literal.equals("false")) return literal;
+            if (literal.matches("-?(0|[1-9]\\d*)(\\.\\d+)?([eE][+-]?\\d+)?")) return literal;
+
+            throw error("valor no válido: " + literal);
+        }
+
+        private String readString() {
+            expect('"');
+
+            StringBuilder value = new StringBuilder();
+
+            while (true) {
+                if (position >= text.length()) throw error("cadena sin cerrar");
+
+                char c = text.charAt(position++);
+
+                if (c == '"') return value.toString();
+
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+
+                if (position >= text.length()) throw error("cadena sin cerrar");
+
+                char escaped = text.charAt(position++);
+
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        value.append(escaped);
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) throw error("escape \\u incompleto");
+
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("escape \\u no válido");
+                        }
+
+                        position += 4;
+                        break;
+                    default:
+                        throw error("escape no válido: \\" + escaped);
+                }
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("JSON no válido en la posición " + position + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package sample.taqueriadb.utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Convierte las filas de un ResultSet en objetos de tipo T.
+ * El mapeo se divide en dos pasos: bind() resuelve los índices de las columnas una sola vez por ResultSet y devuelve
+ * un Reader que lee cada fila por índice, evitando buscar la columna por nombre en cada celda.
+ *
+ * @param <T> Tipo del objeto que representa una fila.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    /**
+     * Resuelve las columnas del ResultSet.
+     *
+     * @param result_set ResultSet cuyas filas se van a leer.
+     * @return el lector de filas para este ResultSet.
+     */
+    Reader<T> bind(ResultSet result_set) throws SQLException;
+
+    /**
+     * Lee la fila actual de un ResultSet usando los índices resueltos por bind().
+     */
+    @FunctionalInterface
+    interface Reader<T> {
+        T read(ResultSet result_set) throws SQLException;
+    }
+}
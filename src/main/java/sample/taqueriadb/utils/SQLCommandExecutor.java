@@ -1,53 +1,603 @@
 package sample.taqueriadb.utils;
 
 import sample.taqueriadb.db.DatabaseConnector;
+import sample.taqueriadb.db.StatementCache;
+import sample.taqueriadb.metrics.QueryMetrics;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Proporciona una utilidad para ejecutar comandos DDL y DML en la base de datos.
+ * Cada ejecución toma una conexión del pool y la devuelve al terminar, por lo que es seguro llamar a estos métodos
+ * desde varios hilos al mismo tiempo.
+ *
+ * Las sentencias son parametrizadas (?) y se preparan una sola vez por conexión gracias a la caché de sentencias;
+ * los valores nunca se concatenan dentro del texto SQL.
+ *
+ * Cada ejecución se mide y se registra en QueryMetrics bajo el nombre de operación que recibe cada método
+ * (por ejemplo "ClientDAO.add"), junto con las filas devueltas o afectadas y los errores.
+ *
+ * Las escrituras versionadas (executeVersionedUpdate, executeVersionedInsert y executeVersionedBatch) incrementan
+ * la versión de cambio en la misma transacción, para que las demás terminales encuentren las filas modificadas con
+ * version > ?. Sus sentencias marcan las filas con la subconsulta change_version.
  */
 public class SQLCommandExecutor {
-    private static ResultSet result_set;
-    private static int rows_affected;
+    /**
+     * Subconsulta con la versión de cambio de la escritura versionada en curso, por ejemplo
+     * "UPDATE client SET name = ?, version = " + change_version + " WHERE id_client = ?".
+     */
+    protected static final String change_version = "(SELECT version FROM change_sequence WHERE id = 1)";
+    // Asigna la siguiente versión de cambio. Bloquea la fila hasta el commit, por lo que las escrituras versionadas
+    // se confirman en orden de versión.
+    private static final String next_change_version = "UPDATE change_sequence SET version = version + 1 WHERE id = 1";
+
+    /**
+     * Ejecuta una consulta SQL y convierte cada fila con el RowMapper dado.
+     * La conexión, la consulta y el ResultSet se cierran antes de devolver el resultado.
+     *
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.getClients".
+     * @param query Consulta SQL a ejecutar, con un signo ? por cada parámetro.
+     * @param mapper Convierte cada fila en un objeto.
+     * @param params Valores de los parámetros, en orden.
+     * @return una lista con las filas de la consulta, en el mismo orden.
+     */
+    public static <T> List<T> queryList(String operation, String query, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        long start = System.nanoTime();
+
+        try (Connection connection = DatabaseConnector.getConnection()) {
+            // Sin FETCH_SIZE: la lista se lee completa de todas formas, y con useCursorFetch cada bloque sería un
+            // viaje más al servidor.
+            PreparedStatement statement = prepare(connection, query, params);
+
+            try (ResultSet result_set = statement.executeQuery()) {
+                RowMapper.Reader<T> reader = mapper.bind(result_set);
+                List<T> rows = new ArrayList<>();
+
+                while (result_set.next()) {
+                    rows.add(reader.read(result_set));
+                }
+
+                QueryMetrics.recordSuccess(operation, System.nanoTime() - start, rows.size());
+
+                return rows;
+            }
+        } catch (SQLException | RuntimeException e) {
+            QueryMetrics.recordError(operation, System.nanoTime() - start);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Ejecuta una consulta SQL que devuelve como máximo una fila.
+     *
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.getClientById".
+     * @param query Consulta SQL a ejecutar, con un signo ? por cada parámetro.
+     * @param mapper Convierte la fila en un objeto.
+     * @param params Valores de los parámetros, en orden.
+     * @return el objeto de la primera fila, o null si la consulta no devolvió filas.
+     */
+    public static <T> T queryOne(String operation, String query, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        long start = System.nanoTime();
+
+        try (Connection connection = DatabaseConnector.getConnection()) {
+            PreparedStatement statement = prepare(connection, query, params);
+
+            try (ResultSet result_set = statement.executeQuery()) {
+                T row = result_set.next() ? mapper.bind(result_set).read(result_set) : null;
+
+                QueryMetrics.recordSuccess(operation, System.nanoTime() - start, row == null ? 0 : 1);
+
+                return row;
+            }
+        } catch (SQLException | RuntimeException e) {
+            QueryMetrics.recordError(operation, System.nanoTime() - start);
+
+            throw e;
+        }
+    }
 
     /**
-     * Ejecuta una consulta SQL y devuelve un objeto tipo ResultSet con la información requerida de una o
-     * más tablas de la base de datos.
+     * Ejecuta una consulta SQL y devuelve sus filas como un Stream que se lee conforme se consume, sin cargar todo
+     * el resultado en memoria: el driver pide las filas al servidor en bloques de FETCH_SIZE (con MySQL, mediante un
+     * cursor del servidor; ver DatabaseConnector.withCursorFetch). El Stream mantiene prestada una conexión hasta
+     * cerrarse, por lo que debe usarse dentro de un try-with-resources.
+     *
+     * La duración registrada abarca desde la consulta hasta el cierre del Stream.
      *
-     * @param query Consulta SQL a ejecutar.
-     * @return un objeto ResultSet con el resultado de la consulta.
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.streamClients".
+     * @param query Consulta SQL a ejecutar, con un signo ? por cada parámetro.
+     * @param mapper Convierte cada fila en un objeto.
+     * @param params Valores de los parámetros, en orden.
+     * @return un Stream con las filas de la consulta.
      */
-    public static ResultSet executeQuery(String query) throws SQLException {
-        Statement statement = DatabaseConnector.getConnection().createStatement();
+    public static <T> Stream<T> queryStream(String operation, String query, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        long start = System.nanoTime();
+        Connection connection;
+
+        try {
+            connection = DatabaseConnector.getConnection();
+        } catch (SQLException e) {
+            QueryMetrics.recordError(operation, System.nanoTime() - start);
+
+            throw e;
+        }
 
         try {
-            result_set = statement.executeQuery(query);
+            // Sin caché: la sentencia y su ResultSet permanecen abiertos mientras se consume el Stream.
+            PreparedStatement statement = connection.prepareStatement(
+                query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+            );
+            bind(statement, params);
+            statement.setFetchSize(DatabaseConnector.getFetchSize());
+
+            ResultSet result_set = statement.executeQuery();
+            RowMapper.Reader<T> reader = mapper.bind(result_set);
+            AtomicBoolean failed = new AtomicBoolean();
+            AtomicLong row_count = new AtomicLong();
+
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!result_set.next()) return false;
+
+                        action.accept(reader.read(result_set));
+                        row_count.incrementAndGet();
+
+                        return true;
+                    } catch (SQLException e) {
+                        failed.set(true);
+
+                        throw new UncheckedSQLException(e);
+                    }
+                }
+            };
 
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                DatabaseConnector.closeResultSet(result_set);
+                DatabaseConnector.closeStatement(statement);
+                closeConnection(connection);
+
+                long elapsed = System.nanoTime() - start;
+
+                if (failed.get()) {
+                    QueryMetrics.recordError(operation, elapsed);
+                } else {
+                    QueryMetrics.recordSuccess(operation, elapsed, row_count.get());
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            closeConnection(connection);
+            QueryMetrics.recordError(operation, System.nanoTime() - start);
+
+            throw e;
+        }
+    }
+
+    private static void closeConnection(Connection connection) {
+        try {
+            connection.close();
         } catch (SQLException e) {
             e.printStackTrace();
         }
-
-        return result_set;
     }
 
     /**
      * Se utiliza para insertar, actualizar o eliminar información de la base de datos (SQL update).
      *
-     * @param query Consulta SQL a ejecutar.
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.update".
+     * @param query Consulta SQL a ejecutar, con un signo ? por cada parámetro.
+     * @param params Valores de los parámetros, en orden.
      * @return un entero con el número de filas afectadas.
      */
-    public static int executeUpdate(String query) throws SQLException {
-        Statement statement = DatabaseConnector.getConnection().createStatement();
+    public static int executeUpdate(String operation, String query, Object... params) throws SQLException {
+        long start = System.nanoTime();
 
-        try {
-            rows_affected = statement.executeUpdate(query);
-        } catch (SQLException e) {
-            e.printStackTrace();
+        try (Connection connection = DatabaseConnector.getConnection()) {
+            int rows_affected = prepare(connection, query, params).executeUpdate();
+
+            QueryMetrics.recordSuccess(operation, System.nanoTime() - start, rows_affected);
+
+            return rows_affected;
+        } catch (SQLException | RuntimeException e) {
+            QueryMetrics.recordError(operation, System.nanoTime() - start);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Inserta una fila y devuelve la llave primaria generada por la base de datos (AUTO_INCREMENT).
+     *
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.add".
+     * @param query Sentencia INSERT a ejecutar, con un signo ? por cada parámetro.
+     * @param params Valores de los parámetros, en orden.
+     * @return la llave generada para la nueva fila.
+     */
+    public static int executeInsert(String operation, String query, Object... params) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Connection connection = DatabaseConnector.getConnection()) {
+            PreparedStatement statement = DatabaseConnector.prepareInsert(connection, query);
+            bind(statement, params);
+
+            int rows_affected = statement.executeUpdate();
+
+            try (ResultSet generated_keys = statement.getGeneratedKeys()) {
+                if (!generated_keys.next()) throw new SQLException("La base de datos no devolvió la llave generada.");
+
+                int id = generated_keys.getInt(1);
+
+                QueryMetrics.recordSuccess(operation, System.nanoTime() - start, rows_affected);
+
+                return id;
+            }
+        } catch (SQLException | RuntimeException e) {
+            QueryMetrics.recordError(operation, System.nanoTime() - start);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Ejecuta una o más sentencias con los mismos parámetros en una sola transacción, con una nueva versión de
+     * cambio. Las sentencias deben marcar las filas que modifican con change_version.
+     *
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.update".
+     * @param queries Sentencias SQL a ejecutar, en orden, con un signo ? por cada parámetro.
+     * @param params Valores de los parámetros, en orden.
+     * @return el número de filas afectadas por la última sentencia.
+     */
+    public static int executeVersionedUpdate(String operation, String[] queries, Object... params)
+            throws SQLException {
+        long start = System.nanoTime();
+
+        try (Connection connection = DatabaseConnector.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try {
+                prepare(connection, next_change_version).executeUpdate();
+
+                int rows_affected = 0;
+
+                for (String query : queries) {
+                    rows_affected = prepare(connection, query, params).executeUpdate();
+                }
+
+                connection.commit();
+
+                QueryMetrics.recordSuccess(operation, System.nanoTime() - start, rows_affected);
+
+                return rows_affected;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            QueryMetrics.recordError(operation, System.nanoTime() - start);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Inserta una fila con una nueva versión de cambio y devuelve la llave primaria generada. La sentencia debe
+     * marcar la fila con change_version.
+     *
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.add".
+     * @param query Sentencia INSERT a ejecutar, con un signo ? por cada parámetro.
+     * @param params Valores de los parámetros, en orden.
+     * @return la llave generada para la nueva fila.
+     */
+    public static int executeVersionedInsert(String operation, String query, Object... params) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Connection connection = DatabaseConnector.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try {
+                prepare(connection, next_change_version).executeUpdate();
+
+                PreparedStatement statement = DatabaseConnector.prepareInsert(connection, query);
+                bind(statement, params);
+
+                int rows_affected = statement.executeUpdate();
+                int id;
+
+                try (ResultSet generated_keys = statement.getGeneratedKeys()) {
+                    if (!generated_keys.next()) {
+                        throw new SQLException("La base de datos no devolvió la llave generada.");
+                    }
+
+                    id = generated_keys.getInt(1);
+                }
+
+                connection.commit();
+
+                QueryMetrics.recordSuccess(operation, System.nanoTime() - start, rows_affected);
+
+                return id;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            QueryMetrics.recordError(operation, System.nanoTime() - start);
+
+            throw e;
         }
+    }
 
-        return rows_affected;
+    /**
+     * @return la última versión de cambio confirmada. Todas las escrituras versionadas con una versión menor o
+     * igual ya son visibles.
+     */
+    public static long getChangeVersion() throws SQLException {
+        String query = "SELECT version FROM change_sequence WHERE id = 1";
+
+        Long version = queryOne(
+            "SQLCommandExecutor.getChangeVersion", query, result_set -> row -> row.getLong(1)
+        );
+
+        if (version == null) throw new SQLException("La tabla change_sequence no tiene la versión de cambio.");
+
+        return version;
+    }
+
+    /**
+     * @return la versión de cambio hasta la que se borraron marcas de eliminación (pruneDeletedRows). Los cambios
+     * desde una versión anterior ya no se pueden conocer.
+     */
+    public static long getPrunedVersion() throws SQLException {
+        String query = "SELECT pruned_version FROM change_sequence WHERE id = 1";
+
+        Long version = queryOne(
+            "SQLCommandExecutor.getPrunedVersion", query, result_set -> row -> row.getLong(1)
+        );
+
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Borra las marcas de eliminación (deleted_row) más antiguas que retention_millis. Primero se registra la versión
+     * hasta la que se borran, para que ninguna terminal confunda una marca borrada con una fila que sigue existiendo;
+     * las terminales que no se sincronizaron desde entonces vuelven a cargar sus listas.
+     *
+     * @param retention_millis Tiempo que se conservan las marcas, en milisegundos.
+     * @return el número de marcas borradas.
+     */
+    public static int pruneDeletedRows(long retention_millis) throws SQLException {
+        String max_query = "SELECT MAX(version) FROM deleted_row WHERE deleted_at < ?";
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - retention_millis);
+
+        Long pruned_version = queryOne(
+            "SQLCommandExecutor.pruneDeletedRows", max_query, result_set -> row -> {
+                long version = row.getLong(1);
+
+                return row.wasNull() ? null : version;
+            }, cutoff
+        );
+
+        if (pruned_version == null) return 0;
+
+        executeUpdate(
+            "SQLCommandExecutor.pruneDeletedRows",
+            "UPDATE change_sequence SET pruned_version = ? WHERE id = 1 AND pruned_version < ?",
+            pruned_version,
+            pruned_version
+        );
+
+        return executeUpdate(
+            "SQLCommandExecutor.pruneDeletedRows", "DELETE FROM deleted_row WHERE version <= ?", pruned_version
+        );
+    }
+
+    /**
+     * Ejecuta la misma sentencia para cada conjunto de parámetros usando lotes JDBC. Usa el tamaño de lote
+     * configurado en db.properties (BATCH_SIZE).
+     *
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.addAll".
+     * @param query Sentencia SQL a ejecutar, con un signo ? por cada parámetro.
+     * @param rows Parámetros de cada fila, en orden.
+     * @return el resultado de cada fila.
+     */
+    public static BatchResult executeBatch(String operation, String query, List<Object[]> rows)
+            throws SQLException {
+        return executeBatch(operation, query, rows, DatabaseConnector.getBatchSize());
+    }
+
+    /**
+     * Ejecuta la misma sentencia para cada conjunto de parámetros usando lotes JDBC. Cada lote de batch_size filas
+     * se envía en una sola transacción: si falla, se deshace únicamente ese lote y se continúa con el siguiente.
+     *
+     * Los lotes que fallan se cuentan como errores de la operación en las métricas.
+     *
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.addAll".
+     * @param query Sentencia SQL a ejecutar, con un signo ? por cada parámetro.
+     * @param rows Parámetros de cada fila, en orden.
+     * @param batch_size Número de filas por lote y por transacción.
+     * @return el resultado de cada fila.
+     */
+    public static BatchResult executeBatch(String operation, String query, List<Object[]> rows, int batch_size)
+            throws SQLException {
+        return executeBatch(operation, new String[] { query }, rows, batch_size, false);
+    }
+
+    /**
+     * Ejecuta una o más sentencias para cada conjunto de parámetros usando lotes JDBC, como executeBatch. Cada lote
+     * obtiene una nueva versión de cambio en su transacción; las sentencias deben marcar las filas que modifican con
+     * change_version.
+     *
+     * @param operation Nombre con el que se registran las métricas, por ejemplo "ClientDAO.addAll".
+     * @param queries Sentencias SQL a ejecutar por cada fila, en orden, con un signo ? por cada parámetro.
+     * @param rows Parámetros de cada fila, en orden. Son los mismos para todas las sentencias.
+     * @return el resultado de cada fila en la última sentencia.
+     */
+    public static BatchResult executeVersionedBatch(String operation, String[] queries, List<Object[]> rows)
+            throws SQLException {
+        return executeBatch(operation, queries, rows, DatabaseConnector.getBatchSize(), true);
+    }
+
+    private static BatchResult executeBatch(
+        String operation, String[] queries, List<Object[]> rows, int batch_size, boolean versioned
+    ) throws SQLException {
+        if (batch_size < 1) throw new IllegalArgumentException("El tamaño de lote debe ser mayor a 0.");
+
+        BatchResult result = new BatchResult(rows.size());
+
+        if (rows.isEmpty()) return result;
+
+        long started_at = System.nanoTime();
+
+        try (Connection connection = DatabaseConnector.getConnection()) {
+            PreparedStatement[] statements = new PreparedStatement[queries.length];
+
+            for (int i = 0; i < queries.length; i++) {
+                statements[i] = DatabaseConnector.prepareStatement(connection, queries[i]);
+            }
+
+            connection.setAutoCommit(false);
+
+            for (int start = 0; start < rows.size(); start += batch_size) {
+                int end = Math.min(start + batch_size, rows.size());
+
+                try {
+                    if (versioned) prepare(connection, next_change_version).executeUpdate();
+
+                    int[] counts = null;
+
+                    for (PreparedStatement statement : statements) {
+                        for (Object[] params : rows.subList(start, end)) {
+                            bind(statement, params);
+                            statement.addBatch();
+                        }
+
+                        counts = statement.executeBatch();
+                    }
+
+                    connection.commit();
+
+                    for (int i = 0; i < counts.length; i++) {
+                        result.setRowCount(start + i, counts[i]);
+                    }
+                } catch (SQLException e) {
+                    for (PreparedStatement statement : statements) {
+                        statement.clearBatch();
+                    }
+
+                    connection.rollback();
+
+                    for (int i = start; i < end; i++) {
+                        result.setRowCount(i, Statement.EXECUTE_FAILED);
+                    }
+
+                    result.addError(e);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            QueryMetrics.recordError(operation, System.nanoTime() - started_at);
+
+            throw e;
+        }
+
+        long elapsed = System.nanoTime() - started_at;
+
+        if (result.getFailedCount() == 0) {
+            QueryMetrics.recordSuccess(operation, elapsed, result.getSucceededCount());
+        } else {
+            QueryMetrics.recordError(operation, elapsed);
+        }
+
+        return result;
+    }
+
+    /**
+     * Crea los signos de una cláusula IN para los valores dados. La lista se rellena hasta la siguiente potencia de 2
+     * para que consultas con distinto número de valores compartan unas pocas sentencias preparadas.
+     *
+     * @param value_count Número de valores.
+     * @return los signos separados por comas, por ejemplo "?, ?, ?, ?" para 3 valores.
+     */
+    protected static String inPlaceholders(int value_count) {
+        StringBuilder placeholders = new StringBuilder("?");
+
+        for (int i = 1; i < paddedSize(value_count); i++) {
+            placeholders.append(", ?");
+        }
+
+        return placeholders.toString();
+    }
+
+    /**
+     * Crea los parámetros de una cláusula IN generada con inPlaceholders. Los lugares de relleno repiten el último
+     * valor, lo que no cambia el resultado de la consulta.
+     *
+     * @param values Valores de la cláusula IN. No debe estar vacío.
+     * @return los parámetros, en orden.
+     */
+    protected static Object[] inParams(int[] values) {
+        Object[] params = new Object[paddedSize(values.length)];
+
+        for (int i = 0; i < params.length; i++) {
+            params[i] = values[Math.min(i, values.length - 1)];
+        }
+
+        return params;
+    }
+
+    private static int paddedSize(int value_count) {
+        return value_count <= 1 ? 1 : Integer.highestOneBit(value_count - 1) << 1;
+    }
+
+    /**
+     * Obtiene la sentencia preparada desde la caché de la conexión y le asigna los parámetros.
+     */
+    private static PreparedStatement prepare(Connection connection, String query, Object... params)
+            throws SQLException {
+        PreparedStatement statement = DatabaseConnector.prepareStatement(connection, query);
+        bind(statement, params);
+
+        return statement;
+    }
+
+    // Asigna los parámetros de la sentencia, en orden.
+    private static void bind(PreparedStatement statement, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+    }
+
+    /**
+     * @return el número de veces que una sentencia se encontró en la caché.
+     */
+    public static long getStatementCacheHits() {
+        return StatementCache.getHitCount();
+    }
+
+    /**
+     * @return el número de veces que una sentencia tuvo que prepararse por no estar en la caché.
+     */
+    public static long getStatementCacheMisses() {
+        return StatementCache.getMissCount();
     }
 }
@@ -0,0 +1,580 @@
+package sample.taqueriadb.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Índice de búsqueda en memoria por prefijo de palabra, para búsquedas mientras se escribe.
+ *
+ * Los términos se guardan en un diccionario ordenado, codificados en UTF-8 uno tras otro en un solo arreglo de bytes.
+ * El índice se guarda por columnas en arreglos de enteros: el ID de cada fila, los términos de cada fila (como
+ * números del diccionario) y las filas de cada término. Un término repetido en muchas filas (nombres comunes,
+ * dominios de correo) se guarda una sola vez, y encontrar todos los términos que empiezan con un prefijo es una
+ * búsqueda binaria.
+ *
+ * Los cambios (add, update, remove) pueden enviarse desde cualquier hilo sin bloquear; se aplican en la siguiente
+ * búsqueda. Los elementos nuevos o modificados van a un índice secundario pequeño, con su texto normalizado
+ * (minúsculas y sin acentos), que se fusiona con el principal cuando crece demasiado.
+ *
+ * @param <T> Tipo de elemento indexado.
+ */
+public class SearchIndex<T> {
+    // Número mínimo de filas modificadas antes de reconstruir el índice principal.
+    private static final int min_compaction_threshold = 10_000;
+
+    private final ToIntFunction<T> id_accessor;
+    private final List<Function<T, String>> field_accessors;
+
+    // Cambios recibidos que aún no se aplican al índice.
+    private final Queue<PendingChange> pending_changes = new ConcurrentLinkedQueue<>();
+    private volatile boolean ready;
+
+    // El resto del estado se protege con el candado del índice.
+    // ID de cada fila. Las primeras base_count están ordenadas por ID; las siguientes se agregaron después.
+    private int[] slot_ids = new int[0];
+    private int slot_count;
+    private int base_count;
+    // Filas que ya no son válidas (eliminadas o reemplazadas).
+    private final BitSet dead_slots = new BitSet();
+    private int dead_count;
+    // Términos de cada fila del índice principal, como números del diccionario:
+    // slot_terms[slot_term_offsets[slot]..slot_term_offsets[slot + 1]].
+    private int[] slot_terms = new int[0];
+    private int[] slot_term_offsets = { 0 };
+    // Texto normalizado de las filas agregadas después (la fila base_count + i), con un espacio antes de cada término.
+    private final List<String> delta_texts = new ArrayList<>();
+    // Fila más reciente de cada ID agregado después de construir el índice principal.
+    private final Map<Integer, Integer> delta_slots = new HashMap<>();
+
+    // Diccionario del índice principal: el término i ocupa term_bytes[term_starts[i]..term_starts[i + 1]] y sus filas
+    // están en postings[term_offsets[i]..term_offsets[i + 1]].
+    private byte[] term_bytes = new byte[0];
+    private int[] term_starts = { 0 };
+    private int term_count;
+    private int[] term_offsets = { 0 };
+    private int[] postings = new int[0];
+    // Índice secundario con los términos de las filas agregadas después de construir el principal.
+    private final TreeMap<String, IntList> delta_terms = new TreeMap<>();
+
+    /**
+     * @param id_accessor Obtiene el ID de un elemento.
+     * @param field_accessors Obtienen los campos en los que se busca, por ejemplo Employee::getName.
+     */
+    @SafeVarargs
+    public SearchIndex(ToIntFunction<T> id_accessor, Function<T, String>... field_accessors) {
+        this.id_accessor = id_accessor;
+        this.field_accessors = Arrays.asList(field_accessors);
+    }
+
+    /**
+     * Construye el índice con todos los elementos. Los cambios recibidos mientras tanto se aplican después.
+     *
+     * @param items Elementos a indexar, en orden ascendente de ID (como los devuelven los métodos stream de los DAO).
+     */
+    public void build(Stream<T> items) {
+        IntList ids = new IntList();
+        List<String> texts = new ArrayList<>();
+
+        items.forEach(item -> {
+            int id = id_accessor.applyAsInt(item);
+
+            if (ids.size > 0 && id <= ids.get(ids.size - 1)) {
+                throw new IllegalArgumentException("Los elementos deben estar en orden ascendente de ID.");
+            }
+
+            ids.add(id);
+            texts.add(toText(item));
+        });
+
+        synchronized (this) {
+            rebuild(ids.toArray(), texts.toArray(new String[0]), ids.size);
+            ready = true;
+        }
+    }
+
+    /**
+     * @return true si el índice ya se construyó y puede usarse para buscar.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Agrega un elemento nuevo. Si el ID ya existe, se reemplaza.
+    public void add(T item) {
+        pending_changes.add(new PendingChange(id_accessor.applyAsInt(item), toText(item)));
+    }
+
+    // Reemplaza los datos de un elemento. Si el ID no existe, se agrega.
+    public void update(T item) {
+        add(item);
+    }
+
+    // Quita un elemento del índice.
+    public void remove(T item) {
+        pending_changes.add(new PendingChange(id_accessor.applyAsInt(item), null));
+    }
+
+    /**
+     * @return el número de elementos indexados.
+     */
+    public synchronized int size() {
+        applyPendingChanges();
+
+        return slot_count - dead_count;
+    }
+
+    /**
+     * Busca los elementos que tienen, para cada palabra de la consulta, algún término que empieza con ella.
+     * Por ejemplo, "jua pe" encuentra a "Juan Pérez". No distingue mayúsculas ni acentos.
+     *
+     * @param query Texto escrito por el usuario.
+     * @param limit Número máximo de resultados.
+     * @return los IDs de los elementos encontrados, ordenados por el término que coincidió.
+     */
+    public synchronized int[] search(String query, int limit) {
+        applyPendingChanges();
+
+        List<String> tokens = new ArrayList<>(tokenize(query, false));
+
+        if (tokens.isEmpty() || limit <= 0) return new int[0];
+
+        // Términos del diccionario que empiezan con cada palabra. Las filas se recorren desde la palabra menos
+        // frecuente y en ellas se verifica el resto.
+        int[][] ranges = new int[tokens.size()][];
+        int driving = 0;
+        int driving_count = Integer.MAX_VALUE;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            ranges[i] = prefixRange(tokens.get(i));
+
+            int count = countPostings(tokens.get(i), ranges[i]);
+
+            if (count < driving_count) {
+                driving = i;
+                driving_count = count;
+            }
+        }
+
+        Query search_query = new Query(tokens, ranges, driving);
+        Set<Integer> matched_slots = new HashSet<>();
+        IntList result = new IntList();
+        String driving_token = tokens.get(driving);
+
+        int first_posting = term_offsets[ranges[driving][0]];
+        int last_posting = term_offsets[ranges[driving][1]];
+
+        for (int p = first_posting; p < last_posting && result.size < limit; p++) {
+            collect(postings[p], search_query, matched_slots, result);
+        }
+
+        for (IntList slots : delta_terms.subMap(driving_token, driving_token + Character.MAX_VALUE).values()) {
+            for (int i = 0; i < slots.size && result.size < limit; i++) {
+                collect(slots.get(i), search_query, matched_slots, result);
+            }
+        }
+
+        return result.toArray();
+    }
+
+    private void collect(int slot, Query query, Set<Integer> matched_slots, IntList result) {
+        if (dead_slots.get(slot)) return;
+
+        for (int i = 0; i < query.tokens.size(); i++) {
+            if (i != query.driving && !hasPrefix(slot, query, i)) return;
+        }
+
+        if (matched_slots.add(slot)) result.add(slot_ids[slot]);
+    }
+
+    // Indica si la fila tiene algún término que empieza con la palabra dada de la consulta.
+    private boolean hasPrefix(int slot, Query query, int token) {
+        if (slot >= base_count) return delta_texts.get(slot - base_count).contains(" " + query.tokens.get(token));
+
+        int first = query.ranges[token][0];
+        int last = query.ranges[token][1];
+
+        for (int t = slot_term_offsets[slot]; t < slot_term_offsets[slot + 1]; t++) {
+            if (slot_terms[t] >= first && slot_terms[t] < last) return true;
+        }
+
+        return false;
+    }
+
+    // Número aproximado de filas con términos que empiezan con el prefijo (incluye filas ya eliminadas).
+    private int countPostings(String prefix, int[] range) {
+        int count = term_offsets[range[1]] - term_offsets[range[0]];
+
+        for (IntList slots : delta_terms.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            count += slots.size;
+        }
+
+        return count;
+    }
+
+    /**
+     * @return la posición del primer término del diccionario que empieza con el prefijo y la del primero después de
+     * ellos. Si ninguno empieza con él, ambas son iguales.
+     */
+    private int[] prefixRange(String prefix) {
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+
+        // Primer término mayor o igual al prefijo.
+        int low = 0;
+        int high = term_count;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (compareTerm(middle, key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int first = low;
+
+        // Los términos que empiezan con el prefijo están juntos a partir de first.
+        high = term_count;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (startsWith(middle, key)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return new int[] { first, low };
+    }
+
+    private int compareTerm(int term, byte[] key) {
+        return Arrays.compareUnsigned(term_bytes, term_starts[term], term_starts[term + 1], key, 0, key.length);
+    }
+
+    private boolean startsWith(int term, byte[] key) {
+        int start = term_starts[term];
+
+        return term_starts[term + 1] - start >= key.length
+            && Arrays.equals(term_bytes, start, start + key.length, key, 0, key.length);
+    }
+
+    /**
+     * Aplica los cambios pendientes y, si el índice secundario creció demasiado, reconstruye el principal.
+     */
+    private void applyPendingChanges() {
+        if (!ready) return;
+
+        PendingChange change;
+
+        while ((change = pending_changes.poll()) != null) {
+            markDead(change.id);
+
+            if (change.text != null) appendSlot(change.id, change.text);
+        }
+
+        int changed = slot_count - base_count + dead_count;
+
+        if (changed > Math.max(min_compaction_threshold, base_count / 4)) compact();
+    }
+
+    private void markDead(int id) {
+        Integer delta_slot = delta_slots.remove(id);
+        int slot = delta_slot != null ? delta_slot : Arrays.binarySearch(slot_ids, 0, base_count, id);
+
+        if (slot >= 0 && !dead_slots.get(slot)) {
+            dead_slots.set(slot);
+            dead_count++;
+        }
+    }
+
+    private void appendSlot(int id, String text) {
+        if (slot_count == slot_ids.length) slot_ids = Arrays.copyOf(slot_ids, Math.max(16, slot_count * 2));
+
+        int slot = slot_count++;
+        slot_ids[slot] = id;
+        delta_texts.add(text);
+        delta_slots.put(id, slot);
+
+        for (String term : termsOf(text)) {
+            delta_terms.computeIfAbsent(term, key -> new IntList()).add(slot);
+        }
+    }
+
+    // Texto normalizado de una fila, igual al que devuelve toText.
+    private String slotText(int slot) {
+        if (slot >= base_count) return delta_texts.get(slot - base_count);
+
+        StringBuilder text = new StringBuilder();
+
+        for (int t = slot_term_offsets[slot]; t < slot_term_offsets[slot + 1]; t++) {
+            int start = term_starts[slot_terms[t]];
+            int length = term_starts[slot_terms[t] + 1] - start;
+
+            text.append(' ').append(new String(term_bytes, start, length, StandardCharsets.UTF_8));
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * Reconstruye el índice principal con las filas válidas, ordenadas por ID.
+     */
+    private void compact() {
+        long[] live = new long[slot_count - dead_count];
+        int count = 0;
+
+        for (int slot = 0; slot < slot_count; slot++) {
+            if (!dead_slots.get(slot)) live[count++] = ((long) slot_ids[slot] << 32) | slot;
+        }
+
+        // Ordena por ID; la fila queda en los 32 bits inferiores.
+        Arrays.sort(live, 0, count);
+
+        int[] ids = new int[count];
+        String[] texts = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            int slot = (int) live[i];
+            ids[i] = slot_ids[slot];
+            texts[i] = slotText(slot);
+        }
+
+        rebuild(ids, texts, count);
+    }
+
+    private void rebuild(int[] ids, String[] texts, int count) {
+        // Primera pasada: asigna un número a cada término distinto y guarda los términos de cada fila.
+        Map<String, Integer> term_numbers = new HashMap<>();
+        List<byte[]> distinct_terms = new ArrayList<>();
+        IntList term_counts = new IntList();
+        IntList new_slot_terms = new IntList();
+        int[] new_slot_term_offsets = new int[count + 1];
+
+        for (int slot = 0; slot < count; slot++) {
+            new_slot_term_offsets[slot] = new_slot_terms.size;
+
+            for (String term : termsOf(texts[slot])) {
+                Integer number = term_numbers.get(term);
+
+                if (number == null) {
+                    number = distinct_terms.size();
+                    term_numbers.put(term, number);
+                    distinct_terms.add(term.getBytes(StandardCharsets.UTF_8));
+                    term_counts.add(0);
+                }
+
+                term_counts.values[number]++;
+                new_slot_terms.add(number);
+            }
+        }
+
+        new_slot_term_offsets[count] = new_slot_terms.size;
+
+        // Ordena el diccionario por sus bytes, el mismo orden que usa prefixRange.
+        Integer[] order = new Integer[distinct_terms.size()];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(distinct_terms.get(a), distinct_terms.get(b)));
+
+        // Posición de cada término en el diccionario, sus bytes y la posición de sus filas en postings.
+        int[] rank = new int[order.length];
+        int[] starts = new int[order.length + 1];
+        int[] offsets = new int[order.length + 1];
+        int[] next_posting = new int[order.length];
+        int byte_count = 0;
+        int total = 0;
+
+        for (int i = 0; i < order.length; i++) {
+            int number = order[i];
+
+            rank[number] = i;
+            starts[i] = byte_count;
+            byte_count += distinct_terms.get(number).length;
+            offsets[i] = total;
+            next_posting[number] = total;
+            total += term_counts.get(number);
+        }
+
+        starts[order.length] = byte_count;
+        offsets[order.length] = total;
+
+        byte[] bytes = new byte[byte_count];
+
+        for (int i = 0; i < order.length; i++) {
+            byte[] term = distinct_terms.get(order[i]);
+            System.arraycopy(term, 0, bytes, starts[i], term.length);
+        }
+
+        // Segunda pasada: las filas de cada término quedan en orden ascendente, igual que los IDs. Los términos de
+        // cada fila pasan a ser posiciones del diccionario.
+        int[] all_postings = new int[total];
+        int[] row_terms = new_slot_terms.toArray();
+
+        for (int slot = 0; slot < count; slot++) {
+            for (int t = new_slot_term_offsets[slot]; t < new_slot_term_offsets[slot + 1]; t++) {
+                all_postings[next_posting[row_terms[t]]++] = slot;
+                row_terms[t] = rank[row_terms[t]];
+            }
+        }
+
+        slot_ids = ids;
+        slot_count = count;
+        base_count = count;
+        dead_slots.clear();
+        dead_count = 0;
+        slot_terms = row_terms;
+        slot_term_offsets = new_slot_term_offsets;
+        delta_texts.clear();
+        delta_slots.clear();
+        delta_terms.clear();
+        term_bytes = bytes;
+        term_starts = starts;
+        term_count = order.length;
+        term_offsets = offsets;
+        postings = all_postings;
+    }
+
+    // Texto normalizado de un elemento: " termino1 termino2 ...", sin términos repetidos.
+    private String toText(T item) {
+        Set<String> item_terms = new LinkedHashSet<>();
+
+        for (Function<T, String> accessor : field_accessors) {
+            String value = accessor.apply(item);
+
+            if (value != null) item_terms.addAll(tokenize(value, true));
+        }
+
+        StringBuilder text = new StringBuilder();
+
+        for (String term : item_terms) {
+            text.append(' ').append(term);
+        }
+
+        return text.toString();
+    }
+
+    private static String[] termsOf(String text) {
+        return text.isEmpty() ? new String[0] : text.substring(1).split(" ");
+    }
+
+    /**
+     * Divide un texto en palabras normalizadas (minúsculas, sin acentos, solo letras y dígitos).
+     *
+     * @param value Texto a dividir.
+     * @param include_joined Si el texto tiene varios números, agrega también todos ellos unidos, para que por
+     * ejemplo "5551234" encuentre "555-1234".
+     */
+    private static Set<String> tokenize(String value, boolean include_joined) {
+        String normalized = normalize(value);
+        Set<String> tokens = new LinkedHashSet<>();
+        StringBuilder token = new StringBuilder();
+        StringBuilder joined = new StringBuilder();
+        boolean only_digits = true;
+
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+                joined.append(c);
+                only_digits &= Character.isDigit(c);
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+
+        if (include_joined && tokens.size() > 1 && only_digits) tokens.add(joined.toString());
+
+        return tokens;
+    }
+
+    private static String normalize(String value) {
+        String lower = value.toLowerCase();
+
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 127) return stripAccents(lower);
+        }
+
+        return lower;
+    }
+
+    // Separa los acentos de las letras (NFD) y los elimina.
+    private static String stripAccents(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder stripped = new StringBuilder(decomposed.length());
+
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+
+            if (Character.getType(c) != Character.NON_SPACING_MARK) stripped.append(c);
+        }
+
+        return stripped.toString();
+    }
+
+    // Palabras de una búsqueda, el rango del diccionario de cada una y la palabra desde la que se recorren las filas.
+    private static final class Query {
+        private final List<String> tokens;
+        private final int[][] ranges;
+        private final int driving;
+
+        Query(List<String> tokens, int[][] ranges, int driving) {
+            this.tokens = tokens;
+            this.ranges = ranges;
+            this.driving = driving;
+        }
+    }
+
+    // Cambio pendiente. Un texto null indica que el elemento se eliminó.
+    private static final class PendingChange {
+        private final int id;
+        private final String text;
+
+        PendingChange(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    // Lista de enteros sin objetos Integer.
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
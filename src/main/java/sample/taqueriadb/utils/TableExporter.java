@@ -0,0 +1,257 @@
+package sample.taqueriadb.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Exporta las filas de una tabla a un archivo CSV o JSON Lines (un objeto JSON por línea).
+ *
+ * Las filas se leen de un Stream conforme se escriben y pasan por un búfer de tamaño fijo hacia el archivo, por lo
+ * que la memoria usada no depende del número de filas mientras el Stream tampoco las acumule. Los Stream de los DAO
+ * (SQLCommandExecutor.queryStream) piden FETCH_SIZE filas por viaje; con MySQL lo hacen mediante un cursor del
+ * servidor (useCursorFetch), que guarda el resultado en una tabla temporal del servidor mientras dura la exportación.
+ * Con FETCH_SIZE=0 el driver carga el resultado completo antes de entregar la primera fila.
+ *
+ * El archivo se escribe primero en un archivo temporal que reemplaza al destino al terminar; si la exportación falla
+ * o se cancela, el destino no se modifica.
+ *
+ * En CSV, los textos que empiezan con =, +, - o @ se escriben con un apóstrofo al inicio, para que una hoja de
+ * cálculo los muestre como texto en lugar de evaluarlos como fórmulas. TableImporter quita ese apóstrofo al leerlos.
+ *
+ * @param <T> Tipo de elemento exportado.
+ */
+public class TableExporter<T> {
+    // Tamaño del búfer de escritura.
+    private static final int buffer_size = 64 * 1024;
+    // Cada cuántas filas se reporta el progreso y se revisa la cancelación.
+    private static final int progress_interval = 1000;
+    // Caracteres con los que una hoja de cálculo interpreta una celda como fórmula.
+    private static final String formula_prefixes = "=+-@";
+
+    private final String[] columns;
+    private final List<Function<T, ?>> accessors;
+
+    /**
+     * @param columns Nombres de las columnas, usados como encabezado en CSV y como llaves en JSON.
+     * @param accessors Obtienen el valor de cada columna, en el mismo orden, por ejemplo Client::getName.
+     */
+    @SafeVarargs
+    public TableExporter(String[] columns, Function<T, ?>... accessors) {
+        if (columns.length != accessors.length) {
+            throw new IllegalArgumentException("Cada columna requiere un accessor.");
+        }
+
+        this.columns = columns.clone();
+        this.accessors = Arrays.asList(accessors);
+    }
+
+    /**
+     * @return true si el archivo debe escribirse como JSON Lines (.jsonl o .json); de lo contrario se escribe CSV.
+     */
+    public static boolean isJsonLines(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+
+        return name.endsWith(".jsonl") || name.endsWith(".json");
+    }
+
+    /**
+     * Escribe las filas en el archivo. El formato se elige por la extensión (isJsonLines).
+     *
+     * @param rows Filas a exportar. Quien lo llama se encarga de cerrarlo.
+     * @param file Archivo de destino. Se reemplaza si ya existe.
+     * @param progress Recibe el número de filas escritas cada cierto número de filas y al terminar; se llama en el
+     * hilo que exporta.
+     * @param cancelled Se consulta periódicamente; si devuelve true, la exportación se detiene.
+     * @return el número de filas escritas.
+     * @throws CancellationException si se canceló la exportación.
+     */
+    public long export(Stream<T> rows, Path file, LongConsumer progress, BooleanSupplier cancelled) throws IOException {
+        boolean json_lines = isJsonLines(file);
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp_file = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            long row_count = 0;
+
+            try (FileChannel channel = FileChannel.open(temp_file, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(buffer_size);
+                StringBuilder line = new StringBuilder();
+
+                if (!json_lines) {
+                    for (int i = 0; i < columns.length; i++) {
+                        if (i > 0) line.append(',');
+
+                        appendCsv(line, columns[i]);
+                    }
+
+                    write(channel, buffer, line);
+                }
+
+                Iterator<T> iterator = rows.iterator();
+
+                while (iterator.hasNext()) {
+                    T item = iterator.next();
+
+                    if (json_lines) {
+                        appendJson(line, item);
+                    } else {
+                        appendCsv(line, item);
+                    }
+
+                    write(channel, buffer, line);
+
+                    if (++row_count % progress_interval == 0) {
+                        if (cancelled.getAsBoolean()) throw new CancellationException("Exportación cancelada.");
+
+                        progress.accept(row_count);
+                    }
+                }
+
+                flush(channel, buffer);
+                channel.force(false);
+            }
+
+            Files.move(temp_file, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            progress.accept(row_count);
+
+            return row_count;
+        } finally {
+            Files.deleteIfExists(temp_file);
+        }
+    }
+
+    private void appendCsv(StringBuilder line, T item) {
+        for (int i = 0; i < accessors.size(); i++) {
+            if (i > 0) line.append(',');
+
+            Object value = accessors.get(i).apply(item);
+
+            if (value instanceof Number) {
+                line.append(value);
+            } else if (value != null) {
+                appendCsvText(line, value.toString());
+            }
+        }
+    }
+
+    /**
+     * Agrega un texto como celda CSV. Si empieza como una fórmula, se antepone un apóstrofo para que no se evalúe al
+     * abrir el archivo en una hoja de cálculo.
+     */
+    static void appendCsvText(StringBuilder line, String value) {
+        appendCsv(line, startsLikeFormula(value) ? "'" + value : value);
+    }
+
+    /**
+     * Quita el apóstrofo que appendCsvText agrega a los textos que empiezan como una fórmula.
+     */
+    static String removeFormulaGuard(String value) {
+        return value.length() > 1 && value.charAt(0) == '\'' && startsLikeFormula(value.substring(1))
+            ? value.substring(1)
+            : value;
+    }
+
+    private static boolean startsLikeFormula(String value) {
+        return !value.isEmpty() && formula_prefixes.indexOf(value.charAt(0)) >= 0;
+    }
+
+    // Los valores con comas, comillas o saltos de línea van entre comillas, con las comillas duplicadas (RFC 4180).
+    static void appendCsv(StringBuilder line, String value) {
+        boolean quote = false;
+
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+
+        line.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"') line.append('"');
+
+            line.append(c);
+        }
+
+        line.append('"');
+    }
+
+    /**
+     * Agrega un elemento como objeto JSON, con las columnas como llaves. La API HTTP lo usa para sus respuestas.
+     */
+    public void appendJson(StringBuilder line, T item) {
+        line.append('{');
+
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) line.append(',');
+
+            Json.appendString(line, columns[i]);
+            line.append(':');
+
+            Object value = accessors.get(i).apply(item);
+
+            if (value == null) {
+                line.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                line.append(value);
+            } else {
+                Json.appendString(line, value.toString());
+            }
+        }
+
+        line.append('}');
+    }
+
+    // Agrega la línea al búfer y lo vacía en el archivo cuando se llena. La línea se reutiliza para la siguiente fila.
+    private static void write(FileChannel channel, ByteBuffer buffer, StringBuilder line) throws IOException {
+        line.append('\n');
+
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        line.setLength(0);
+
+        if (bytes.length > buffer.remaining()) flush(channel, buffer);
+
+        if (bytes.length > buffer.capacity()) {
+            ByteBuffer large_line = ByteBuffer.wrap(bytes);
+
+            while (large_line.hasRemaining()) {
+                channel.write(large_line);
+            }
+
+            return;
+        }
+
+        buffer.put(bytes);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
@@ -0,0 +1,721 @@
+package sample.taqueriadb.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Importa filas de un archivo CSV (con encabezado, RFC 4180) a una tabla.
+ *
+ * El archivo se mapea en memoria y un hilo lo divide en bloques de alrededor de 1 MB, siempre al final de una fila.
+ * Los bloques se analizan y validan en paralelo en el ForkJoinPool común, y una cola acotada los entrega en el orden
+ * del archivo al hilo que llamó a importFile, que los guarda por lotes (cada lote en su propia transacción). Si la
+ * base de datos es más lenta que la lectura, la cola se llena y la lectura espera, por lo que la memoria usada no
+ * depende del tamaño del archivo.
+ *
+ * Las filas que no pasan la validación, o que la base de datos rechaza, se escriben en un archivo de errores con la
+ * línea en la que empiezan y el motivo; el resto de la importación continúa. Una fila que ocupa más de
+ * max_record_size bytes, casi siempre por unas comillas sin cerrar que convertirían el resto del archivo en un solo
+ * valor, se rechaza hasta el final de su primera línea y la lectura continúa en la línea siguiente.
+ *
+ * @param <T> Tipo de elemento importado.
+ */
+public class TableImporter<T> {
+    // Tamaño aproximado de cada bloque que se analiza en paralelo.
+    private static final int chunk_size = 1024 * 1024;
+    // Tamaño máximo de cada región del archivo mapeada en memoria. Ninguna fila puede ser más grande.
+    private static final long region_size = 256L * 1024 * 1024;
+    // Tamaño máximo de una fila, muy por encima de lo que ocupan las columnas de cualquier tabla.
+    private static final int max_record_size = 64 * 1024;
+    // Bloques leídos que aún no se guardan: suficientes para ocupar todos los hilos del pool mientras se inserta.
+    private static final int max_pending_chunks = 2 * ForkJoinPool.getCommonPoolParallelism() + 2;
+
+    /**
+     * Guarda un grupo de elementos, por ejemplo ClientDAO::addAll.
+     */
+    @FunctionalInterface
+    public interface Inserter<T> {
+        BatchResult insert(List<T> items) throws SQLException;
+    }
+
+    private final String[] columns;
+    private final Function<String[], T> parser;
+
+    /**
+     * @param columns Columnas que se leen del archivo. Se buscan por nombre en el encabezado, sin distinguir
+     * mayúsculas; las demás columnas del archivo (por ejemplo id) se ignoran.
+     * @param parser Crea un elemento con los valores de las columnas, en el mismo orden. Lanza
+     * IllegalArgumentException con el motivo si los valores no son válidos; la fila se rechaza.
+     */
+    public TableImporter(String[] columns, Function<String[], T> parser) {
+        this.columns = columns.clone();
+        this.parser = parser;
+    }
+
+    /**
+     * @return las columnas que se leen, en el orden en que las recibe parse().
+     */
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Valida los valores de una fila y crea el elemento, igual que al importar un archivo. La API HTTP lo usa para
+     * validar los elementos que recibe.
+     *
+     * @param values Valores de cada columna, en el orden de getColumns().
+     * @throws IllegalArgumentException con el motivo si los valores no son válidos.
+     */
+    public T parse(String[] values) {
+        return parser.apply(values);
+    }
+
+    /**
+     * @return el archivo de errores sugerido para un archivo importado: clientes.csv -> clientes.errores.csv.
+     */
+    public static Path getErrorFile(Path file) {
+        String name = file.getFileName().toString().replaceFirst("(?i)\\.csv$", "");
+
+        return file.resolveSibling(name + ".errores.csv");
+    }
+
+    /**
+     * Valida un campo de texto obligatorio, para usarse en el parser.
+     *
+     * @param value Valor leído del archivo.
+     * @param column Nombre de la columna, para el mensaje de error.
+     * @param max_length Longitud máxima de la columna en la base de datos.
+     * @return el valor sin espacios al inicio ni al final.
+     * @throws IllegalArgumentException si el valor está vacío o es demasiado largo.
+     */
+    public static String requireText(String value, String column, int max_length) {
+        String text = value.trim();
+
+        if (text.isEmpty()) throw new IllegalArgumentException(column + " está vacío");
+
+        if (text.length() > max_length) {
+            throw new IllegalArgumentException(column + " tiene más de " + max_length + " caracteres");
+        }
+
+        return text;
+    }
+
+    /**
+     * Importa el archivo. Las filas se guardan conforme se leen: si la importación falla o se cancela, las filas ya
+     * guardadas permanecen en la base de datos.
+     *
+     * @param file Archivo CSV con encabezado.
+     * @param error_file Archivo donde se escriben las filas rechazadas (línea, error, registro). Se reemplaza si ya
+     * existe y solo se crea si alguna fila se rechaza.
+     * @param inserter Guarda cada bloque de elementos válidos.
+     * @param progress Recibe el número de filas leídas después de guardar cada bloque; se llama en este hilo.
+     * @param cancelled Se consulta antes de cada bloque; si devuelve true, la importación se detiene.
+     * @return el número de filas leídas, guardadas y rechazadas.
+     * @throws CancellationException si se canceló la importación.
+     */
+    public ImportResult importFile(
+        Path file, Path error_file, Inserter<T> inserter, LongConsumer progress, BooleanSupplier cancelled
+    ) throws IOException, SQLException {
+        long start = System.nanoTime();
+
+        Files.deleteIfExists(error_file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             ErrorFile errors = new ErrorFile(error_file)) {
+            long file_size = channel.size();
+            MappedByteBuffer region = map(channel, 0, file_size);
+
+            // Marca de orden de bytes UTF-8 que agregan algunas hojas de cálculo.
+            int header_start = file_size >= 3
+                && region.get(0) == (byte) 0xEF && region.get(1) == (byte) 0xBB && region.get(2) == (byte) 0xBF ? 3 : 0;
+            int header_end = findRecordEnd(region, header_start);
+
+            if (header_end == header_start) throw new IOException("El archivo no tiene encabezado.");
+
+            if (header_end - header_start > max_record_size) {
+                throw new IOException("El encabezado ocupa más de " + max_record_size + " bytes; revise sus comillas.");
+            }
+
+            String[] header = readHeader(region, header_start, header_end);
+            int[] field_indexes = findColumns(header);
+            int field_count = header.length;
+
+            BlockingQueue<CompletableFuture<ParsedChunk<T>>> queue = new ArrayBlockingQueue<>(max_pending_chunks);
+            AtomicBoolean stopped = new AtomicBoolean();
+
+            int first_offset = header_end + 1;
+            Thread reader = new Thread(
+                () -> readChunks(channel, file_size, region, first_offset, field_count, field_indexes, queue, stopped),
+                "csv-import-reader"
+            );
+            reader.setDaemon(true);
+            reader.start();
+
+            // Línea del archivo en la que empieza el bloque; el encabezado es la línea 1.
+            long line_number = 1 + countLines(region, header_start, first_offset);
+            long read_count = 0;
+            long imported_count = 0;
+
+            try {
+                while (true) {
+                    if (cancelled.getAsBoolean()) {
+                        throw new CancellationException(String.format(
+                            Locale.ROOT, "Importación cancelada; se guardaron %,d filas.", imported_count
+                        ));
+                    }
+
+                    ParsedChunk<T> chunk = await(take(queue));
+
+                    // Fin del archivo.
+                    if (chunk == null) break;
+
+                    for (int i = 0; i < chunk.rejected_count; i++) {
+                        int[] row = chunk.rejected_rows;
+                        errors.write(line_number + row[i * 3], chunk.rejected_messages.get(i), chunk.text(row, i));
+                    }
+
+                    imported_count += insert(chunk, line_number, inserter, errors);
+                    read_count += chunk.items.size() + chunk.rejected_count;
+                    line_number += chunk.line_count;
+
+                    progress.accept(read_count);
+                }
+            } finally {
+                stopped.set(true);
+                queue.clear();
+
+                try {
+                    reader.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            return new ImportResult(
+                read_count,
+                imported_count,
+                errors.count,
+                errors.count > 0 ? error_file : null,
+                System.nanoTime() - start
+            );
+        }
+    }
+
+    /**
+     * Guarda los elementos válidos de un bloque. Un lote que falla se deshace completo, así que sus filas se
+     * reintentan una por una para rechazar solo las que la base de datos no acepta.
+     *
+     * @return el número de elementos guardados.
+     */
+    private long insert(ParsedChunk<T> chunk, long line_number, Inserter<T> inserter, ErrorFile errors)
+            throws SQLException, IOException {
+        if (chunk.items.isEmpty()) return 0;
+
+        BatchResult result = inserter.insert(chunk.items);
+        long imported_count = result.getSucceededCount();
+
+        if (result.getFailedCount() == 0) return imported_count;
+
+        for (int i = 0; i < chunk.items.size(); i++) {
+            if (result.isSuccessful(i)) continue;
+
+            BatchResult retry = inserter.insert(Collections.singletonList(chunk.items.get(i)));
+
+            if (retry.isSuccessful(0)) {
+                imported_count++;
+            } else {
+                int[] row = chunk.item_rows;
+                errors.write(line_number + row[i * 3], retry.getErrors().get(0).getMessage(), chunk.text(row, i));
+            }
+        }
+
+        return imported_count;
+    }
+
+    /**
+     * Divide el archivo en bloques que terminan al final de una fila y los manda a analizar en orden. Se ejecuta en
+     * su propio hilo; al terminar agrega a la cola un bloque null, o el error si no pudo leer el archivo.
+     */
+    private void readChunks(
+        FileChannel channel,
+        long file_size,
+        MappedByteBuffer first_region,
+        int first_offset,
+        int field_count,
+        int[] field_indexes,
+        BlockingQueue<CompletableFuture<ParsedChunk<T>>> queue,
+        AtomicBoolean stopped
+    ) {
+        try {
+            long region_start = 0;
+            MappedByteBuffer region = first_region;
+            int offset = first_offset;
+
+            while (true) {
+                int limit = region.limit();
+                int chunk_start = offset;
+                int last_boundary = offset;
+                // Un salto de línea entre comillas es parte del valor, no el fin de la fila.
+                boolean in_quotes = false;
+
+                for (int i = offset; i < limit; i++) {
+                    byte b = region.get(i);
+
+                    if (b == '"') {
+                        in_quotes = !in_quotes;
+                    } else if (b == '\n' && !in_quotes) {
+                        last_boundary = i + 1;
+
+                        if (last_boundary - chunk_start >= chunk_size) {
+                            if (!put(queue, parse(region, chunk_start, last_boundary, field_count, field_indexes),
+                                stopped)) return;
+
+                            chunk_start = last_boundary;
+                        }
+                    }
+
+                    if (i - last_boundary > max_record_size) {
+                        // Se envían las filas anteriores y la fila demasiado larga se rechaza hasta el final de su
+                        // primera línea, sin copiarla completa.
+                        if (chunk_start < last_boundary) {
+                            if (!put(queue, parse(region, chunk_start, last_boundary, field_count, field_indexes),
+                                stopped)) return;
+                        }
+
+                        int line_end = findLineEnd(region, last_boundary);
+
+                        if (line_end == limit && region_start + limit < file_size) {
+                            throw new IOException("Una fila ocupa más de " + region_size + " bytes.");
+                        }
+
+                        ParsedChunk<T> rejected = rejectRecord(region, last_boundary, line_end);
+
+                        if (!put(queue, CompletableFuture.completedFuture(rejected), stopped)) return;
+
+                        in_quotes = false;
+                        i = line_end;
+                        last_boundary = Math.min(line_end + 1, limit);
+                        chunk_start = last_boundary;
+                    }
+                }
+
+                // La última fila puede no terminar con salto de línea.
+                if (region_start + limit >= file_size) last_boundary = limit;
+
+                if (chunk_start < last_boundary) {
+                    if (!put(queue, parse(region, chunk_start, last_boundary, field_count, field_indexes), stopped)) {
+                        return;
+                    }
+                }
+
+                if (region_start + limit >= file_size) break;
+
+                if (last_boundary == offset) {
+                    throw new IOException("Una fila ocupa más de " + region_size + " bytes.");
+                }
+
+                // La siguiente región empieza con la fila que quedó incompleta.
+                region_start += last_boundary;
+                region = map(channel, region_start, file_size);
+                offset = 0;
+            }
+
+            put(queue, CompletableFuture.completedFuture(null), stopped);
+        } catch (IOException | RuntimeException e) {
+            CompletableFuture<ParsedChunk<T>> error = new CompletableFuture<>();
+            error.completeExceptionally(e);
+
+            put(queue, error, stopped);
+        }
+    }
+
+    /**
+     * Crea un bloque con una sola fila rechazada por ocupar más de max_record_size bytes. Solo se copian sus primeros
+     * max_record_size bytes, para el archivo de errores.
+     */
+    private ParsedChunk<T> rejectRecord(ByteBuffer region, int start, int end) {
+        int content_end = end > start && region.get(end - 1) == '\r' ? end - 1 : end;
+        byte[] data = new byte[Math.min(content_end - start, max_record_size)];
+        ByteBuffer view = region.duplicate();
+        view.position(start);
+        view.get(data);
+
+        ParsedChunk<T> chunk = new ParsedChunk<>(data);
+        chunk.line_count = 1;
+        chunk.addRejected(
+            "la fila ocupa más de " + max_record_size + " bytes; revise que sus comillas estén cerradas",
+            0, 0, data.length
+        );
+
+        return chunk;
+    }
+
+    private CompletableFuture<ParsedChunk<T>> parse(
+        ByteBuffer region, int start, int end, int field_count, int[] field_indexes
+    ) {
+        return CompletableFuture.supplyAsync(
+            () -> parseChunk(region, start, end, field_count, field_indexes), ForkJoinPool.commonPool()
+        );
+    }
+
+    /**
+     * Analiza y valida las filas de un bloque. Se ejecuta en el ForkJoinPool; las filas rechazadas se guardan con su
+     * motivo en lugar de detener la importación.
+     */
+    private ParsedChunk<T> parseChunk(ByteBuffer region, int start, int end, int field_count, int[] field_indexes) {
+        byte[] data = new byte[end - start];
+        ByteBuffer view = region.duplicate();
+        view.position(start);
+        view.get(data);
+
+        ParsedChunk<T> chunk = new ParsedChunk<>(data);
+        int position = 0;
+
+        while (position < data.length) {
+            int record_end = findRecordEnd(data, position);
+            int content_end = record_end > position && data[record_end - 1] == '\r' ? record_end - 1 : record_end;
+            // Línea en la que empieza la fila, dentro del bloque. Un valor entre comillas puede ocupar varias líneas.
+            int line = chunk.line_count;
+            chunk.line_count += 1 + countLines(data, position, record_end);
+
+            // Las líneas vacías se ignoran.
+            if (content_end > position) {
+                try {
+                    String[] fields = parseFields(data, position, content_end);
+
+                    if (fields.length != field_count) {
+                        throw new IllegalArgumentException(
+                            "se esperaban " + field_count + " columnas y hay " + fields.length
+                        );
+                    }
+
+                    String[] values = new String[field_indexes.length];
+
+                    for (int i = 0; i < field_indexes.length; i++) {
+                        values[i] = fields[field_indexes[i]];
+                    }
+
+                    chunk.addItem(parser.apply(values), line, position, content_end);
+                } catch (IllegalArgumentException e) {
+                    chunk.addRejected(e.getMessage(), line, position, content_end);
+                }
+            }
+
+            position = record_end + 1;
+        }
+
+        return chunk;
+    }
+
+    // Saltos de línea entre start y end.
+    private static int countLines(byte[] data, int start, int end) {
+        int count = 0;
+
+        for (int i = start; i < end; i++) {
+            if (data[i] == '\n') count++;
+        }
+
+        return count;
+    }
+
+    private static int countLines(ByteBuffer buffer, int start, int end) {
+        int count = 0;
+
+        for (int i = start; i < Math.min(end, buffer.limit()); i++) {
+            if (buffer.get(i) == '\n') count++;
+        }
+
+        return count;
+    }
+
+    // Posición del salto de línea que termina la fila que empieza en position, o el final del arreglo.
+    private static int findRecordEnd(byte[] data, int position) {
+        boolean in_quotes = false;
+
+        for (int i = position; i < data.length; i++) {
+            if (data[i] == '"') {
+                in_quotes = !in_quotes;
+            } else if (data[i] == '\n' && !in_quotes) {
+                return i;
+            }
+        }
+
+        return data.length;
+    }
+
+    // Posición del primer salto de línea desde position, sin considerar comillas, o el final del búfer.
+    private static int findLineEnd(ByteBuffer buffer, int position) {
+        for (int i = position; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') return i;
+        }
+
+        return buffer.limit();
+    }
+
+    private static int findRecordEnd(ByteBuffer buffer, int position) {
+        boolean in_quotes = false;
+
+        for (int i = position; i < buffer.limit(); i++) {
+            byte b = buffer.get(i);
+
+            if (b == '"') {
+                in_quotes = !in_quotes;
+            } else if (b == '\n' && !in_quotes) {
+                return i;
+            }
+        }
+
+        return buffer.limit();
+    }
+
+    /**
+     * Separa los valores de una fila. Los valores entre comillas pueden contener comas, saltos de línea y comillas
+     * duplicadas. A los que TableExporter protegió contra fórmulas se les quita el apóstrofo inicial.
+     *
+     * @throws IllegalArgumentException si las comillas no están bien formadas.
+     */
+    private static String[] parseFields(byte[] data, int start, int end) {
+        List<String> fields = new ArrayList<>();
+        int i = start;
+
+        while (true) {
+            if (i < end && data[i] == '"') {
+                int value_start = ++i;
+                boolean escaped_quotes = false;
+
+                while (true) {
+                    if (i >= end) throw new IllegalArgumentException("comillas sin cerrar");
+
+                    if (data[i] == '"') {
+                        if (i + 1 < end && data[i + 1] == '"') {
+                            escaped_quotes = true;
+                            i += 2;
+                            continue;
+                        }
+
+                        break;
+                    }
+
+                    i++;
+                }
+
+                String value = new String(data, value_start, i - value_start, StandardCharsets.UTF_8);
+                fields.add(TableExporter.removeFormulaGuard(escaped_quotes ? value.replace("\"\"", "\"") : value));
+
+                // Comilla de cierre.
+                i++;
+
+                if (i < end && data[i] != ',') throw new IllegalArgumentException("texto después de las comillas");
+            } else {
+                int value_start = i;
+
+                while (i < end && data[i] != ',') {
+                    if (data[i] == '"') throw new IllegalArgumentException("comillas dentro de un valor sin comillas");
+
+                    i++;
+                }
+
+                fields.add(TableExporter.removeFormulaGuard(
+                    new String(data, value_start, i - value_start, StandardCharsets.UTF_8)
+                ));
+            }
+
+            if (i >= end) break;
+
+            // Coma.
+            i++;
+        }
+
+        return fields.toArray(new String[0]);
+    }
+
+    private static String[] readHeader(ByteBuffer region, int start, int end) throws IOException {
+        byte[] data = new byte[end - start];
+        ByteBuffer view = region.duplicate();
+        view.position(start);
+        view.get(data);
+
+        int content_end = data.length > 0 && data[data.length - 1] == '\r' ? data.length - 1 : data.length;
+
+        try {
+            return parseFields(data, 0, content_end);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("El encabezado no es válido: " + e.getMessage());
+        }
+    }
+
+    // Posición en el encabezado de cada columna importada.
+    private int[] findColumns(String[] header) throws IOException {
+        int[] field_indexes = new int[columns.length];
+
+        for (int i = 0; i < columns.length; i++) {
+            field_indexes[i] = -1;
+
+            for (int j = 0; j < header.length && field_indexes[i] < 0; j++) {
+                if (header[j].trim().equalsIgnoreCase(columns[i])) field_indexes[i] = j;
+            }
+
+            if (field_indexes[i] < 0) {
+                throw new IOException(
+                    "Falta la columna " + columns[i] + " en el encabezado (" + String.join(",", columns) + ")."
+                );
+            }
+        }
+
+        return field_indexes;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long file_size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(region_size, file_size - position));
+    }
+
+    // Agrega un bloque a la cola, esperando si está llena. Devuelve false si la importación ya terminó.
+    private static <T> boolean put(
+        BlockingQueue<CompletableFuture<ParsedChunk<T>>> queue,
+        CompletableFuture<ParsedChunk<T>> chunk,
+        AtomicBoolean stopped
+    ) {
+        try {
+            while (!stopped.get()) {
+                if (queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    private static <T> CompletableFuture<ParsedChunk<T>> take(BlockingQueue<CompletableFuture<ParsedChunk<T>>> queue)
+            throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Se interrumpió la importación.", e);
+        }
+    }
+
+    // Espera el análisis de un bloque y lanza el error de lectura tal como ocurrió.
+    private static <T> ParsedChunk<T> await(CompletableFuture<ParsedChunk<T>> chunk) throws IOException {
+        try {
+            return chunk.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+
+            throw e;
+        }
+    }
+
+    /**
+     * Filas de un bloque ya analizadas. De cada fila se guarda su línea dentro del bloque y su posición en los bytes
+     * del bloque, para escribirla en el archivo de errores si se rechaza.
+     */
+    private static final class ParsedChunk<T> {
+        private final byte[] data;
+        // Líneas que ocupa el bloque.
+        private int line_count;
+
+        private final List<T> items = new ArrayList<>();
+        // Línea, inicio y fin de cada elemento válido.
+        private int[] item_rows = new int[0];
+
+        private int rejected_count;
+        private final List<String> rejected_messages = new ArrayList<>();
+        // Línea, inicio y fin de cada fila rechazada.
+        private int[] rejected_rows = new int[0];
+
+        private ParsedChunk(byte[] data) {
+            this.data = data;
+        }
+
+        private void addItem(T item, int line, int start, int end) {
+            item_rows = add(item_rows, items.size(), line, start, end);
+            items.add(item);
+        }
+
+        private void addRejected(String message, int line, int start, int end) {
+            rejected_rows = add(rejected_rows, rejected_count++, line, start, end);
+            rejected_messages.add(message);
+        }
+
+        private static int[] add(int[] rows, int index, int line, int start, int end) {
+            if ((index + 1) * 3 > rows.length) rows = Arrays.copyOf(rows, Math.max(rows.length * 2, 3 * 16));
+
+            rows[index * 3] = line;
+            rows[index * 3 + 1] = start;
+            rows[index * 3 + 2] = end;
+
+            return rows;
+        }
+
+        // Texto original de una fila.
+        private String text(int[] rows, int index) {
+            int start = rows[index * 3 + 1];
+
+            return new String(data, start, rows[index * 3 + 2] - start, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Archivo CSV con las filas rechazadas. Se crea con la primera fila rechazada.
+     */
+    private static final class ErrorFile implements Closeable {
+        private final Path path;
+        private BufferedWriter writer;
+        private long count;
+
+        private ErrorFile(Path path) {
+            this.path = path;
+        }
+
+        private void write(long line_number, String message, String record) throws IOException {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+                writer.write("linea,error,registro\n");
+            }
+
+            StringBuilder line = new StringBuilder();
+            line.append(line_number).append(',');
+            TableExporter.appendCsvText(line, message == null ? "" : message);
+            line.append(',');
+            TableExporter.appendCsvText(line, record);
+            line.append('\n');
+
+            writer.write(line.toString());
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) writer.close();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package sample.taqueriadb.utils;
+
+import java.sql.SQLException;
+
+/**
+ * Envuelve una SQLException en contextos que no permiten excepciones verificadas, como al recorrer un Stream.
+ */
+public class UncheckedSQLException extends RuntimeException {
+    public UncheckedSQLException(SQLException cause) {
+        super(cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
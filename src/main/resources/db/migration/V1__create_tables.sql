@@ -0,0 +1,13 @@
+-- Tablas base de la aplicación. IF NOT EXISTS permite adoptar bases de datos creadas antes de las migraciones.
+CREATE TABLE IF NOT EXISTS client (
+    id_client INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS employee (
+    id_employee INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    phone_number VARCHAR(20) NOT NULL,
+    email VARCHAR(100) NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Índices para ordenar, filtrar por prefijo (LIKE 'x%') y paginar por llave en las listas.
+-- El ID es el desempate de la paginación, por lo que se incluye al final de cada índice.
+CREATE INDEX idx_client_name ON client (name, id_client);
+
+CREATE INDEX idx_employee_name ON employee (name, id_employee);
+
+CREATE INDEX idx_employee_last_name ON employee (last_name, id_employee);
+
+CREATE INDEX idx_employee_email ON employee (email, id_employee);
+
+CREATE INDEX idx_employee_phone_number ON employee (phone_number, id_employee);
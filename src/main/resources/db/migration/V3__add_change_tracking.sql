@@ -0,0 +1,30 @@
+-- Seguimiento de cambios para que cada terminal actualice sus listas con solo las filas modificadas por las demás
+-- (version > ?), en lugar de volver a cargar las tablas completas.
+--
+-- change_sequence tiene una sola fila con la última versión asignada. Cada escritura la incrementa al inicio de su
+-- transacción y marca con ella las filas que modifica; como el incremento bloquea la fila hasta el commit, las
+-- escrituras se confirman en orden de versión y ninguna terminal puede saltarse una versión.
+CREATE TABLE change_sequence (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO change_sequence (id, version) VALUES (1, 0);
+
+-- Versión del último cambio de cada fila. Las filas existentes quedan en 0 y las listas ya las conocen al cargarse.
+ALTER TABLE client ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE employee ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_client_version ON client (version);
+
+CREATE INDEX idx_employee_version ON employee (version);
+
+-- Marcas de las filas eliminadas, con la versión de la eliminación.
+CREATE TABLE deleted_row (
+    table_name VARCHAR(20) NOT NULL,
+    row_id INT NOT NULL,
+    version BIGINT NOT NULL
+);
+
+CREATE INDEX idx_deleted_row_version ON deleted_row (table_name, version);
@@ -0,0 +1,9 @@
+-- Las marcas de eliminación se borran después de DELETED_ROW_RETENTION_HOURS (DeletedRowPruner), para que deleted_row
+-- no crezca sin límite.
+ALTER TABLE deleted_row ADD COLUMN deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX idx_deleted_row_deleted_at ON deleted_row (deleted_at);
+
+-- Versión hasta la que se borraron marcas. Una terminal que consulta cambios desde una versión anterior ya no puede
+-- saber qué filas se eliminaron, y vuelve a cargar su lista completa.
+ALTER TABLE change_sequence ADD COLUMN pruned_version BIGINT NOT NULL DEFAULT 0;
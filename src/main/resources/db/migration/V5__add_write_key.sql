@@ -0,0 +1,10 @@
+-- Llave única que la escritura diferida (WriteBehind) genera para cada alta. Si la aplicación se cierra después de
+-- confirmar la inserción, pero antes de guardar el ID real en su diario, al volver a aplicar el alta se encuentra la
+-- fila por esta llave en lugar de insertarla otra vez. Las altas de otros medios la dejan en NULL.
+ALTER TABLE client ADD COLUMN write_key CHAR(36) NULL;
+
+CREATE UNIQUE INDEX idx_client_write_key ON client (write_key);
+
+ALTER TABLE employee ADD COLUMN write_key CHAR(36) NULL;
+
+CREATE UNIQUE INDEX idx_employee_write_key ON employee (write_key);
@@ -0,0 +1,179 @@
+package sample.taqueriadb.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WriteJournalTest {
+    // Tamaño del encabezado, del encabezado de cada registro y posición del checkpoint en el archivo.
+    private static final int header_size = 16;
+    private static final int frame_header_size = 8;
+    private static final int checkpoint_position = 8;
+    // Con registros de 20 bytes caben 8 en el diario: 16 + 8 * 28 + 4 <= 256.
+    private static final int capacity = 256;
+    private static final int frame_size = frame_header_size + 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversRecordsBeforeTornWrite() throws IOException {
+        Path file = directory.resolve("torn.journal");
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            for (int i = 1; i <= 4; i++) {
+                journal.append(record(i)).join();
+            }
+        }
+
+        // El cuarto registro quedó a medias: su longitud llegó a disco, pero no todo su contenido.
+        writeBytes(file, header_size + 3 * frame_size + frame_header_size + 10, new byte[] { 1, 2, 3 });
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            assertEquals(List.of("registro-01", "registro-02", "registro-03"), texts(journal.getPendingRecords()));
+
+            // El siguiente registro reemplaza al incompleto.
+            journal.append(record(5)).join();
+        }
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            assertEquals(
+                List.of("registro-01", "registro-02", "registro-03", "registro-05"),
+                texts(journal.getPendingRecords())
+            );
+        }
+    }
+
+    @Test
+    void compactsAppliedRecords() throws IOException {
+        Path file = directory.resolve("compact.journal");
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            for (int i = 1; i <= 8; i++) {
+                journal.append(record(i)).join();
+            }
+
+            journal.checkpoint(6);
+
+            // No cabe al final; los registros 7 y 8 se copian al inicio.
+            journal.append(record(9)).join();
+        }
+
+        assertEquals(header_size, readCheckpoint(file));
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            assertEquals(
+                List.of("registro-07", "registro-08", "registro-09"), texts(journal.getPendingRecords())
+            );
+        }
+    }
+
+    @Test
+    void recoversAfterInterruptedCompaction() throws IOException {
+        Path file = directory.resolve("interrupted.journal");
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            for (int i = 1; i <= 8; i++) {
+                journal.append(record(i)).join();
+            }
+
+            journal.checkpoint(6);
+        }
+
+        long checkpoint = readCheckpoint(file);
+        byte[] unapplied = readBytes(file, (int) checkpoint, 2 * frame_size);
+
+        // Cierre a la mitad de la copia: el inicio del archivo tiene parte de los registros, y el checkpoint guardado
+        // todavía apunta a su posición anterior.
+        writeBytes(file, header_size, copyOf(unapplied, frame_size + 5));
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            assertEquals(List.of("registro-07", "registro-08"), texts(journal.getPendingRecords()));
+        }
+
+        // Cierre después de copiar todo, pero antes de mover el checkpoint.
+        writeBytes(file, header_size, unapplied);
+        writeBytes(file, header_size + unapplied.length, new byte[4]);
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            assertEquals(List.of("registro-07", "registro-08"), texts(journal.getPendingRecords()));
+        }
+    }
+
+    @Test
+    void doesNotCompactOverUnappliedRecords() throws IOException {
+        Path file = directory.resolve("overlap.journal");
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            for (int i = 1; i <= 8; i++) {
+                journal.append(record(i)).join();
+            }
+
+            // Seis registros sin aplicar no caben antes del checkpoint; copiarlos pisaría los que se recuperarían.
+            journal.checkpoint(2);
+
+            CompletionException error = assertThrows(CompletionException.class, () -> journal.append(record(9)).join());
+            assertEquals(IOException.class, error.getCause().getClass());
+        }
+
+        assertEquals(header_size + 2 * frame_size, readCheckpoint(file));
+
+        try (WriteJournal journal = new WriteJournal(file, capacity)) {
+            assertEquals(6, journal.getPendingRecords().size());
+            assertEquals("registro-03", texts(journal.getPendingRecords()).get(0));
+        }
+    }
+
+    // Registro de 20 bytes: "registro-NN" más relleno.
+    private static byte[] record(int number) {
+        return String.format("registro-%02d%9s", number, "").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> texts(List<byte[]> records) {
+        List<String> texts = new ArrayList<>();
+
+        for (byte[] record : records) {
+            texts.add(new String(record, StandardCharsets.UTF_8).trim());
+        }
+
+        return texts;
+    }
+
+    private static long readCheckpoint(Path file) throws IOException {
+        return ByteBuffer.wrap(readBytes(file, checkpoint_position, 8)).getLong();
+    }
+
+    private static byte[] copyOf(byte[] bytes, int length) {
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, 0, copy, 0, length);
+
+        return copy;
+    }
+
+    private static byte[] readBytes(Path file, int position, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(length);
+            channel.read(bytes, position);
+
+            return bytes.array();
+        }
+    }
+
+    private static void writeBytes(Path file, int position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+}
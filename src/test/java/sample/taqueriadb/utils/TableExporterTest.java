@@ -0,0 +1,65 @@
+package sample.taqueriadb.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TableExporterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void guardsFormulasInCsv() throws IOException {
+        TableExporter<String[]> exporter = new TableExporter<>(
+            new String[] { "id", "name" }, row -> Integer.valueOf(row[0]), row -> row[1]
+        );
+        Path file = directory.resolve("formulas.csv");
+
+        exporter.export(
+            Stream.of(
+                new String[] { "-1", "=HYPERLINK(\"http://x\",\"y\")" },
+                new String[] { "2", "+52 555" },
+                new String[] { "3", "@SUM(A1)" },
+                new String[] { "4", "Ana, la de -5" }
+            ),
+            file, rows -> {}, () -> false
+        );
+
+        assertEquals(
+            List.of(
+                "id,name",
+                "-1,\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\"",
+                "2,'+52 555",
+                "3,'@SUM(A1)",
+                "4,\"Ana, la de -5\""
+            ),
+            Files.readAllLines(file, StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    void doesNotGuardJsonLines() throws IOException {
+        TableExporter<String> exporter = new TableExporter<>(new String[] { "name" }, name -> name);
+        Path file = directory.resolve("formulas.jsonl");
+
+        exporter.export(Stream.of("=1+1"), file, rows -> {}, () -> false);
+
+        assertEquals(List.of("{\"name\":\"=1+1\"}"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void removesFormulaGuard() {
+        assertEquals("=1+1", TableExporter.removeFormulaGuard("'=1+1"));
+        assertEquals("-5", TableExporter.removeFormulaGuard("'-5"));
+        assertEquals("'Ana", TableExporter.removeFormulaGuard("'Ana"));
+        assertEquals("'", TableExporter.removeFormulaGuard("'"));
+    }
+}
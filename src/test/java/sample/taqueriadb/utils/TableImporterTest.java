@@ -0,0 +1,94 @@
+package sample.taqueriadb.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableImporterTest {
+    private final TableImporter<String> importer = new TableImporter<>(
+        new String[] { "name" }, fields -> TableImporter.requireText(fields[0], "name", 100)
+    );
+
+    @TempDir
+    Path directory;
+
+    // Elementos recibidos por el inserter, en orden.
+    private final List<String> imported = new ArrayList<>();
+
+    @Test
+    void readsQuotedValues() throws IOException, SQLException {
+        importText("id,name\n1,\"Ana \"\"la grande\"\"\"\n2,\"Beto, Jr.\"\n3,'=1+1\n");
+
+        assertEquals(List.of("Ana \"la grande\"", "Beto, Jr.", "=1+1"), imported);
+    }
+
+    @Test
+    void readsNewlinesInsideQuotes() throws IOException, SQLException {
+        ImportResult result = importText("name\n\"Carla\nLópez\"\nDaniel\n\"\"\nElena\n");
+
+        assertEquals(List.of("Carla\nLópez", "Daniel", "Elena"), imported);
+        // La fila vacía está en la línea 5, ya que la primera fila ocupa dos líneas.
+        assertEquals(List.of("linea,error,registro", "5,name está vacío,\"\"\"\"\"\""), errorLines(result));
+    }
+
+    @Test
+    void readsCrlfLineEnds() throws IOException, SQLException {
+        ImportResult result = importText("name\r\nAna\r\n\"Be\r\nto\"\r\n\r\nCarla\r\n");
+
+        assertEquals(List.of("Ana", "Be\r\nto", "Carla"), imported);
+        assertEquals(0, result.getRejectedCount());
+    }
+
+    @Test
+    void rejectsUnclosedQuoteWithItsLine() throws IOException, SQLException {
+        StringBuilder text = new StringBuilder("name\nAna\n\"Beto\n");
+
+        // Más de 64 KB después de la comilla sin cerrar.
+        for (int i = 1; i <= 10_000; i++) {
+            text.append("Cliente ").append(i).append('\n');
+        }
+
+        ImportResult result = importText(text.toString());
+
+        assertEquals(10_001, result.getImportedCount());
+        assertEquals("Ana", imported.get(0));
+        assertEquals("Cliente 1", imported.get(1));
+        assertEquals("Cliente 10000", imported.get(imported.size() - 1));
+
+        List<String> errors = errorLines(result);
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(1).startsWith("3,la fila ocupa más de 65536 bytes"), errors.get(1));
+    }
+
+    private ImportResult importText(String text) throws IOException, SQLException {
+        Path file = directory.resolve("importar.csv");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+        return importer.importFile(
+            file,
+            TableImporter.getErrorFile(file),
+            items -> {
+                imported.addAll(items);
+                return new BatchResult(items.size());
+            },
+            rows -> {},
+            () -> false
+        );
+    }
+
+    private static List<String> errorLines(ImportResult result) throws IOException {
+        return result.getErrorFile() == null
+            ? List.of()
+            : Files.readAllLines(result.getErrorFile(), StandardCharsets.UTF_8);
+    }
+}